@@ -0,0 +1,148 @@
+package com.skypro.telegram_team.cache;
+
+import com.pengrad.telegrambot.model.request.InlineKeyboardButton;
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+import com.skypro.telegram_team.keyboard.Callback;
+import com.skypro.telegram_team.keyboard.PagedKeyboard;
+import com.skypro.telegram_team.model.Shelter;
+import com.skypro.telegram_team.model.User;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш inline keyboard выбора приюта и выбора волонтера.
+ * <p>
+ * У каждой клавиатуры есть версия, которая увеличивается при изменении приютов или волонтеров
+ * (сразу и повторно после завершения транзакции).
+ * Клавиатура строится заново при первом обращении после смены версии или через telegram.bot.cache.keyboards.ttl
+ * (изменения, сделанные другим экземпляром бота), иначе все пользователи получают одни и те же готовые страницы.
+ * На странице не больше telegram.bot.keyboard.page-size кнопок.
+ */
+@Log4j2
+@Component
+public class KeyboardCache {
+    private final Duration ttl;
+    private final int pageSize;
+    private final Supplier<Instant> clock;
+    private final AtomicLong buildCount = new AtomicLong();
+    private final Slot shelters = new Slot();
+    private final Slot volunteers = new Slot();
+
+    @Autowired
+    public KeyboardCache(@Value("${telegram.bot.cache.keyboards.ttl:5m}") Duration ttl,
+                         @Value("${telegram.bot.keyboard.page-size:10}") int pageSize) {
+        this(ttl, pageSize, Instant::now);
+    }
+
+    public KeyboardCache(Duration ttl, int pageSize, Supplier<Instant> clock) {
+        this.ttl = ttl;
+        this.pageSize = pageSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Страница клавиатуры выбора приюта
+     *
+     * @param page   номер страницы с 0
+     * @param loader загрузка приютов из БД
+     * @return кнопки приютов с командой {@link Callback#SAVE_SHELTER}
+     */
+    public InlineKeyboardMarkup getShelters(int page, Supplier<? extends Collection<Shelter>> loader) {
+        return shelters.get(() -> PagedKeyboard.of(loader.get().stream()
+                        .map(shelter -> new InlineKeyboardButton(shelter.getName())
+                                .callbackData(Callback.SAVE_SHELTER.name() + shelter.getId()))
+                        .toList(), Callback.SHELTERS_PAGE, List.of(), pageSize))
+                .page(page);
+    }
+
+    /**
+     * Страница клавиатуры выбора волонтера
+     *
+     * @param page   номер страницы с 0
+     * @param loader загрузка волонтеров
+     * @return кнопки волонтеров с командой {@link Callback#ASK_VOLUNTEER} и кнопка {@link Callback#ASK_ANY_VOLUNTEER}
+     */
+    public InlineKeyboardMarkup getVolunteers(int page, Supplier<? extends Collection<User>> loader) {
+        return volunteers.get(() -> PagedKeyboard.of(loader.get().stream()
+                        .map(volunteer -> new InlineKeyboardButton(volunteer.getName())
+                                .callbackData(Callback.ASK_VOLUNTEER.name() + volunteer.getTelegramId()))
+                        .toList(), Callback.VOLUNTEERS_PAGE,
+                List.of(new InlineKeyboardButton(Callback.ASK_ANY_VOLUNTEER.getText())
+                        .callbackData(Callback.ASK_ANY_VOLUNTEER.name())), pageSize))
+                .page(page);
+    }
+
+    /**
+     * Сменить версию клавиатуры выбора приюта
+     */
+    public void invalidateShelters() {
+        shelters.invalidate();
+    }
+
+    /**
+     * Сменить версию клавиатуры выбора волонтера
+     */
+    public void invalidateVolunteers() {
+        volunteers.invalidate();
+    }
+
+    /**
+     * Количество построений клавиатур
+     */
+    public long getBuildCount() {
+        return buildCount.get();
+    }
+
+    /**
+     * Версия и построенная клавиатура
+     */
+    private final class Slot {
+        private final AtomicLong version = new AtomicLong();
+        private volatile Built built;
+
+        private PagedKeyboard get(Supplier<PagedKeyboard> builder) {
+            Instant now = clock.get();
+            long currentVersion = version.get();
+            Built current = built;
+            if (current != null && current.version() == currentVersion && current.builtAt().plus(ttl).isAfter(now)) {
+                return current.keyboard();
+            }
+            PagedKeyboard keyboard = builder.get();
+            buildCount.incrementAndGet();
+            synchronized (this) {
+                //Клавиатура, построенная до смены версии, не сохраняется
+                if (version.get() == currentVersion) {
+                    built = new Built(currentVersion, keyboard, now);
+                }
+            }
+            log.debug("Keyboard built: version {}, {} pages", currentVersion, keyboard.size());
+            return keyboard;
+        }
+
+        private void invalidate() {
+            version.incrementAndGet();
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        version.incrementAndGet();
+                    }
+                });
+            }
+        }
+    }
+
+    private record Built(long version, PagedKeyboard keyboard, Instant builtAt) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.skypro.telegram_team.cache;
+
+import com.skypro.telegram_team.keyboard.Callback;
+import com.skypro.telegram_team.model.Shelter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Кэш информации приютов для ответов на команды INF_* и HOW_* inline keyboard.
+ * <p>
+ * Тексты всех приютов загружаются из БД одним запросом в неизменяемый снимок (id приюта -> команда -> текст),
+ * который используется всеми до изменения приютов.
+ * При создании, изменении и удалении приюта снимок сбрасывается сразу и повторно после завершения транзакции,
+ * следующее обращение загружает его заново.
+ */
+@Log4j2
+@Component
+public class ShelterInfoCache {
+    //Команда -> поле приюта
+    private static final Map<Callback, Function<Shelter, String>> FIELDS = new EnumMap<>(Callback.class);
+
+    static {
+        FIELDS.put(Callback.INF_ADDRESS, Shelter::getAddress);
+        FIELDS.put(Callback.INF_SCHEDULE, Shelter::getSchedule);
+        FIELDS.put(Callback.INF_SCHEME, Shelter::getScheme);
+        FIELDS.put(Callback.INF_SAFETY, Shelter::getSafety);
+        FIELDS.put(Callback.HOW_RULES, Shelter::getRules);
+        FIELDS.put(Callback.HOW_DOCS, Shelter::getDocs);
+        FIELDS.put(Callback.HOW_MOVE, Shelter::getMovement);
+        FIELDS.put(Callback.HOW_ARRANGE, Shelter::getArrangements);
+        FIELDS.put(Callback.HOW_ARRANGE_PUPPY, Shelter::getArrangementsForPuppy);
+        FIELDS.put(Callback.HOW_ARRANGE_CRIPPLE, Shelter::getArrangementsForCripple);
+        FIELDS.put(Callback.HOW_EXPERT_FIRST, Shelter::getExpertAdvicesFirst);
+        FIELDS.put(Callback.HOW_EXPERT_NEXT, Shelter::getExpertAdvicesNext);
+        FIELDS.put(Callback.HOW_REJECT_REASONS, Shelter::getRejectReasons);
+    }
+
+    //Увеличивается при каждом сбросе, загруженный до сброса снимок не сохраняется
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong loadCount = new AtomicLong();
+    private volatile Map<Long, Map<Callback, String>> snapshot;
+
+    /**
+     * Команды, на которые отвечает кэш
+     */
+    public static Set<Callback> callbacks() {
+        return Collections.unmodifiableSet(FIELDS.keySet());
+    }
+
+    /**
+     * Получить информацию приюта, при отсутствии снимка - загрузить все приюты
+     *
+     * @param shelterId id приюта
+     * @param callback  команда из {@link #callbacks()}
+     * @param loader    загрузка всех приютов из БД
+     * @return текст или null, если у приюта он не заполнен
+     */
+    public String get(Long shelterId, Callback callback, Supplier<? extends Collection<Shelter>> loader) {
+        Map<Long, Map<Callback, String>> current = snapshot;
+        if (current == null) {
+            current = load(loader);
+        }
+        Map<Callback, String> texts = current.get(shelterId);
+        return texts == null ? null : texts.get(callback);
+    }
+
+    /**
+     * Сбросить снимок после изменения приютов
+     */
+    public void invalidate() {
+        reset();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    reset();
+                }
+            });
+        }
+    }
+
+    /**
+     * Количество загрузок снимка из БД
+     */
+    public long getLoadCount() {
+        return loadCount.get();
+    }
+
+    private Map<Long, Map<Callback, String>> load(Supplier<? extends Collection<Shelter>> loader) {
+        long loadGeneration = generation.get();
+        Collection<Shelter> shelters = loader.get();
+        Map<Long, Map<Callback, String>> loaded = new HashMap<>(shelters.size() * 2);
+        for (Shelter shelter : shelters) {
+            //EnumMap, так как тексты могут быть не заполнены
+            Map<Callback, String> texts = new EnumMap<>(Callback.class);
+            FIELDS.forEach((callback, field) -> texts.put(callback, field.apply(shelter)));
+            loaded.put(shelter.getId(), Collections.unmodifiableMap(texts));
+        }
+        Map<Long, Map<Callback, String>> result = Collections.unmodifiableMap(loaded);
+        loadCount.incrementAndGet();
+        synchronized (this) {
+            if (generation.get() == loadGeneration) {
+                snapshot = result;
+            }
+        }
+        log.debug("Shelter info loaded: {} shelters", result.size());
+        return result;
+    }
+
+    private synchronized void reset() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+}
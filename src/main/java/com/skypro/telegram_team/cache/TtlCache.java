@@ -0,0 +1,124 @@
+package com.skypro.telegram_team.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Кэш с ограниченным временем хранения и количеством элементов.
+ * <p>
+ * Значение хранится не дольше ttl, при переполнении удаляется давно не использованное значение.
+ * Загрузка выполняется вне блокировки, пустой результат загрузки не кэшируется.
+ * Если во время загрузки кэш был инвалидирован, загруженное значение не сохраняется.
+ *
+ * @param <K> ключ
+ * @param <V> значение
+ */
+public class TtlCache<K, V> {
+    private final Duration ttl;
+    private final int maxSize;
+    private final Supplier<Instant> clock;
+    //Порядок доступа: первым идет давно не использованное значение
+    private final Map<K, Entry<V>> entries;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    //Увеличивается при каждой инвалидации
+    private long generation;
+
+    public TtlCache(Duration ttl, int maxSize) {
+        this(ttl, maxSize, Instant::now);
+    }
+
+    public TtlCache(Duration ttl, int maxSize, Supplier<Instant> clock) {
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > TtlCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Получить значение из кэша, при отсутствии - загрузить
+     *
+     * @param key    ключ
+     * @param loader загрузка значения
+     * @return значение или пустой Optional, если загрузка ничего не вернула
+     */
+    public Optional<V> get(K key, Function<K, Optional<V>> loader) {
+        Instant now = clock.get();
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt().isAfter(now)) {
+                hitCount.incrementAndGet();
+                return Optional.of(entry.value());
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            loadGeneration = generation;
+        }
+        missCount.incrementAndGet();
+        Optional<V> value = loader.apply(key);
+        value.ifPresent(v -> put(key, v, now, loadGeneration));
+        return value;
+    }
+
+    /**
+     * Сохранить значение в кэш
+     *
+     * @param key   ключ
+     * @param value значение
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.get().plus(ttl)));
+    }
+
+    /**
+     * Удалить значение из кэша
+     *
+     * @param key ключ
+     */
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    /**
+     * Очистить кэш
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private synchronized void put(K key, V value, Instant loadedAt, long loadGeneration) {
+        if (generation == loadGeneration) {
+            entries.put(key, new Entry<>(value, loadedAt.plus(ttl)));
+        }
+    }
+
+    private record Entry<V>(V value, Instant expiresAt) {
+    }
+}
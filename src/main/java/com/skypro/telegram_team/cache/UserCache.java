@@ -0,0 +1,84 @@
+package com.skypro.telegram_team.cache;
+
+import com.skypro.telegram_team.model.User;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Кэш пользователей по telegramId.
+ * <p>
+ * Пользователь загружается из БД при первом обращении и хранится не дольше telegram.bot.cache.users.ttl.
+ * При изменении пользователя запись удаляется сразу и повторно после завершения транзакции,
+ * чтобы в кэш не попали незафиксированные данные.
+ */
+@Log4j2
+@Component
+public class UserCache {
+    private final TtlCache<Long, User> cache;
+
+    public UserCache(@Value("${telegram.bot.cache.users.ttl:10m}") Duration ttl,
+                     @Value("${telegram.bot.cache.users.max-size:10000}") int maxSize) {
+        this.cache = new TtlCache<>(ttl, maxSize);
+    }
+
+    /**
+     * Найти пользователя в кэше, при отсутствии - загрузить
+     *
+     * @param telegramId идентификатор Telegram
+     * @param loader     загрузка пользователя из БД
+     * @return пользователь или пустой Optional, если пользователь не найден
+     */
+    public Optional<User> get(Long telegramId, Function<Long, Optional<User>> loader) {
+        return cache.get(telegramId, loader);
+    }
+
+    /**
+     * Удалить пользователя из кэша
+     *
+     * @param telegramId идентификатор Telegram
+     */
+    public void invalidate(Long telegramId) {
+        cache.invalidate(telegramId);
+        afterCompletion(() -> cache.invalidate(telegramId));
+    }
+
+    /**
+     * Очистить кэш
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        afterCompletion(cache::invalidateAll);
+    }
+
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    @Scheduled(fixedDelayString = "${telegram.bot.cache.stats-interval:600000}")
+    public void logStats() {
+        log.info("User cache: size {}, hits {}, misses {}", cache.size(), getHitCount(), getMissCount());
+    }
+
+    private void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+}
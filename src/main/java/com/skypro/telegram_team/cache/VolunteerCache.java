@@ -0,0 +1,98 @@
+package com.skypro.telegram_team.cache;
+
+import com.skypro.telegram_team.model.User;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш списка волонтеров.
+ * <p>
+ * Список загружается из БД целиком и используется всеми до истечения telegram.bot.cache.volunteers.ttl,
+ * после чего загружается заново при следующем обращении.
+ * При изменении волонтеров или признака волонтера список сбрасывается сразу и повторно после завершения транзакции.
+ */
+@Log4j2
+@Component
+public class VolunteerCache {
+    private final Duration ttl;
+    private final Supplier<Instant> clock;
+    //Увеличивается при каждом сбросе, загруженный до сброса список не сохраняется
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong loadCount = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public VolunteerCache(@Value("${telegram.bot.cache.volunteers.ttl:5m}") Duration ttl) {
+        this(ttl, Instant::now);
+    }
+
+    public VolunteerCache(Duration ttl, Supplier<Instant> clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Получить список волонтеров, при отсутствии или устаревании - загрузить
+     *
+     * @param loader загрузка волонтеров из БД
+     * @return неизменяемый список волонтеров
+     */
+    public List<User> get(Supplier<? extends Collection<User>> loader) {
+        Instant now = clock.get();
+        Snapshot current = snapshot;
+        if (current != null && current.loadedAt().plus(ttl).isAfter(now)) {
+            return current.volunteers();
+        }
+        long loadGeneration = generation.get();
+        List<User> volunteers = List.copyOf(loader.get());
+        loadCount.incrementAndGet();
+        synchronized (this) {
+            if (generation.get() == loadGeneration) {
+                snapshot = new Snapshot(volunteers, now);
+            }
+        }
+        log.debug("Volunteers loaded: {}", volunteers.size());
+        return volunteers;
+    }
+
+    /**
+     * Сбросить список волонтеров
+     */
+    public void invalidate() {
+        reset();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    reset();
+                }
+            });
+        }
+    }
+
+    /**
+     * Количество загрузок списка из БД
+     */
+    public long getLoadCount() {
+        return loadCount.get();
+    }
+
+    private synchronized void reset() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private record Snapshot(List<User> volunteers, Instant loadedAt) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.skypro.telegram_team.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+    //Потоковая выгрузка отчетов дольше таймаута асинхронных запросов Tomcat (30 секунд)
+    @Value("${telegram.bot.export.timeout:30m}")
+    private Duration asyncTimeout;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncTimeout.toMillis());
+    }
+}
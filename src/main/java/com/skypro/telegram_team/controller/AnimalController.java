@@ -1,15 +1,22 @@
 package com.skypro.telegram_team.controller;
 
+import com.skypro.telegram_team.dto.AnimalSummary;
+import com.skypro.telegram_team.dto.KeysetPage;
+import com.skypro.telegram_team.dto.KeysetRequest;
+import com.skypro.telegram_team.importer.ImportResult;
 import com.skypro.telegram_team.model.Animal;
 import com.skypro.telegram_team.service.AnimalService;
+import com.skypro.telegram_team.service.ImportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,9 +29,11 @@ import java.util.List;
 @RequestMapping("/animals")
 public class AnimalController {
     private final AnimalService animalService;
+    private final ImportService importService;
 
-    public AnimalController(AnimalService animalService) {
+    public AnimalController(AnimalService animalService, ImportService importService) {
         this.animalService = animalService;
+        this.importService = importService;
     }
 
     @Operation(summary = "поиск животного в БД по личному идентификатору", tags = "Animals"
@@ -128,6 +137,20 @@ public class AnimalController {
         return animalService.findAll();
     }
 
+    @Operation(summary = "Постраничный список животных", tags = "Animals")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Страница животных, nextCursor - cursor следующей страницы")
+    })
+    @GetMapping("/page")
+    public KeysetPage<AnimalSummary> getAnimalsPage(
+            @Parameter(description = "Id последней записи предыдущей страницы") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Размер страницы (до 500)") @RequestParam(defaultValue = "50") int limit,
+            @Parameter(description = "Порядок сортировки по id") @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @Parameter(description = "Статус животного") @RequestParam(required = false) Animal.AnimalStateEnum state,
+            @Parameter(description = "Id приюта") @RequestParam(required = false) Long shelterId) {
+        return animalService.findPage(state, shelterId, new KeysetRequest(cursor, limit, direction));
+    }
+
     @Operation(summary = "Удаление животного из БД по личному идентификатору"
             , tags = "Animals"
             , responses = {@ApiResponse(
@@ -244,6 +267,20 @@ public class AnimalController {
         return animalService.create(animal, type);
     }
 
+    @Operation(summary = "Импорт животных из JSON массива или CSV", tags = "Animals")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Все строки импортированы"),
+            @ApiResponse(responseCode = "400", description = "Есть ошибки в строках, ничего не импортировано")
+    })
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportResult> importAnimals(
+            @Parameter(description = "JSON массив или CSV (.csv) с заголовком") @RequestParam("file") MultipartFile file,
+            @Parameter(description = "zip архив с фото, в строке указывается имя файла в архиве")
+            @RequestParam(value = "photos", required = false) MultipartFile photos) throws IOException {
+        ImportResult result = importService.importAnimals(file, photos);
+        return result.isSuccess() ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+    }
+
     @Operation(summary = "Загрузка фото животного", tags = "Animals")
     @PostMapping(value = "/{id}/photo", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<String> photoUpload(@PathVariable("id") Long id,
@@ -254,11 +291,14 @@ public class AnimalController {
 
     @Operation(summary = "Выгрузка фото животного", tags = "Animals")
     @GetMapping("/{id}/photo")
-    public ResponseEntity<byte[]> photoDownload(@PathVariable("id") Long id) {
+    public ResponseEntity<Resource> photoDownload(@PathVariable("id") Long id) {
+        //If-None-Match/If-Modified-Since (304) и Range (206) обрабатывает Spring по заголовкам и ресурсу
         var photo = animalService.photoDownload(id);
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.IMAGE_JPEG);
-        headers.setContentLength(photo.length);
-        return ResponseEntity.status(HttpStatus.OK).headers(headers).body(photo);
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .eTag(photo.getHash())
+                .lastModified(photo.lastModified())
+                .cacheControl(CacheControl.noCache())
+                .body(photo);
     }
 }
@@ -1,6 +1,12 @@
 package com.skypro.telegram_team.controller;
 
+import com.skypro.telegram_team.dto.KeysetPage;
+import com.skypro.telegram_team.dto.KeysetRequest;
+import com.skypro.telegram_team.dto.ReportSummary;
+import com.skypro.telegram_team.export.ReportExportFilter;
+import com.skypro.telegram_team.export.ReportExportFormat;
 import com.skypro.telegram_team.model.Report;
+import com.skypro.telegram_team.service.ReportExportService;
 import com.skypro.telegram_team.service.ReportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,19 +15,28 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/reports")
 public class ReportController {
     final private ReportService reportService;
+    final private ReportExportService reportExportService;
 
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService, ReportExportService reportExportService) {
         this.reportService = reportService;
+        this.reportExportService = reportExportService;
     }
 
     @Operation(summary = "Поиск отчета по id", description = "Поиск отчета по id", tags = "Reports")
@@ -47,6 +62,49 @@ public class ReportController {
         return reportService.findAll();
     }
 
+    @Operation(summary = "Постраничный список отчетов без фото", tags = "Reports")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Страница отчетов, nextCursor - cursor следующей страницы")
+    })
+    @GetMapping("/page")
+    public KeysetPage<ReportSummary> getReportsPage(
+            @Parameter(description = "Id последней записи предыдущей страницы") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Размер страницы (до 500)") @RequestParam(defaultValue = "50") int limit,
+            @Parameter(description = "Порядок сортировки по id") @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @Parameter(description = "Id усыновителя") @RequestParam(required = false) Long userId,
+            @Parameter(description = "Id животного") @RequestParam(required = false) Long animalId,
+            @Parameter(description = "Начало интервала дат (включительно)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Конец интервала дат (не включительно)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return reportService.findPage(userId, animalId, from, to, new KeysetRequest(cursor, limit, direction));
+    }
+
+    @Operation(summary = "Потоковая выгрузка отчетов в NDJSON или CSV", tags = "Reports")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Отчеты по возрастанию id, фото - ссылками")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReports(
+            @Parameter(description = "Формат выгрузки") @RequestParam(defaultValue = "NDJSON") ReportExportFormat format,
+            @Parameter(description = "Id приюта") @RequestParam(required = false) Long shelterId,
+            @Parameter(description = "Id животного") @RequestParam(required = false) Long animalId,
+            @Parameter(description = "Начало интервала дат (включительно)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Конец интервала дат (не включительно)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Выгружать ссылки на фото") @RequestParam(defaultValue = "false") boolean photos) {
+        var filter = new ReportExportFilter(shelterId, animalId, from, to);
+        StreamingResponseBody body = out -> reportExportService.export(filter, format, photos, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("reports." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
     @Operation(summary = "Удаление отчета по id", description = "Удаление отчета по id", tags = "Reports")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Отчет удален", content = {
@@ -82,11 +140,14 @@ public class ReportController {
 
     @Operation(summary = "Выгрузка фото отчета", tags = "Reports")
     @GetMapping("/{id}/photo")
-    public ResponseEntity<byte[]> photoDownload(@PathVariable("id") Long id) {
+    public ResponseEntity<Resource> photoDownload(@PathVariable("id") Long id) {
+        //If-None-Match/If-Modified-Since (304) и Range (206) обрабатывает Spring по заголовкам и ресурсу
         var photo = reportService.photoDownload(id);
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.IMAGE_JPEG);
-        headers.setContentLength(photo.length);
-        return ResponseEntity.status(HttpStatus.OK).headers(headers).body(photo);
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .eTag(photo.getHash())
+                .lastModified(photo.lastModified())
+                .cacheControl(CacheControl.noCache())
+                .body(photo);
     }
 }
@@ -1,7 +1,12 @@
 package com.skypro.telegram_team.controller;
 
+import com.skypro.telegram_team.dto.KeysetPage;
+import com.skypro.telegram_team.dto.KeysetRequest;
+import com.skypro.telegram_team.dto.ShelterSummary;
+import com.skypro.telegram_team.importer.ImportResult;
 import com.skypro.telegram_team.model.Animal;
 import com.skypro.telegram_team.model.Shelter;
+import com.skypro.telegram_team.service.ImportService;
 import com.skypro.telegram_team.service.ShelterService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,17 +15,24 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.Collection;
 
 @RestController
 @RequestMapping("/shelters")
 public class ShelterController {
     private final ShelterService shelterService;
+    private final ImportService importService;
 
-    public ShelterController(ShelterService shelterService) {
+    public ShelterController(ShelterService shelterService, ImportService importService) {
         this.shelterService = shelterService;
+        this.importService = importService;
     }
 
     @Operation(summary = "Поиск приюта по id", tags = "Shelters")
@@ -46,6 +58,19 @@ public class ShelterController {
         return shelterService.findAll();
     }
 
+    @Operation(summary = "Постраничный список приютов", tags = "Shelters")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Страница приютов, nextCursor - cursor следующей страницы")
+    })
+    @GetMapping("/page")
+    public KeysetPage<ShelterSummary> findPage(
+            @Parameter(description = "Id последней записи предыдущей страницы") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Размер страницы (до 500)") @RequestParam(defaultValue = "50") int limit,
+            @Parameter(description = "Порядок сортировки по id") @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @Parameter(description = "Вид животных приюта") @RequestParam(required = false) Animal.TypeAnimal type) {
+        return shelterService.findPage(type, new KeysetRequest(cursor, limit, direction));
+    }
+
     @Operation(summary = "Создание приюта", tags = "Shelters")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Приют создан", content = {
@@ -57,6 +82,19 @@ public class ShelterController {
         return shelterService.create(shelter, typeAnimal);
     }
 
+    @Operation(summary = "Импорт приютов из JSON массива или CSV", tags = "Shelters")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Все строки импортированы"),
+            @ApiResponse(responseCode = "400", description = "Есть ошибки в строках, ничего не импортировано")
+    })
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportResult> importShelters(
+            @Parameter(description = "JSON массив или CSV (.csv) с заголовком") @RequestParam("file") MultipartFile file)
+            throws IOException {
+        ImportResult result = importService.importShelters(file);
+        return result.isSuccess() ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+    }
+
     @Operation(summary = "Обновление данных приюта", tags = "Shelters")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Данные обновлены", content = {
@@ -1,5 +1,8 @@
 package com.skypro.telegram_team.controller;
 
+import com.skypro.telegram_team.dto.KeysetPage;
+import com.skypro.telegram_team.dto.KeysetRequest;
+import com.skypro.telegram_team.dto.UserSummary;
 import com.skypro.telegram_team.model.User;
 import com.skypro.telegram_team.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -8,6 +11,7 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -42,6 +46,21 @@ public class UserController {
         return userService.findAll();
     }
 
+    @Operation(summary = "Постраничный список пользователей", tags = "Users")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Страница пользователей, nextCursor - cursor следующей страницы")
+    })
+    @GetMapping("/page")
+    public KeysetPage<UserSummary> getUsersPage(
+            @Parameter(description = "Id последней записи предыдущей страницы") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Размер страницы (до 500)") @RequestParam(defaultValue = "50") int limit,
+            @Parameter(description = "Порядок сортировки по id") @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @Parameter(description = "Статус пользователя") @RequestParam(required = false) User.OwnerStateEnum state,
+            @Parameter(description = "Id выбранного приюта") @RequestParam(required = false) Long shelterId,
+            @Parameter(description = "Волонтер") @RequestParam(required = false) Boolean volunteer) {
+        return userService.findPage(state, shelterId, volunteer, new KeysetRequest(cursor, limit, direction));
+    }
+
     @Operation(summary = "Удаление пользователя по id", tags = "Users")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Удаление пользователя по id", content = {
@@ -0,0 +1,18 @@
+package com.skypro.telegram_team.dto;
+
+import com.skypro.telegram_team.model.Animal;
+
+/**
+ * Краткие данные животного для списков
+ *
+ * @param id        идентификатор животного
+ * @param name      кличка
+ * @param breed     порода
+ * @param type      вид животного
+ * @param state     статус животного
+ * @param shelterId идентификатор приюта
+ * @param userId    идентификатор усыновителя
+ */
+public record AnimalSummary(Long id, String name, String breed, Animal.TypeAnimal type,
+                            Animal.AnimalStateEnum state, Long shelterId, Long userId) {
+}
@@ -0,0 +1,12 @@
+package com.skypro.telegram_team.dto;
+
+import java.util.List;
+
+/**
+ * Страница списка
+ *
+ * @param items      записи страницы
+ * @param nextCursor значение cursor для следующей страницы (null, если это последняя страница)
+ */
+public record KeysetPage<T>(List<T> items, Long nextCursor) {
+}
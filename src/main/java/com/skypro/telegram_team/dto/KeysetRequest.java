@@ -0,0 +1,65 @@
+package com.skypro.telegram_team.dto;
+
+import com.skypro.telegram_team.exception.InvalidDataException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Запрос страницы списка по ключу (keyset).
+ * <p>
+ * Записи упорядочены по id, следующая страница начинается после id последней записи предыдущей (cursor),
+ * поэтому запрос не пропускает строки через OFFSET и работает одинаково быстро на любой странице
+ *
+ * @param cursor    id последней записи предыдущей страницы (null - первая страница)
+ * @param limit     размер страницы
+ * @param direction порядок сортировки по id
+ */
+public record KeysetRequest(Long cursor, int limit, Sort.Direction direction) {
+    public static final int MAX_LIMIT = 500;
+
+    public KeysetRequest {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidDataException("Размер страницы должен быть от 1 до " + MAX_LIMIT);
+        }
+        if (direction == null) {
+            direction = Sort.Direction.ASC;
+        }
+    }
+
+    /**
+     * Нижняя граница id (не включительно)
+     */
+    public long afterId() {
+        return direction.isAscending() && cursor != null ? cursor : Long.MIN_VALUE;
+    }
+
+    /**
+     * Верхняя граница id (не включительно)
+     */
+    public long beforeId() {
+        return direction.isDescending() && cursor != null ? cursor : Long.MAX_VALUE;
+    }
+
+    /**
+     * Размер страницы и сортировка по id для запроса репозитория
+     */
+    public Pageable pageable() {
+        return PageRequest.of(0, limit, Sort.by(direction, "id"));
+    }
+
+    /**
+     * Страница из результата запроса
+     *
+     * @param items записи страницы
+     * @param id    id записи
+     * @return страница, cursor следующей страницы null, если записей больше нет
+     */
+    public <T> KeysetPage<T> page(List<T> items, Function<T, Long> id) {
+        Long next = items.size() == limit ? id.apply(items.get(items.size() - 1)) : null;
+        return new KeysetPage<>(items, next);
+    }
+}
@@ -0,0 +1,18 @@
+package com.skypro.telegram_team.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Краткие данные отчета для списков, фото отчета выгружается отдельно
+ *
+ * @param id             идентификатор отчета
+ * @param date           дата отчета
+ * @param diet           рацион
+ * @param wellBeing      самочувствие
+ * @param changeBehavior изменения в поведении
+ * @param userId         идентификатор усыновителя
+ * @param animalId       идентификатор животного
+ */
+public record ReportSummary(Long id, LocalDateTime date, String diet, String wellBeing, String changeBehavior,
+                            Long userId, Long animalId) {
+}
@@ -0,0 +1,14 @@
+package com.skypro.telegram_team.dto;
+
+import com.skypro.telegram_team.model.Animal;
+
+/**
+ * Краткие данные приюта для списков
+ *
+ * @param id      идентификатор приюта
+ * @param name    название
+ * @param type    вид животных приюта
+ * @param address адрес
+ */
+public record ShelterSummary(Long id, String name, Animal.TypeAnimal type, String address) {
+}
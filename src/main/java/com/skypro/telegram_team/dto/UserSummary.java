@@ -0,0 +1,25 @@
+package com.skypro.telegram_team.dto;
+
+import com.skypro.telegram_team.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Краткие данные пользователя для списков
+ *
+ * @param id         идентификатор пользователя
+ * @param telegramId идентификатор Telegram
+ * @param name       имя
+ * @param surname    фамилия
+ * @param phone      телефон
+ * @param email      email
+ * @param state      статус пользователя
+ * @param volunteer  является ли пользователь волонтером
+ * @param endTest    окончание испытательного срока
+ * @param shelterId  идентификатор выбранного приюта
+ * @param animalId   идентификатор животного
+ */
+public record UserSummary(Long id, Long telegramId, String name, String surname, String phone, String email,
+                          User.OwnerStateEnum state, Boolean volunteer, LocalDateTime endTest,
+                          Long shelterId, Long animalId) {
+}
@@ -0,0 +1,72 @@
+package com.skypro.telegram_team.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Выгрузка отчетов в CSV (RFC 4180): строка заголовка, затем одна строка на отчет
+ */
+class CsvReportExportWriter implements ReportExportWriter {
+    private static final String HEADER = "id,date,userId,animalId,shelterId,diet,wellBeing,changeBehavior";
+    private final Writer writer;
+    private final boolean photos;
+    private boolean headerWritten;
+
+    CsvReportExportWriter(OutputStream out, boolean photos) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.photos = photos;
+    }
+
+    @Override
+    public void write(ReportExportRow row) throws IOException {
+        writeHeader();
+        writer.write(Long.toString(row.id()));
+        writeValue(row.date() == null ? null : row.date().toString());
+        writeValue(row.userId());
+        writeValue(row.animalId());
+        writeValue(row.shelterId());
+        writeValue(row.diet());
+        writeValue(row.wellBeing());
+        writeValue(row.changeBehavior());
+        if (photos) {
+            writeValue(row.photoPath());
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        //Заголовок нужен и в пустой выгрузке
+        writeHeader();
+        writer.flush();
+    }
+
+    private void writeHeader() throws IOException {
+        if (headerWritten) {
+            return;
+        }
+        headerWritten = true;
+        writer.write(photos ? HEADER + ",photo" : HEADER);
+        writer.write("\r\n");
+    }
+
+    private void writeValue(Object value) throws IOException {
+        writer.write(',');
+        if (value != null) {
+            writer.write(escape(value.toString()));
+        }
+    }
+
+    static String escape(String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
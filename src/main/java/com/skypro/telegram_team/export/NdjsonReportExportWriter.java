@@ -0,0 +1,60 @@
+package com.skypro.telegram_team.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Выгрузка отчетов в NDJSON: один JSON объект на строку
+ */
+class NdjsonReportExportWriter implements ReportExportWriter {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private final JsonGenerator generator;
+    private final boolean photos;
+
+    NdjsonReportExportWriter(OutputStream out, boolean photos) {
+        try {
+            this.generator = JSON_FACTORY.createGenerator(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        //Объекты разделяются переводом строки, а не пробелом
+        this.generator.setRootValueSeparator(null);
+        this.photos = photos;
+    }
+
+    @Override
+    public void write(ReportExportRow row) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", row.id());
+        generator.writeStringField("date", row.date() == null ? null : row.date().toString());
+        writeLong("userId", row.userId());
+        writeLong("animalId", row.animalId());
+        writeLong("shelterId", row.shelterId());
+        generator.writeStringField("diet", row.diet());
+        generator.writeStringField("wellBeing", row.wellBeing());
+        generator.writeStringField("changeBehavior", row.changeBehavior());
+        if (photos) {
+            generator.writeStringField("photo", row.photoPath());
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        generator.flush();
+    }
+
+    private void writeLong(String name, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value);
+        }
+    }
+}
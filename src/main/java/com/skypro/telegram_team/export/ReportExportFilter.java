@@ -0,0 +1,14 @@
+package com.skypro.telegram_team.export;
+
+import java.time.LocalDateTime;
+
+/**
+ * Фильтр выгрузки отчетов, условия со значением null не применяются
+ *
+ * @param shelterId идентификатор приюта животного
+ * @param animalId  идентификатор животного
+ * @param from      начало интервала дат включительно
+ * @param to        конец интервала дат не включительно
+ */
+public record ReportExportFilter(Long shelterId, Long animalId, LocalDateTime from, LocalDateTime to) {
+}
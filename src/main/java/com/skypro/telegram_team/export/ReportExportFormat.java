@@ -0,0 +1,40 @@
+package com.skypro.telegram_team.export;
+
+import java.io.OutputStream;
+
+/**
+ * Формат выгрузки отчетов
+ */
+public enum ReportExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ReportExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * Создать запись выгрузки в этом формате
+     *
+     * @param out    поток выгрузки
+     * @param photos выгружать ссылки на фото отчетов
+     */
+    public ReportExportWriter writer(OutputStream out, boolean photos) {
+        return switch (this) {
+            case NDJSON -> new NdjsonReportExportWriter(out, photos);
+            case CSV -> new CsvReportExportWriter(out, photos);
+        };
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
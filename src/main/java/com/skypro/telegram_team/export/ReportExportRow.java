@@ -0,0 +1,29 @@
+package com.skypro.telegram_team.export;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка выгрузки отчетов
+ *
+ * @param id             идентификатор отчета
+ * @param date           дата отчета
+ * @param userId         идентификатор усыновителя
+ * @param animalId       идентификатор животного
+ * @param shelterId      идентификатор приюта животного
+ * @param diet           рацион
+ * @param wellBeing      самочувствие
+ * @param changeBehavior изменения в поведении
+ * @param photoHash      хеш фото в PhotoStorage (null, если фото нет)
+ */
+public record ReportExportRow(long id, LocalDateTime date, Long userId, Long animalId, Long shelterId,
+                              String diet, String wellBeing, String changeBehavior, String photoHash) {
+
+    /**
+     * Ссылка на выгрузку фото отчета
+     *
+     * @return путь к фото или null, если фото нет
+     */
+    public String photoPath() {
+        return photoHash == null ? null : "/reports/" + id + "/photo";
+    }
+}
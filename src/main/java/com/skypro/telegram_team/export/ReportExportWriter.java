@@ -0,0 +1,20 @@
+package com.skypro.telegram_team.export;
+
+import java.io.IOException;
+
+/**
+ * Запись строк выгрузки отчетов в поток.
+ * Строки пишутся по одной, в памяти не накапливаются
+ */
+public interface ReportExportWriter {
+
+    /**
+     * Записать строку отчета
+     */
+    void write(ReportExportRow row) throws IOException;
+
+    /**
+     * Дописать буферизованные данные, поток выгрузки не закрывается
+     */
+    void finish() throws IOException;
+}
@@ -1,151 +1,202 @@
 package com.skypro.telegram_team.handler;
 
 import com.pengrad.telegrambot.model.CallbackQuery;
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+import com.pengrad.telegrambot.request.BaseRequest;
+import com.pengrad.telegrambot.request.EditMessageReplyMarkup;
 import com.pengrad.telegrambot.request.SendMessage;
+import com.skypro.telegram_team.cache.ShelterInfoCache;
 import com.skypro.telegram_team.handler.buffer.Question;
 import com.skypro.telegram_team.handler.buffer.QuestionsBuffer;
 import com.skypro.telegram_team.handler.buffer.Request;
 import com.skypro.telegram_team.handler.buffer.RequestsBuffer;
 import com.skypro.telegram_team.keyboard.Callback;
+import com.skypro.telegram_team.keyboard.CallbackRoutes;
 import com.skypro.telegram_team.keyboard.MenuKeyboard;
 import com.skypro.telegram_team.model.Shelter;
 import com.skypro.telegram_team.model.User;
 import com.skypro.telegram_team.service.ShelterService;
 import com.skypro.telegram_team.service.UserService;
+import com.skypro.telegram_team.timer.VolunteerDigest;
+import com.skypro.telegram_team.timer.VolunteerDigestStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import javax.persistence.EntityNotFoundException;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
 
 @Component
 public class BotCallbackHandler {
     private final Logger logger = LoggerFactory.getLogger(BotCallbackHandler.class);
+    //Команды, доступные до выбора приюта
+    private static final Set<Callback> WITHOUT_SHELTER = EnumSet.of(Callback.SAVE_SHELTER, Callback.SHELTERS_PAGE,
+            Callback.ADOPTER_INFO, Callback.DIGEST_PAGE);
     private final UserService userService;
     private final ShelterService shelterService;
     private final QuestionsBuffer questionsBuffer;
     private final RequestsBuffer requestsBuffer;
+    private final VolunteerDigestStore digestStore;
+    private final Map<Callback, CallbackAction> actions = new EnumMap<>(Callback.class);
+    //Команды листания, изменяют сообщение с нажатой кнопкой
+    private final Map<Callback, EditAction> edits = new EnumMap<>(Callback.class);
 
     public BotCallbackHandler(UserService userService, ShelterService shelterService,
-                              QuestionsBuffer questionsBuffer, RequestsBuffer requestsBuffer) {
+                              QuestionsBuffer questionsBuffer, RequestsBuffer requestsBuffer,
+                              VolunteerDigestStore digestStore) {
         this.userService = userService;
         this.shelterService = shelterService;
         this.questionsBuffer = questionsBuffer;
         this.requestsBuffer = requestsBuffer;
+        this.digestStore = digestStore;
+        //Присвоить приют
+        actions.put(Callback.SAVE_SHELTER, (chatId, user, route) ->
+                Collections.singletonList(assignUserToShelter(route.payloadAsLong(), user)));
+        //Страницы списков приютов и волонтеров
+        edits.put(Callback.SHELTERS_PAGE, keyboardPage(shelterService::getSheltersKeyboard));
+        edits.put(Callback.VOLUNTEERS_PAGE, keyboardPage(userService::getVolunteersKeyboard));
+        //Страницы сводки волонтерам
+        edits.put(Callback.DIGEST_PAGE, this::digestPage);
+        //Данные усыновителя из сводки волонтерам
+        actions.put(Callback.ADOPTER_INFO, (chatId, user, route) ->
+                Collections.singletonList(getAdopterInfo(route.payloadAsLong(), chatId, user)));
+        //Информация о приюте
+        for (Callback callback : ShelterInfoCache.callbacks()) {
+            actions.put(callback, this::shelterInfo);
+        }
+        //Вопрос конкретному волонтеру (чат выбранного волонтера в callback data)
+        actions.put(Callback.ASK_VOLUNTEER, (chatId, user, route) ->
+                askVolunteer(chatId, route.payloadAsLong()));
+        //Вопрос любому волонтеру (будет найден первый попавшийся)
+        actions.put(Callback.ASK_ANY_VOLUNTEER, (chatId, user, route) -> userService.findAnyVolunteer()
+                .map(volunteer -> askVolunteer(chatId, volunteer.getTelegramId()))
+                .orElseGet(() -> Collections.singletonList(new SendMessage(chatId, "Нет свободных волонтеров"))));
+        //Данные пользователя и отчета
+        actions.put(Callback.SAVE_USER_PHONE, request(Request::setUserPhoneRequested, "Напишите телефон"));
+        actions.put(Callback.SAVE_USER_EMAIL, request(Request::setUserEmailRequested, "Напишите почту"));
+        actions.put(Callback.SEND_PHOTO, request(Request::setReportPhotoRequested, "Отправьте фото"));
+        actions.put(Callback.SEND_DIET, request(Request::setReportDietRequested, "Опишите диету"));
+        actions.put(Callback.SEND_BEHAVIOR, request(Request::setReportBehaviorRequested, "Опишите поведение"));
+        actions.put(Callback.SEND_WELL_BEING, request(Request::setReportWellBeingRequest, "Опишите самочувствие"));
     }
 
     /**
      * Обработка сообщений с callback
-     * (при нажатии на меню inline keyboard)
+     * (при нажатии на меню inline keyboard).
+     * Команда определяется по таблице {@link CallbackRoutes}, обработчики команд собраны в {@link #actions}.
+     * Команды листания ({@link #edits}) изменяют сообщение с нажатой кнопкой
      *
      * @param callbackQuery команды inline keyboard
-     * @return сообщения для отправки пользователю
+     * @return сообщения для отправки пользователю и изменения сообщений
      */
-    public List<SendMessage> processCallback(CallbackQuery callbackQuery) {
+    public List<BaseRequest<?, ?>> processCallback(CallbackQuery callbackQuery) {
         //callback команды
         Long userChatId = callbackQuery.message().chat().id();
         User user = userService.findByTelegramId(userChatId);
+        CallbackRoutes.Route route = CallbackRoutes.route(callbackQuery.data());
 
-        if (callbackQuery.data().startsWith(Callback.SAVE_SHELTER.name())) {
-            //Присвоить приют
-            Long shelterId = Long.parseLong(callbackQuery.data().substring(Callback.SAVE_SHELTER.name().length()));
-            return Collections.singletonList(assignUserToShelter(shelterId, user));
+        if (user.getShelter() == null && (route == null || !WITHOUT_SHELTER.contains(route.callback()))) {
+            return Collections.singletonList(new SendMessage(userChatId, "Приют не выбран"));
+        }
+        EditAction edit = route == null ? null : edits.get(route.callback());
+        if (edit != null) {
+            return Collections.singletonList(edit.apply(userChatId, callbackQuery.message().messageId(), user, route));
         }
+        CallbackAction action = route == null ? null : actions.get(route.callback());
+        if (action == null) {
+            return Collections.emptyList();
+        }
+        return action.apply(userChatId, user, route);
+    }
 
-        if (user.getShelter() != null) {
-            Request request = new Request(userChatId);
-            if (callbackQuery.data().equals(Callback.INF_ADDRESS.name())) {
-                //Адрес
-                return Collections.singletonList(new SendMessage(userChatId, user.getShelter().getAddress()));
-            } else if (callbackQuery.data().equals(Callback.INF_SCHEDULE.name())) {
-                //Расписание
-                return Collections.singletonList(new SendMessage(userChatId, user.getShelter().getSchedule()));
-            } else if (callbackQuery.data().equals(Callback.INF_SCHEME.name())) {
-                //Схема проезда
-                return Collections.singletonList(new SendMessage(userChatId, user.getShelter().getScheme()));
-            } else if (callbackQuery.data().equals(Callback.INF_SAFETY.name())) {
-                //Техника безопасности
-                return Collections.singletonList(new SendMessage(userChatId, user.getShelter().getSafety()));
-            } else if (callbackQuery.data().equals(Callback.HOW_RULES.name())) {
-                //Правила знакомства с собакой
-                return Collections.singletonList(new SendMessage(userChatId, user.getShelter().getRules()));
-            } else if (callbackQuery.data().equals(Callback.HOW_DOCS.name())) {
-                //Список документов
-                return Collections.singletonList(new SendMessage(userChatId, user.getShelter().getDocs()));
-            } else if (callbackQuery.data().equals(Callback.HOW_MOVE.name())) {
-                //Рекомендации по транспортировке
-                return Collections.singletonList(new SendMessage(userChatId, user.getShelter().getMovement()));
-            } else if (callbackQuery.data().equals(Callback.HOW_ARRANGE.name())) {
-                //Рекомендации по обустройству
-                return Collections.singletonList(new SendMessage(userChatId, user.getShelter().getArrangements()));
-            } else if (callbackQuery.data().equals(Callback.HOW_ARRANGE_PUPPY.name())) {
-                //Рекомендации по обустройству для щенка
-                return Collections.singletonList(new SendMessage(userChatId, user.getShelter().getArrangementsForPuppy()));
-            } else if (callbackQuery.data().equals(Callback.HOW_ARRANGE_CRIPPLE.name())) {
-                //Рекомендации по обустройству для собаки-инвалида
-                return Collections.singletonList(new SendMessage(userChatId, user.getShelter().getArrangementsForCripple()));
-            } else if (callbackQuery.data().equals(Callback.HOW_EXPERT_FIRST.name())) {
-                //Советы кинолога по первому общению
-                return Collections.singletonList(new SendMessage(userChatId, user.getShelter().getExpertAdvicesFirst()));
-            } else if (callbackQuery.data().equals(Callback.HOW_EXPERT_NEXT.name())) {
-                //Советы кинолога по дальнейшему общению
-                return Collections.singletonList(new SendMessage(userChatId, user.getShelter().getExpertAdvicesNext()));
-            } else if (callbackQuery.data().equals(Callback.HOW_REJECT_REASONS.name())) {
-                //Причины отказа
-                return Collections.singletonList(new SendMessage(userChatId, user.getShelter().getRejectReasons()));
-                //...
-            } else if (callbackQuery.data().startsWith(Callback.ASK_VOLUNTEER.name())) {
-                //Конкретный волонтера (чат выбранного волонтера в callback data)
-                Long volunteerChatId = Long.parseLong(callbackQuery.data().substring(Callback.ASK_VOLUNTEER.name().length()));
-                questionsBuffer.addQuestion(new Question(userChatId, volunteerChatId));
-                return Collections.singletonList(new SendMessage(userChatId, "Напишите вопрос"));
-            } else if (callbackQuery.data().startsWith(Callback.ASK_ANY_VOLUNTEER.name())) {
-                //Любой волонтер (будет найден первый попавшийся)
-                if (userService.findAnyVolunteer().isPresent()) {
-                    var volunteer = userService.findAnyVolunteer().get();
-                    Long volunteerChatId = volunteer.getTelegramId();
-                    questionsBuffer.addQuestion(new Question(userChatId, volunteerChatId));
-                    return Collections.singletonList(new SendMessage(userChatId, "Напишите вопрос"));
-                } else {
-                    return Collections.singletonList(new SendMessage(userChatId, "Нет свободных волонтеров"));
-                }
-                //...
-            } else if (callbackQuery.data().equals(Callback.SAVE_USER_PHONE.name())) {
-                //Телефон
-                request.setUserPhoneRequested(true);
-                requestsBuffer.addRequest(request);
-                return Collections.singletonList(new SendMessage(userChatId, "Напишите телефон"));
-            } else if (callbackQuery.data().equals(Callback.SAVE_USER_EMAIL.name())) {
-                //Почта
-                request.setUserEmailRequested(true);
-                requestsBuffer.addRequest(request);
-                return Collections.singletonList(new SendMessage(userChatId, "Напишите почту"));
-            } else if (callbackQuery.data().equals(Callback.SEND_PHOTO.name())) {
-                //Фото для отчета
-                request.setReportPhotoRequested(true);
-                requestsBuffer.addRequest(request);
-                return Collections.singletonList(new SendMessage(userChatId, "Отправьте фото"));
-            } else if (callbackQuery.data().equals(Callback.SEND_DIET.name())) {
-                //Диета для отчета
-                request.setReportDietRequested(true);
-                requestsBuffer.addRequest(request);
-                return Collections.singletonList(new SendMessage(userChatId, "Опишите диету"));
-            } else if (callbackQuery.data().equals(Callback.SEND_BEHAVIOR.name())) {
-                //Поведение для отчета
-                request.setReportBehaviorRequested(true);
-                requestsBuffer.addRequest(request);
-                return Collections.singletonList(new SendMessage(userChatId, "Опишите поведение"));
-            } else if (callbackQuery.data().equals(Callback.SEND_WELL_BEING.name())) {
-                //Самочувствие для отчета
-                request.setReportWellBeingRequest(true);
-                requestsBuffer.addRequest(request);
-                return Collections.singletonList(new SendMessage(userChatId, "Опишите самочувствие"));
-            }
-        } else {
-            return Collections.singletonList(new SendMessage(userChatId, "Приют не выбран"));
+    /**
+     * Обработчик команды
+     */
+    @FunctionalInterface
+    private interface CallbackAction {
+        List<BaseRequest<?, ?>> apply(Long userChatId, User user, CallbackRoutes.Route route);
+    }
+
+    /**
+     * Обработчик команды листания
+     */
+    @FunctionalInterface
+    private interface EditAction {
+        BaseRequest<?, ?> apply(Long userChatId, Integer messageId, User user, CallbackRoutes.Route route);
+    }
+
+    /**
+     * Обработчик листания клавиатуры: клавиатура заменяется в том же сообщении
+     *
+     * @param pages страница клавиатуры по номеру
+     * @return обработчик команды
+     */
+    private static EditAction keyboardPage(IntFunction<InlineKeyboardMarkup> pages) {
+        return (chatId, messageId, user, route) -> new EditMessageReplyMarkup(chatId, messageId)
+                .replyMarkup(pages.apply(page(route)));
+    }
+
+    /**
+     * Страница сводки волонтерам (доступна только волонтерам)
+     */
+    private BaseRequest<?, ?> digestPage(Long userChatId, Integer messageId, User user, CallbackRoutes.Route route) {
+        if (!user.isVolunteer()) {
+            return new SendMessage(userChatId, "Доступно только волонтерам");
         }
-        return Collections.emptyList();
+        VolunteerDigest.PageRef ref = VolunteerDigest.PageRef.parse(route.payload());
+        return digestStore.find(ref.digestId())
+                .<BaseRequest<?, ?>>map(digest -> digest.toPage(userChatId, messageId, ref))
+                .orElseGet(() -> new SendMessage(userChatId, "Сводка устарела"));
+    }
+
+    /**
+     * Номер страницы из параметра команды, номер за пределами int приводится к последней странице
+     */
+    private static int page(CallbackRoutes.Route route) {
+        return (int) Math.min(route.payloadAsLong(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Информация из приюта пользователя по команде, из кэша без обращения к БД
+     */
+    private List<BaseRequest<?, ?>> shelterInfo(Long userChatId, User user, CallbackRoutes.Route route) {
+        String info = shelterService.findInfo(user.getShelter().getId(), route.callback());
+        return Collections.singletonList(new SendMessage(userChatId, info));
+    }
+
+    /**
+     * Обработчик команды, запрашивающей данные у пользователя
+     *
+     * @param flag   флаг запроса
+     * @param answer ответ пользователю
+     * @return обработчик команды
+     */
+    private CallbackAction request(BiConsumer<Request, Boolean> flag, String answer) {
+        return (chatId, user, route) -> {
+            Request request = new Request(chatId);
+            flag.accept(request, true);
+            requestsBuffer.addRequest(request);
+            return Collections.singletonList(new SendMessage(chatId, answer));
+        };
+    }
+
+    /**
+     * Начать вопрос волонтеру
+     *
+     * @param userChatId      чат пользователя
+     * @param volunteerChatId чат волонтера
+     * @return сообщения для отправки пользователю
+     */
+    private List<BaseRequest<?, ?>> askVolunteer(Long userChatId, Long volunteerChatId) {
+        questionsBuffer.addQuestion(new Question(userChatId, volunteerChatId));
+        return Collections.singletonList(new SendMessage(userChatId, "Напишите вопрос"));
     }
 
     /**
@@ -164,6 +215,33 @@ public class BotCallbackHandler {
         return sendMessage;
     }
 
+    /**
+     * Данные усыновителя (доступны только волонтерам)
+     *
+     * @param adopterId  id усыновителя
+     * @param userChatId чат пользователя, запросившего данные
+     * @param user       пользователь, запросивший данные
+     * @return сообщение для отправки пользователю
+     */
+    private SendMessage getAdopterInfo(Long adopterId, Long userChatId, User user) {
+        if (!user.isVolunteer()) {
+            return new SendMessage(userChatId, "Доступно только волонтерам");
+        }
+        User adopter;
+        try {
+            adopter = userService.findById(adopterId);
+        } catch (EntityNotFoundException e) {
+            return new SendMessage(userChatId, "Усыновитель не найден");
+        }
+        String text = String.format("%s %s%nТелефон: %s%nПочта: %s%nСтатус: %s%nОкончание испытательного срока: %s",
+                adopter.getName(), adopter.getSurname(), adopter.getPhone(), adopter.getEmail(),
+                adopter.getState(), adopter.getEndTest());
+        if (adopter.getAnimal() != null) {
+            text += String.format("%nЖивотное: %s", adopter.getAnimal().getName());
+        }
+        return new SendMessage(userChatId, text);
+    }
+
     /**
      * Обновить данные пользователя
      *
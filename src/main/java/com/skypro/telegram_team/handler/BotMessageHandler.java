@@ -11,12 +11,10 @@ import com.skypro.telegram_team.handler.buffer.Question;
 import com.skypro.telegram_team.handler.buffer.QuestionsBuffer;
 import com.skypro.telegram_team.handler.buffer.Request;
 import com.skypro.telegram_team.handler.buffer.RequestsBuffer;
-import com.skypro.telegram_team.keyboard.Callback;
 import com.skypro.telegram_team.keyboard.InlineKeyboard;
 import com.skypro.telegram_team.keyboard.Menu;
 import com.skypro.telegram_team.keyboard.MenuKeyboard;
 import com.skypro.telegram_team.model.Report;
-import com.skypro.telegram_team.model.Shelter;
 import com.skypro.telegram_team.model.User;
 import com.skypro.telegram_team.service.ReportService;
 import com.skypro.telegram_team.service.ShelterService;
@@ -26,13 +24,14 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 @Component
 public class BotMessageHandler {
@@ -40,7 +39,7 @@ public class BotMessageHandler {
      * Шаблон сообщения от пользователя к волонтеру
      * id сообщения должно быть вначале, используется для отправки ответа
      */
-    private final static String USER_VOLUNTEER_MSG_TEMPL = "(^|\\s)([0-9]+)";
+    private final static Pattern USER_VOLUNTEER_MSG_TEMPL = Pattern.compile("(^|\\s)([0-9]+)");
     private final Logger logger = LoggerFactory.getLogger(BotMessageHandler.class);
     private final TelegramBot telegramBot;
     private final QuestionsBuffer questionsBuffer;
@@ -92,11 +91,11 @@ public class BotMessageHandler {
      */
     private List<SendMessage> processMenuMessage(Message message) {
         //Меню
-        if (message.text() == null || Menu.fromText(message.text()).isEmpty()) {
+        Optional<Menu> menu = Menu.fromText(message.text());
+        if (menu.isEmpty()) {
             return Collections.emptyList();
         }
-        Menu menu = Menu.fromText(message.text()).get();
-        switch (menu) {
+        switch (menu.get()) {
             case START -> {
                 //Старт
                 return Collections.singletonList(
@@ -107,7 +106,7 @@ public class BotMessageHandler {
                 //Выбрать приют
                 return Collections.singletonList(
                         new SendMessage(message.chat().id(), "Выберите приют")
-                                .replyMarkup(getSheltersMarkup()));
+                                .replyMarkup(shelterService.getSheltersKeyboard(0)));
             }
             case GET_INFO -> {
                 //Инфо о приюте
@@ -125,7 +124,7 @@ public class BotMessageHandler {
                 //Вопрос волонтеру
                 return Collections.singletonList(
                         new SendMessage(message.chat().id(), "Кого спросить?")
-                                .replyMarkup(getVolunteersMarkup()));
+                                .replyMarkup(userService.getVolunteersKeyboard(0)));
             }
             case SET_USER_DATA -> {
                 //Записать данные пользователя
@@ -152,13 +151,15 @@ public class BotMessageHandler {
     private List<SendMessage> processDataMessage(Message message) {
         //Данные от пользователя
         Long userChatId = message.chat().id();
-        if (questionsBuffer.getQuestionByUserChat(userChatId).isPresent()) {
+        Optional<Question> userQuestion = questionsBuffer.getQuestionByUserChat(userChatId);
+        if (userQuestion.isPresent()) {
             //Записать сообщение волонтеру
-            Question question = questionsBuffer.getQuestionByUserChat(userChatId).get();
-            return sendQuestionToVolunteer(question, message);
-        } else if (requestsBuffer.getRequest(userChatId).isPresent()) {
+            return sendQuestionToVolunteer(userQuestion.get(), message);
+        }
+        Optional<Request> userRequest = requestsBuffer.getRequest(userChatId);
+        if (userRequest.isPresent()) {
             //Есть запрос на данные
-            Request request = requestsBuffer.getRequest(userChatId).get();
+            Request request = userRequest.get();
             if (request.isUserPhoneRequested() || request.isUserEmailRequested()) {
                 //Записать данные пользователя
                 requestsBuffer.delRequest(request);
@@ -185,8 +186,9 @@ public class BotMessageHandler {
         if (message.replyToMessage() != null) {
             //Номер сообщения из пользовательского сообщения
             var messageId = getMessageId(message.replyToMessage().text());
-            if (messageId != 0 && questionsBuffer.getQuestionById(messageId).isPresent()) {
-                Question question = questionsBuffer.getQuestionById(messageId).get();
+            Optional<Question> replyQuestion = messageId != 0 ? questionsBuffer.getQuestionById(messageId) : Optional.empty();
+            if (replyQuestion.isPresent()) {
+                Question question = replyQuestion.get();
                 question.setAnswer("Ответ волонтера: \n" + message.text());
                 var sendMessage = new SendMessage(question.getUserChatId(), question.getAnswer());
                 questionsBuffer.delQuestion(question);
@@ -196,60 +198,6 @@ public class BotMessageHandler {
         return Collections.emptyList();
     }
 
-    /**
-     * Inline keyboard меню со списком приютов
-     *
-     * @return меню приютов
-     */
-    private InlineKeyboardMarkup getSheltersMarkup() {
-        InlineKeyboardMarkup markup = new InlineKeyboardMarkup();
-        findShelters().forEach((key, value) -> markup.addRow(new InlineKeyboardButton(value)
-                .callbackData(Callback.SAVE_SHELTER + key)));
-        return markup;
-    }
-
-    /**
-     * Поиск приютов
-     *
-     * @return Map, где
-     * ключ - Id приюта,
-     * значение - название приюта
-     */
-    private Map<String, String> findShelters() {
-        return shelterService.findAll().stream()
-                .collect(Collectors.toMap(
-                        shelter -> Long.toString(shelter.getId()),
-                        Shelter::getName));
-    }
-
-    /**
-     * Inline keyboard меню со списком волонтеров
-     *
-     * @return меню приютов
-     */
-    private InlineKeyboardMarkup getVolunteersMarkup() {
-        InlineKeyboardMarkup markup = new InlineKeyboardMarkup();
-        findVolunteers().forEach((key, value) -> markup.addRow(new InlineKeyboardButton(value)
-                .callbackData(Callback.ASK_VOLUNTEER + key)));
-        markup.addRow(new InlineKeyboardButton(Callback.ASK_ANY_VOLUNTEER.getText())
-                .callbackData(Callback.ASK_ANY_VOLUNTEER.name()));
-        return markup;
-    }
-
-    /**
-     * Поиск волонтеров
-     *
-     * @return Map, где
-     * ключ - chatId волонтера,
-     * значение - имя волонтера
-     */
-    private Map<String, String> findVolunteers() {
-        return userService.findVolunteers().stream()
-                .collect(Collectors.toMap(
-                        user -> Long.toString(user.getTelegramId()),
-                        User::getName));
-    }
-
     /**
      * Отправить сообщение волонтеру
      * В сообщении вначале указываем id сообщения пользователя
@@ -260,9 +208,9 @@ public class BotMessageHandler {
      */
     private List<SendMessage> sendQuestionToVolunteer(Question question, Message message) {
         if (question.getQuestion() == null) {
-            question.setId(message.messageId());
             question.setQuestion(String.format("%d: Сообщение от пользователя, для ответа используйте reply:\n %s",
                     message.messageId(), message.text()));
+            questionsBuffer.setQuestionId(question, message.messageId());
             return List.of(
                     new SendMessage(question.getVolunteerChatId(), question.getQuestion()),
                     new SendMessage(question.getUserChatId(), "Сообщение отправлено волонтеру")
@@ -353,7 +301,7 @@ public class BotMessageHandler {
             }
             if (request.isReportPhotoRequested()) {
                 if (message.photo() != null) {
-                    report.setPhoto(getPhotoContent(message.photo()));
+                    savePhoto(report, message.photo());
                 } else {
                     return new SendMessage(userChatId, "Пришлите фото");
                 }
@@ -388,20 +336,22 @@ public class BotMessageHandler {
     }
 
     /**
-     * Контент фото, максимальный размер фото
+     * Сохранить фото отчета, максимальный размер фото.
+     * Фото передается из Telegram в хранилище потоком, без загрузки в память целиком
      *
+     * @param report    отчет
      * @param photoSize размеры фото
-     * @return контент
      */
-    private byte[] getPhotoContent(PhotoSize[] photoSize) {
+    private void savePhoto(Report report, PhotoSize[] photoSize) {
         logger.info("upload report photo");
         try {
             GetFileResponse getFileResponse = telegramBot.execute(new GetFile(photoSize[photoSize.length - 1].fileId()));
-            return telegramBot.getFileContent(getFileResponse.file());
+            try (InputStream content = new URL(telegramBot.getFullFilePath(getFileResponse.file())).openStream()) {
+                reportService.savePhoto(report, content);
+            }
         } catch (IOException e) {
             logger.error(e.getMessage());
         }
-        return null;
     }
 
     /**
@@ -411,10 +361,17 @@ public class BotMessageHandler {
      * @return id сообщения
      */
     private int getMessageId(String message) {
-        Pattern pattern = Pattern.compile(USER_VOLUNTEER_MSG_TEMPL);
-        Matcher matcher = pattern.matcher(message);
+        if (message == null) {
+            return 0;
+        }
+        Matcher matcher = USER_VOLUNTEER_MSG_TEMPL.matcher(message);
         if (matcher.find()) {
-            return Integer.parseInt(matcher.group(2));
+            try {
+                return Integer.parseInt(matcher.group(2));
+            } catch (NumberFormatException e) {
+                //Число не помещается в int - это не номер сообщения
+                return 0;
+            }
         }
         return 0;
     }
@@ -3,9 +3,11 @@ package com.skypro.telegram_team.handler;
 import com.pengrad.telegrambot.model.CallbackQuery;
 import com.pengrad.telegrambot.model.Message;
 import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.request.BaseRequest;
 import com.pengrad.telegrambot.request.SendMessage;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Component
@@ -23,12 +25,12 @@ public class BotUpdateHandler {
      * Обработка отдельного Update
      *
      * @param update отдельный update для обработки
-     * @return сообщения для отправки пользователю
+     * @return сообщения для отправки пользователю и изменения сообщений
      */
-    public List<SendMessage> processUpdate(Update update) {
-        List<SendMessage> sendMessages;
+    public List<BaseRequest<?, ?>> processUpdate(Update update) {
+        List<BaseRequest<?, ?>> sendMessages;
         if (update.callbackQuery() == null) {
-            sendMessages = processMessage(update.message());
+            sendMessages = new ArrayList<>(processMessage(update.message()));
         } else {
             sendMessages = processCallback(update.callbackQuery());
         }
@@ -53,9 +55,9 @@ public class BotUpdateHandler {
      * (при нажатии на меню inline keyboard)
      *
      * @param callbackQuery команды inline keyboard
-     * @return сообщения для отправки пользователю
+     * @return сообщения для отправки пользователю и изменения сообщений
      */
-    private List<SendMessage> processCallback(CallbackQuery callbackQuery) {
+    private List<BaseRequest<?, ?>> processCallback(CallbackQuery callbackQuery) {
         return callbackListener.processCallback(callbackQuery);
     }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.skypro.telegram_team.handler.buffer;
+
+import com.pengrad.telegrambot.request.SendMessage;
+import com.skypro.telegram_team.sender.BotMessageSender;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Периодическое удаление устаревших запросов и вопросов из буферов.
+ * Если включено telegram.bot.buffer.notify-expired, пользователю отправляется сообщение
+ * о том, что его запрос больше не ожидает ответа
+ */
+@Log4j2
+@Component
+public class BuffersEvictionJob {
+    private final RequestsBuffer requestsBuffer;
+    private final QuestionsBuffer questionsBuffer;
+    private final BotMessageSender messageSender;
+    private final boolean notifyExpired;
+
+    public BuffersEvictionJob(RequestsBuffer requestsBuffer, QuestionsBuffer questionsBuffer,
+                              BotMessageSender messageSender,
+                              @Value("${telegram.bot.buffer.notify-expired:false}") boolean notifyExpired) {
+        this.requestsBuffer = requestsBuffer;
+        this.questionsBuffer = questionsBuffer;
+        this.messageSender = messageSender;
+        this.notifyExpired = notifyExpired;
+    }
+
+    @Scheduled(fixedDelayString = "${telegram.bot.buffer.eviction-interval:60000}")
+    public void evictExpired() {
+        List<Request> expiredRequests = requestsBuffer.evictExpired();
+        List<Question> expiredQuestions = questionsBuffer.evictExpired();
+        if (!expiredRequests.isEmpty() || !expiredQuestions.isEmpty()) {
+            log.info("Evicted requests: {} (size {}, total {}), questions: {} (size {}, total {})",
+                    expiredRequests.size(), requestsBuffer.size(), requestsBuffer.getEvictedCount(),
+                    expiredQuestions.size(), questionsBuffer.size(), questionsBuffer.getEvictedCount());
+        }
+        if (notifyExpired) {
+            expiredRequests.forEach(request -> messageSender.send(new SendMessage(request.getChatId(),
+                    "Время ожидания данных истекло, выберите пункт меню еще раз")));
+            expiredQuestions.forEach(question -> messageSender.send(new SendMessage(question.getUserChatId(),
+                    "Волонтер не ответил на вопрос, попробуйте спросить еще раз")));
+        }
+    }
+}
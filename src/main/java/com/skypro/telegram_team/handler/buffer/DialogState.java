@@ -0,0 +1,64 @@
+package com.skypro.telegram_team.handler.buffer;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Состояние диалога с пользователем для хранения вне памяти:
+ * запрос данных ({@link Request}) или вопрос волонтеру ({@link Question})
+ */
+@Data
+@AllArgsConstructor
+public class DialogState {
+    private Kind kind;
+    //Чат пользователя
+    private Long chatId;
+    //Чат волонтера (для вопроса)
+    private Long peerChatId;
+    //Id сообщения пользователя (для вопроса)
+    private Integer messageId;
+    //Флаги запроса данных (для запроса)
+    private int flags;
+    //Текст вопроса
+    private String text;
+    private Instant createdAt;
+
+    public enum Kind {
+        REQUEST, QUESTION
+    }
+
+    public static DialogState of(Request request, Instant createdAt) {
+        int flags = 0;
+        flags |= request.isUserPhoneRequested() ? 1 : 0;
+        flags |= request.isUserEmailRequested() ? 1 << 1 : 0;
+        flags |= request.isReportPhotoRequested() ? 1 << 2 : 0;
+        flags |= request.isReportDietRequested() ? 1 << 3 : 0;
+        flags |= request.isReportBehaviorRequested() ? 1 << 4 : 0;
+        flags |= request.isReportWellBeingRequest() ? 1 << 5 : 0;
+        return new DialogState(Kind.REQUEST, request.getChatId(), null, null, flags, null, createdAt);
+    }
+
+    public static DialogState of(Question question, Instant createdAt) {
+        return new DialogState(Kind.QUESTION, question.getUserChatId(), question.getVolunteerChatId(),
+                question.getId(), 0, question.getQuestion(), createdAt);
+    }
+
+    public Request toRequest() {
+        Request request = new Request(chatId);
+        request.setUserPhoneRequested((flags & 1) != 0);
+        request.setUserEmailRequested((flags & 1 << 1) != 0);
+        request.setReportPhotoRequested((flags & 1 << 2) != 0);
+        request.setReportDietRequested((flags & 1 << 3) != 0);
+        request.setReportBehaviorRequested((flags & 1 << 4) != 0);
+        request.setReportWellBeingRequest((flags & 1 << 5) != 0);
+        return request;
+    }
+
+    public Question toQuestion() {
+        Question question = new Question(chatId, peerChatId, text, null);
+        question.setId(messageId);
+        return question;
+    }
+}
@@ -0,0 +1,31 @@
+package com.skypro.telegram_team.handler.buffer;
+
+import java.util.List;
+
+/**
+ * Хранилище состояний диалогов для буферов {@link RequestsBuffer} и {@link QuestionsBuffer}.
+ * Буферы работают с данными в памяти, хранилище позволяет восстановить их после перезапуска
+ */
+public interface DialogStateStorage {
+    /**
+     * Сохранить (или заменить) состояние
+     *
+     * @param state состояние диалога
+     */
+    void save(DialogState state);
+
+    /**
+     * Удалить состояние
+     *
+     * @param kind   тип состояния
+     * @param chatId чат пользователя
+     */
+    void delete(DialogState.Kind kind, Long chatId);
+
+    /**
+     * Все сохраненные состояния в порядке создания
+     *
+     * @return состояния диалогов
+     */
+    List<DialogState> loadAll();
+}
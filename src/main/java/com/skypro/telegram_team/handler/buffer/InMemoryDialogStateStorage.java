@@ -0,0 +1,28 @@
+package com.skypro.telegram_team.handler.buffer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Состояния хранятся только в памяти буферов и теряются при перезапуске
+ * (telegram.bot.buffer.storage=memory, по умолчанию)
+ */
+@Component
+@ConditionalOnProperty(name = "telegram.bot.buffer.storage", havingValue = "memory", matchIfMissing = true)
+public class InMemoryDialogStateStorage implements DialogStateStorage {
+    @Override
+    public void save(DialogState state) {
+    }
+
+    @Override
+    public void delete(DialogState.Kind kind, Long chatId) {
+    }
+
+    @Override
+    public List<DialogState> loadAll() {
+        return Collections.emptyList();
+    }
+}
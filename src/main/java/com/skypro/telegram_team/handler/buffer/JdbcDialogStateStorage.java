@@ -0,0 +1,116 @@
+package com.skypro.telegram_team.handler.buffer;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Хранение состояний диалогов в таблице dialog_state (telegram.bot.buffer.storage=jdbc).
+ * <p>
+ * Запись отложенная: изменения накапливаются (для одного чата остается последнее)
+ * и записываются пакетом раз в telegram.bot.buffer.flush-interval,
+ * поэтому обработка сообщений не ждет обращения к БД.
+ */
+@Log4j2
+@Component
+@ConditionalOnProperty(name = "telegram.bot.buffer.storage", havingValue = "jdbc")
+public class JdbcDialogStateStorage implements DialogStateStorage {
+    private static final String UPSERT_SQL = """
+            INSERT INTO dialog_state (kind, chat_id, peer_chat_id, message_id, flags, text, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (kind, chat_id) DO UPDATE SET
+                peer_chat_id = excluded.peer_chat_id,
+                message_id = excluded.message_id,
+                flags = excluded.flags,
+                text = excluded.text,
+                created_at = excluded.created_at""";
+    private static final String DELETE_SQL = "DELETE FROM dialog_state WHERE kind = ? AND chat_id = ?";
+    private static final String SELECT_SQL = """
+            SELECT kind, chat_id, peer_chat_id, message_id, flags, text, created_at
+            FROM dialog_state ORDER BY created_at""";
+    private final JdbcTemplate jdbcTemplate;
+    //Несохраненные изменения: пустое значение - удаление
+    private final Map<Key, Optional<DialogState>> pending = new ConcurrentHashMap<>();
+
+    public JdbcDialogStateStorage(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void save(DialogState state) {
+        pending.put(new Key(state.getKind(), state.getChatId()), Optional.of(state));
+    }
+
+    @Override
+    public void delete(DialogState.Kind kind, Long chatId) {
+        pending.put(new Key(kind, chatId), Optional.empty());
+    }
+
+    @Override
+    public List<DialogState> loadAll() {
+        flush();
+        return jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new DialogState(
+                DialogState.Kind.valueOf(rs.getString("kind")),
+                rs.getLong("chat_id"),
+                rs.getObject("peer_chat_id", Long.class),
+                rs.getObject("message_id", Integer.class),
+                rs.getInt("flags"),
+                rs.getString("text"),
+                rs.getTimestamp("created_at").toInstant()));
+    }
+
+    /**
+     * Записать накопленные изменения пакетом
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${telegram.bot.buffer.flush-interval:1000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Key, Optional<DialogState>> changes = new HashMap<>();
+        for (Key key : new ArrayList<>(pending.keySet())) {
+            Optional<DialogState> change = pending.remove(key);
+            if (change != null) {
+                changes.put(key, change);
+            }
+        }
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        changes.forEach((key, change) -> {
+            if (change.isPresent()) {
+                DialogState state = change.get();
+                upserts.add(new Object[]{state.getKind().name(), state.getChatId(), state.getPeerChatId(),
+                        state.getMessageId(), state.getFlags(), state.getText(), Timestamp.from(state.getCreatedAt())});
+            } else {
+                deletes.add(new Object[]{key.kind().name(), key.chatId()});
+            }
+        });
+        try {
+            if (!deletes.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+            }
+            if (!upserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, upserts);
+            }
+        } catch (Exception e) {
+            log.error("Dialog state was not saved: {}", e.getMessage());
+            //Повторим при следующей записи, если за это время состояние не изменилось
+            changes.forEach(pending::putIfAbsent);
+        }
+    }
+
+    private record Key(DialogState.Kind kind, Long chatId) {
+    }
+}
@@ -1,42 +1,251 @@
 package com.skypro.telegram_team.handler.buffer;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Буфер для хранения в памяти вопросов от пользователя к волонтеру
  * При ответе на вопрос он должен удаляться
+ * <p>
+ * Вопросы проиндексированы по id сообщения, чату пользователя и чату волонтера,
+ * индексы изменяются вместе под одной блокировкой.
+ * У пользователя может быть только один открытый вопрос, новый вопрос заменяет предыдущий.
+ * Вопрос хранится не дольше ttl, количество вопросов ограничено maxSize
+ * (при переполнении удаляется самый старый вопрос).
+ * Изменения передаются в {@link DialogStateStorage}, при запуске буфер восстанавливается из него.
  */
 @Component
 public class QuestionsBuffer {
-    private final List<Question> questions = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Question> questionsById = new HashMap<>();
+    private final Map<Long, Question> questionsByUserChat = new HashMap<>();
+    //Чат волонтера -> (чат пользователя -> вопрос), в порядке поступления
+    private final Map<Long, Map<Long, Question>> questionsByVolunteerChat = new HashMap<>();
+    //Время добавления по чату пользователя, первым идет самый старый вопрос
+    private final Map<Long, Instant> addedAtByUserChat = new LinkedHashMap<>();
+    private final DialogStateStorage storage;
+    private final Duration ttl;
+    private final int maxSize;
+    private final AtomicLong evictedCount = new AtomicLong();
+
+    public QuestionsBuffer(DialogStateStorage storage,
+                           @Value("${telegram.bot.buffer.questions.ttl:24h}") Duration ttl,
+                           @Value("${telegram.bot.buffer.questions.max-size:10000}") int maxSize) {
+        this.storage = storage;
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Восстановить вопросы из хранилища
+     */
+    @PostConstruct
+    public void restore() {
+        lock.writeLock().lock();
+        try {
+            storage.loadAll().stream()
+                    .filter(state -> state.getKind() == DialogState.Kind.QUESTION)
+                    .forEach(state -> index(state.toQuestion(), state.getCreatedAt()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
 
     public void addQuestion(Question question) {
-        questions.add(question);
+        lock.writeLock().lock();
+        try {
+            Question previous = questionsByUserChat.get(question.getUserChatId());
+            if (previous != null) {
+                unindex(previous);
+            }
+            Instant addedAt = Instant.now();
+            index(question, addedAt);
+            storage.save(DialogState.of(question, addedAt));
+            while (questionsByUserChat.size() > maxSize) {
+                Long eldestUserChat = addedAtByUserChat.keySet().iterator().next();
+                remove(questionsByUserChat.get(eldestUserChat));
+                evictedCount.incrementAndGet();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     public void delQuestion(Question question) {
-        questions.remove(question);
+        lock.writeLock().lock();
+        try {
+            if (question.equals(questionsByUserChat.get(question.getUserChatId()))) {
+                remove(questionsByUserChat.get(question.getUserChatId()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Присвоить вопросу id сообщения пользователя
+     * (id используется волонтером для ответа)
+     *
+     * @param question вопрос
+     * @param id       id сообщения
+     */
+    public void setQuestionId(Question question, Integer id) {
+        lock.writeLock().lock();
+        try {
+            boolean buffered = questionsByUserChat.get(question.getUserChatId()) == question;
+            if (buffered && question.getId() != null) {
+                questionsById.remove(question.getId());
+            }
+            question.setId(id);
+            if (buffered) {
+                questionsById.put(id, question);
+                storage.save(DialogState.of(question, addedAtByUserChat.get(question.getUserChatId())));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     public Optional<Question> getQuestionById(Integer id) {
-        return questions.stream()
-                .filter(q -> q.getId().equals(id))
-                .findFirst();
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(questionsById.get(id));
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     public Optional<Question> getQuestionByUserChat(Long chatId) {
-        return questions.stream()
-                .filter(q -> q.getUserChatId().equals(chatId))
-                .findFirst();
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(questionsByUserChat.get(chatId));
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     public Optional<Question> getQuestionByVolunteerChat(Long chatId) {
-        return questions.stream()
-                .filter(q -> q.getVolunteerChatId().equals(chatId))
-                .findFirst();
+        lock.readLock().lock();
+        try {
+            Map<Long, Question> questions = questionsByVolunteerChat.get(chatId);
+            return questions == null ? Optional.empty() : questions.values().stream().findFirst();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Удалить вопросы, срок хранения которых истек
+     *
+     * @return удаленные вопросы
+     */
+    public List<Question> evictExpired() {
+        return evictExpired(Instant.now());
+    }
+
+    /**
+     * Удалить вопросы, добавленные раньше чем now - ttl
+     *
+     * @param now текущее время
+     * @return удаленные вопросы
+     */
+    public List<Question> evictExpired(Instant now) {
+        List<Question> expired = new ArrayList<>();
+        Instant expiredBefore = now.minus(ttl);
+        lock.writeLock().lock();
+        try {
+            Iterator<Map.Entry<Long, Instant>> iterator = addedAtByUserChat.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, Instant> entry = iterator.next();
+                if (!entry.getValue().isBefore(expiredBefore)) {
+                    break;
+                }
+                expired.add(questionsByUserChat.get(entry.getKey()));
+            }
+            expired.forEach(this::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        evictedCount.addAndGet(expired.size());
+        return expired;
+    }
+
+    /**
+     * Количество вопросов в буфере
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return questionsByUserChat.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество удаленных вопросов (по сроку хранения и при переполнении)
+     */
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    /**
+     * Добавить вопрос во все индексы, вызывается под блокировкой записи
+     *
+     * @param question вопрос
+     * @param addedAt  время добавления
+     */
+    private void index(Question question, Instant addedAt) {
+        questionsByUserChat.put(question.getUserChatId(), question);
+        addedAtByUserChat.put(question.getUserChatId(), addedAt);
+        questionsByVolunteerChat.computeIfAbsent(question.getVolunteerChatId(), key -> new LinkedHashMap<>())
+                .put(question.getUserChatId(), question);
+        if (question.getId() != null) {
+            questionsById.put(question.getId(), question);
+        }
+    }
+
+    /**
+     * Удалить вопрос из буфера и хранилища, вызывается под блокировкой записи
+     *
+     * @param question вопрос
+     */
+    private void remove(Question question) {
+        unindex(question);
+        storage.delete(DialogState.Kind.QUESTION, question.getUserChatId());
+    }
+
+    /**
+     * Удалить вопрос из всех индексов, вызывается под блокировкой записи
+     *
+     * @param question вопрос
+     */
+    private void unindex(Question question) {
+        questionsByUserChat.remove(question.getUserChatId());
+        addedAtByUserChat.remove(question.getUserChatId());
+        Map<Long, Question> volunteerQuestions = questionsByVolunteerChat.get(question.getVolunteerChatId());
+        if (volunteerQuestions != null) {
+            volunteerQuestions.remove(question.getUserChatId());
+            if (volunteerQuestions.isEmpty()) {
+                questionsByVolunteerChat.remove(question.getVolunteerChatId());
+            }
+        }
+        if (question.getId() != null) {
+            questionsById.remove(question.getId(), question);
+        }
     }
 }
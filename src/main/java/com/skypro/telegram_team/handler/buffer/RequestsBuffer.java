@@ -1,29 +1,124 @@
 package com.skypro.telegram_team.handler.buffer;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Буфер для хранения:
  * - флагов на запрос данных пользователя
  * - флагов на запрос данных отчета
+ * <p>
+ * Запрос хранится не дольше ttl, количество запросов ограничено maxSize
+ * (при переполнении удаляется самый старый запрос).
+ * Изменения передаются в {@link DialogStateStorage}, при запуске буфер восстанавливается из него.
  */
 @Component
 public class RequestsBuffer {
-    private final Map<Long, Request> requests = new HashMap<>();
+    //Запросы в порядке добавления, первым идет самый старый
+    private final Map<Long, Entry> requests = new LinkedHashMap<>();
+    private final DialogStateStorage storage;
+    private final Duration ttl;
+    private final int maxSize;
+    private final AtomicLong evictedCount = new AtomicLong();
 
-    public void addRequest(Request request) {
-        requests.put(request.getChatId(), request);
+    public RequestsBuffer(DialogStateStorage storage,
+                          @Value("${telegram.bot.buffer.requests.ttl:30m}") Duration ttl,
+                          @Value("${telegram.bot.buffer.requests.max-size:10000}") int maxSize) {
+        this.storage = storage;
+        this.ttl = ttl;
+        this.maxSize = maxSize;
     }
 
-    public void delRequest(Request request) {
+    /**
+     * Восстановить запросы из хранилища
+     */
+    @PostConstruct
+    public synchronized void restore() {
+        storage.loadAll().stream()
+                .filter(state -> state.getKind() == DialogState.Kind.REQUEST)
+                .forEach(state -> requests.put(state.getChatId(), new Entry(state.toRequest(), state.getCreatedAt())));
+    }
+
+    public synchronized void addRequest(Request request) {
+        Instant addedAt = Instant.now();
+        requests.remove(request.getChatId());
+        requests.put(request.getChatId(), new Entry(request, addedAt));
+        storage.save(DialogState.of(request, addedAt));
+        Iterator<Entry> iterator = requests.values().iterator();
+        while (requests.size() > maxSize && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            storage.delete(DialogState.Kind.REQUEST, eldest.request().getChatId());
+            evictedCount.incrementAndGet();
+        }
+    }
+
+    public synchronized void delRequest(Request request) {
         requests.remove(request.getChatId());
+        storage.delete(DialogState.Kind.REQUEST, request.getChatId());
+    }
+
+    public synchronized Optional<Request> getRequest(Long chatId) {
+        return Optional.ofNullable(requests.get(chatId)).map(Entry::request);
+    }
+
+    /**
+     * Удалить запросы, срок хранения которых истек
+     *
+     * @return удаленные запросы
+     */
+    public List<Request> evictExpired() {
+        return evictExpired(Instant.now());
+    }
+
+    /**
+     * Удалить запросы, добавленные раньше чем now - ttl
+     *
+     * @param now текущее время
+     * @return удаленные запросы
+     */
+    public synchronized List<Request> evictExpired(Instant now) {
+        List<Request> expired = new ArrayList<>();
+        Instant expiredBefore = now.minus(ttl);
+        Iterator<Entry> iterator = requests.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (!entry.addedAt().isBefore(expiredBefore)) {
+                break;
+            }
+            iterator.remove();
+            storage.delete(DialogState.Kind.REQUEST, entry.request().getChatId());
+            expired.add(entry.request());
+        }
+        evictedCount.addAndGet(expired.size());
+        return expired;
+    }
+
+    /**
+     * Количество запросов в буфере
+     */
+    public synchronized int size() {
+        return requests.size();
+    }
+
+    /**
+     * Количество удаленных запросов (по сроку хранения и при переполнении)
+     */
+    public long getEvictedCount() {
+        return evictedCount.get();
     }
 
-    public Optional<Request> getRequest(Long chatId) {
-        return Optional.ofNullable(requests.get(chatId));
+    private record Entry(Request request, Instant addedAt) {
     }
 }
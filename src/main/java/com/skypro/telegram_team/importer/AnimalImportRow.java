@@ -0,0 +1,18 @@
+package com.skypro.telegram_team.importer;
+
+import com.skypro.telegram_team.model.Animal;
+
+/**
+ * Строка импорта животных
+ *
+ * @param name        кличка
+ * @param breed       порода
+ * @param description описание
+ * @param type        вид животного
+ * @param state       статус животного (по умолчанию IN_SHELTER)
+ * @param shelterId   идентификатор приюта
+ * @param photo       имя файла фото в zip архиве
+ */
+public record AnimalImportRow(String name, String breed, String description, Animal.TypeAnimal type,
+                              Animal.AnimalStateEnum state, Long shelterId, String photo) {
+}
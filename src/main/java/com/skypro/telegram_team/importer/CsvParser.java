@@ -0,0 +1,113 @@
+package com.skypro.telegram_team.importer;
+
+import com.skypro.telegram_team.exception.InvalidDataException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разбор CSV (RFC 4180) с заголовком: первая строка - имена полей, остальные - значения.
+ * Пустое значение считается отсутствующим (null)
+ */
+public final class CsvParser {
+
+    private CsvParser() {
+    }
+
+    /**
+     * Разобрать CSV. Строка, в которой количество значений не совпадает с заголовком, добавляется
+     * в errors, а в результат вместо нее добавляется null, чтобы номера остальных строк не сдвигались
+     *
+     * @param reader текст CSV
+     * @param errors ошибки строк
+     * @return строки данных, имя поля -> значение
+     * @throws InvalidDataException если в файле незакрытые кавычки
+     */
+    public static List<Map<String, String>> parse(Reader reader, List<ImportError> errors) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
+        //BOM в начале файла (Excel) пропускается
+        in.mark(1);
+        if (in.read() != '\uFEFF') {
+            in.reset();
+        }
+        List<List<String>> records = records(in);
+        List<Map<String, String>> rows = new ArrayList<>();
+        if (records.isEmpty()) {
+            return rows;
+        }
+        List<String> header = records.get(0);
+        for (int i = 1; i < records.size(); i++) {
+            List<String> values = records.get(i);
+            if (values.size() != header.size()) {
+                errors.add(new ImportError(i, "Ожидается " + header.size() + " значений, получено " + values.size()));
+                rows.add(null);
+                continue;
+            }
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int j = 0; j < header.size(); j++) {
+                String value = values.get(j);
+                row.put(header.get(j).trim(), value.isEmpty() ? null : value);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static List<List<String>> records(BufferedReader reader) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        List<String> record = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        //Строка содержит хотя бы одно значение (пустые строки пропускаются)
+        boolean started = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        value.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    value.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                started = true;
+            } else if (c == ',') {
+                record.add(value.toString());
+                value.setLength(0);
+                started = true;
+            } else if (c == '\n' || c == '\r') {
+                if (started || value.length() > 0) {
+                    record.add(value.toString());
+                    records.add(record);
+                    record = new ArrayList<>();
+                    value.setLength(0);
+                    started = false;
+                }
+            } else {
+                value.append((char) c);
+            }
+        }
+        if (quoted) {
+            throw new InvalidDataException("Незакрытые кавычки в CSV");
+        }
+        if (started || value.length() > 0) {
+            record.add(value.toString());
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,10 @@
+package com.skypro.telegram_team.importer;
+
+/**
+ * Ошибка строки импорта
+ *
+ * @param row     номер строки данных, начиная с 1 (0 - ошибка файла целиком)
+ * @param message описание ошибки
+ */
+public record ImportError(int row, String message) {
+}
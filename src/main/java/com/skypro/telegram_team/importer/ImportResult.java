@@ -0,0 +1,31 @@
+package com.skypro.telegram_team.importer;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Результат импорта.
+ * Импорт выполняется целиком или не выполняется: при ошибках не сохраняется ни одна строка
+ *
+ * @param total    количество строк в файле
+ * @param imported количество сохраненных строк
+ * @param errors   ошибки строк
+ */
+public record ImportResult(int total, int imported, List<ImportError> errors) {
+
+    /**
+     * Импорт отклонен
+     *
+     * @param total  количество строк в файле
+     * @param errors ошибки строк в любом порядке
+     */
+    public static ImportResult failed(int total, List<ImportError> errors) {
+        return new ImportResult(total, 0, errors.stream()
+                .sorted(Comparator.comparingInt(ImportError::row))
+                .toList());
+    }
+
+    public boolean isSuccess() {
+        return errors.isEmpty();
+    }
+}
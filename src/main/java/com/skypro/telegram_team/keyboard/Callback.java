@@ -1,5 +1,9 @@
 package com.skypro.telegram_team.keyboard;
 
+/**
+ * Команды inline keyboard.
+ * Данные команды - ее имя, у команд с параметром после имени следует параметр, обычно id (см. {@link CallbackRoutes})
+ */
 public enum Callback {
     INF_SCHEDULE("Расписание"),
     INF_ADDRESS("Адрес"),
@@ -14,23 +18,38 @@ public enum Callback {
     HOW_EXPERT_FIRST("Советы эксперта по первому общению"),
     HOW_EXPERT_NEXT("Советы эксперта по дальнейшему общению"),
     HOW_REJECT_REASONS("Причины отказа"),
-    ASK_VOLUNTEER(""),
+    ASK_VOLUNTEER("", true),
     ASK_ANY_VOLUNTEER("Любого"),
+    ADOPTER_INFO("", true),
     SAVE_USER_PHONE("Указать телефон"),
     SAVE_USER_EMAIL("Указать почту"),
-    SAVE_SHELTER(""),
+    SAVE_SHELTER("", true),
+    SHELTERS_PAGE("", true),
+    VOLUNTEERS_PAGE("", true),
+    DIGEST_PAGE("", true),
     SEND_PHOTO("Фото"),
     SEND_DIET("Питание"),
     SEND_BEHAVIOR("Поведение"),
     SEND_WELL_BEING("Самочувствие");
 
     private final String text;
+    //После имени команды следует параметр
+    private final boolean withPayload;
 
     Callback(String text) {
+        this(text, false);
+    }
+
+    Callback(String text, boolean withPayload) {
         this.text = text;
+        this.withPayload = withPayload;
     }
 
     public String getText() {
         return text;
     }
+
+    public boolean isWithPayload() {
+        return withPayload;
+    }
 }
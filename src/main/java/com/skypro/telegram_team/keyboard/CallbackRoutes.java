@@ -0,0 +1,82 @@
+package com.skypro.telegram_team.keyboard;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Таблица разбора данных callback, строится один раз по {@link Callback}.
+ * <p>
+ * Команды без параметра ищутся по точному совпадению имени,
+ * команды с параметром - по префиксному дереву имен, остаток строки после имени считается параметром.
+ */
+public final class CallbackRoutes {
+    private static final Map<String, Callback> EXACT = new HashMap<>();
+    private static final Node PREFIXES = new Node();
+
+    static {
+        for (Callback callback : Callback.values()) {
+            if (callback.isWithPayload()) {
+                Node node = PREFIXES;
+                for (int i = 0; i < callback.name().length(); i++) {
+                    node = node.children.computeIfAbsent(callback.name().charAt(i), key -> new Node());
+                }
+                node.callback = callback;
+            } else {
+                EXACT.put(callback.name(), callback);
+            }
+        }
+    }
+
+    private CallbackRoutes() {
+    }
+
+    /**
+     * Разобрать данные callback
+     *
+     * @param data данные callback
+     * @return команда и параметр или null, если команда не найдена
+     */
+    public static Route route(String data) {
+        if (data == null) {
+            return null;
+        }
+        Callback exact = EXACT.get(data);
+        if (exact != null) {
+            return new Route(exact, null);
+        }
+        //Самое длинное имя команды с параметром, с которого начинаются данные
+        Node node = PREFIXES;
+        Callback found = null;
+        int foundLength = 0;
+        for (int i = 0; i < data.length() && node != null; i++) {
+            node = node.children.get(data.charAt(i));
+            if (node != null && node.callback != null) {
+                found = node.callback;
+                foundLength = i + 1;
+            }
+        }
+        return found == null ? null : new Route(found, data.substring(foundLength));
+    }
+
+    /**
+     * Команда callback
+     *
+     * @param callback команда
+     * @param payload  параметр команды (null у команд без параметра)
+     */
+    public record Route(Callback callback, String payload) {
+        /**
+         * Параметр команды как id
+         *
+         * @throws NumberFormatException если параметр не число
+         */
+        public Long payloadAsLong() {
+            return Long.parseLong(payload);
+        }
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private Callback callback;
+    }
+}
@@ -1,8 +1,13 @@
 package com.skypro.telegram_team.keyboard;
 
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Команды главного меню.
+ * Команду можно выбрать текстом кнопки меню, команда Telegram /start принимается и в виде /start@bot_name
+ */
 public enum Menu {
     START("/start"),
     GET_INFO("О приюте"),
@@ -12,10 +17,13 @@ public enum Menu {
     SET_SHELTER("Выбрать приют"),
     ASK_VOLUNTEER("Спросить волонтера");
 
-    public static Optional<Menu> fromText(String text) {
-        return Arrays.stream(Menu.values())
-                .filter(m -> m.text.equals(text))
-                .findFirst();
+    //Текст кнопки -> пункт меню
+    private static final Map<String, Menu> BY_TEXT = new HashMap<>();
+
+    static {
+        for (Menu menu : values()) {
+            BY_TEXT.put(menu.text, menu);
+        }
     }
 
     private final String text;
@@ -24,7 +32,37 @@ public enum Menu {
         this.text = text;
     }
 
+    /**
+     * Найти пункт меню по тексту сообщения
+     *
+     * @param text текст сообщения
+     * @return пункт меню или пустой Optional, если текст не является командой меню
+     */
+    public static Optional<Menu> fromText(String text) {
+        if (text == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(BY_TEXT.get(normalize(text)));
+    }
+
+    /**
+     * Команда вида "/command@bot_name параметры" приводится к "/command", остальной текст не изменяется
+     *
+     * @param text текст сообщения
+     * @return текст для поиска пункта меню
+     */
+    static String normalize(String text) {
+        if (text.isEmpty() || text.charAt(0) != '/') {
+            return text;
+        }
+        int end = 1;
+        while (end < text.length() && text.charAt(end) != '@' && !Character.isWhitespace(text.charAt(end))) {
+            end++;
+        }
+        return text.substring(0, end);
+    }
+
     public String getText() {
         return text;
     }
-}
\ No newline at end of file
+}
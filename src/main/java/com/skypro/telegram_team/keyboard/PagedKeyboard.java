@@ -0,0 +1,90 @@
+package com.skypro.telegram_team.keyboard;
+
+import com.pengrad.telegrambot.model.request.InlineKeyboardButton;
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Inline keyboard со списком кнопок (по одной в строке), разбитая на страницы.
+ * <p>
+ * На каждой странице не больше pageSize кнопок списка, под ними кнопки перехода на соседние страницы
+ * (команда перехода с номером страницы в параметре) и общие для всех страниц кнопки.
+ * Страницы строятся один раз и не изменяются
+ */
+public final class PagedKeyboard {
+    static final String PREVIOUS_TEXT = "« Назад";
+    static final String NEXT_TEXT = "Далее »";
+    private final List<InlineKeyboardMarkup> pages;
+
+    private PagedKeyboard(List<InlineKeyboardMarkup> pages) {
+        this.pages = pages;
+    }
+
+    /**
+     * Построить страницы
+     *
+     * @param buttons      кнопки списка
+     * @param pageCallback команда перехода на страницу (параметр - номер страницы с 0)
+     * @param footer       кнопки под списком на каждой странице
+     * @param pageSize     количество кнопок списка на странице
+     * @return страницы
+     */
+    public static PagedKeyboard of(List<InlineKeyboardButton> buttons, Callback pageCallback,
+                                   List<InlineKeyboardButton> footer, int pageSize) {
+        return of(buttons, page -> pageCallback.name() + page, footer, pageSize);
+    }
+
+    /**
+     * Построить страницы с произвольными данными кнопок перехода
+     *
+     * @param buttons  кнопки списка
+     * @param pageData данные callback кнопки перехода по номеру страницы с 0
+     * @param footer   кнопки под списком на каждой странице
+     * @param pageSize количество кнопок списка на странице
+     * @return страницы
+     */
+    public static PagedKeyboard of(List<InlineKeyboardButton> buttons, IntFunction<String> pageData,
+                                   List<InlineKeyboardButton> footer, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        int pageCount = Math.max(1, (buttons.size() + pageSize - 1) / pageSize);
+        List<InlineKeyboardMarkup> pages = new ArrayList<>(pageCount);
+        for (int page = 0; page < pageCount; page++) {
+            InlineKeyboardMarkup markup = new InlineKeyboardMarkup();
+            buttons.subList(page * pageSize, Math.min(buttons.size(), (page + 1) * pageSize))
+                    .forEach(markup::addRow);
+            if (page > 0 && page < pageCount - 1) {
+                markup.addRow(pageButton(PREVIOUS_TEXT, pageData, page - 1),
+                        pageButton(NEXT_TEXT, pageData, page + 1));
+            } else if (page > 0) {
+                markup.addRow(pageButton(PREVIOUS_TEXT, pageData, page - 1));
+            } else if (pageCount > 1) {
+                markup.addRow(pageButton(NEXT_TEXT, pageData, page + 1));
+            }
+            footer.forEach(markup::addRow);
+            pages.add(markup);
+        }
+        return new PagedKeyboard(List.copyOf(pages));
+    }
+
+    /**
+     * Страница клавиатуры
+     *
+     * @param page номер страницы с 0, номер за пределами приводится к первой или последней странице
+     */
+    public InlineKeyboardMarkup page(int page) {
+        return pages.get(Math.max(0, Math.min(page, pages.size() - 1)));
+    }
+
+    public int size() {
+        return pages.size();
+    }
+
+    private static InlineKeyboardButton pageButton(String text, IntFunction<String> pageData, int page) {
+        return new InlineKeyboardButton(text).callbackData(pageData.apply(page));
+    }
+}
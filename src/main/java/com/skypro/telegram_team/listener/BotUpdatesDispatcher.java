@@ -0,0 +1,128 @@
+package com.skypro.telegram_team.listener;
+
+import com.pengrad.telegrambot.model.Message;
+import com.pengrad.telegrambot.model.Update;
+import com.skypro.telegram_team.handler.BotUpdateHandler;
+import com.skypro.telegram_team.sender.BotMessageSender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Распределение обновлений по потокам обработки.
+ * <p>
+ * Обновления разных чатов обрабатываются параллельно (не более заданного числа потоков),
+ * обновления одного чата - строго в порядке поступления.
+ */
+@Component
+public class BotUpdatesDispatcher {
+    private final Logger logger = LoggerFactory.getLogger(BotUpdatesDispatcher.class);
+    private final BotMessageSender messageSender;
+    private final BotUpdateHandler updateHandler;
+    private final ExecutorService executor;
+    //Последняя задача по каждому чату, новые задачи чата выполняются после нее
+    private final Map<Long, CompletableFuture<Void>> chatTails = new ConcurrentHashMap<>();
+
+    public BotUpdatesDispatcher(BotMessageSender messageSender, BotUpdateHandler updateHandler,
+                                @Value("${telegram.bot.dispatch.threads:8}") int threads) {
+        this.messageSender = messageSender;
+        this.updateHandler = updateHandler;
+        this.executor = Executors.newFixedThreadPool(threads, new DispatchThreadFactory());
+    }
+
+    /**
+     * Обработать пакет обновлений и дождаться окончания обработки
+     *
+     * @param updates обновления
+     */
+    public void dispatchAndWait(List<Update> updates) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(updates.size());
+        updates.forEach(update -> futures.add(dispatch(update)));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    /**
+     * Поставить обновление в очередь обработки его чата
+     *
+     * @param update обновление
+     * @return завершается после обработки обновления
+     */
+    public CompletableFuture<Void> dispatch(Update update) {
+        Long chatId = getChatId(update);
+        CompletableFuture<Void> task = chatTails.compute(chatId, (key, tail) -> tail == null
+                ? CompletableFuture.runAsync(() -> processUpdate(update), executor)
+                : tail.thenRunAsync(() -> processUpdate(update), executor));
+        //Очередь чата больше не нужна, если за это время в нее ничего не добавили
+        task.whenComplete((result, e) -> chatTails.remove(chatId, task));
+        return task;
+    }
+
+    /**
+     * Обрабатывает одно обновление,
+     * ошибка обработки не влияет на остальные обновления чата
+     *
+     * @param update Обновление, которое необходимо обработать
+     */
+    private void processUpdate(Update update) {
+        try {
+            logger.info("Process update: {}", update);
+            messageSender.send(updateHandler.processUpdate(update));
+        } catch (Exception e) {
+            logger.error(e.getMessage());
+        }
+    }
+
+    /**
+     * Чат обновления.
+     * Для обновлений без чата используется отрицательный id обновления,
+     * такие обновления обрабатываются независимо
+     *
+     * @param update обновление
+     * @return id чата
+     */
+    static Long getChatId(Update update) {
+        Message message = update.message();
+        if (message == null && update.callbackQuery() != null) {
+            message = update.callbackQuery().message();
+        }
+        if (message != null && message.chat() != null) {
+            return message.chat().id();
+        }
+        if (update.callbackQuery() != null && update.callbackQuery().from() != null) {
+            return update.callbackQuery().from().id();
+        }
+        return update.updateId() == null ? 0L : -update.updateId().longValue();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class DispatchThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "bot-dispatch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
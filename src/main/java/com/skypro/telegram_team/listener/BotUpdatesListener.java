@@ -4,24 +4,25 @@ package com.skypro.telegram_team.listener;
 import com.pengrad.telegrambot.TelegramBot;
 import com.pengrad.telegrambot.UpdatesListener;
 import com.pengrad.telegrambot.model.Update;
-import com.skypro.telegram_team.handler.BotUpdateHandler;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import java.util.List;
 
+/**
+ * Получение обновлений через long polling (режим по умолчанию)
+ */
 @Component
+@ConditionalOnProperty(name = "telegram.bot.webhook.enabled", havingValue = "false", matchIfMissing = true)
 public class BotUpdatesListener implements UpdatesListener {
 
-    private final Logger logger = LoggerFactory.getLogger(BotUpdatesListener.class);
     private final TelegramBot telegramBot;
-    private final BotUpdateHandler updateListener;
+    private final BotUpdatesDispatcher updatesDispatcher;
 
-    public BotUpdatesListener(TelegramBot telegramBot, BotUpdateHandler updateListener) {
+    public BotUpdatesListener(TelegramBot telegramBot, BotUpdatesDispatcher updatesDispatcher) {
         this.telegramBot = telegramBot;
-        this.updateListener = updateListener;
+        this.updatesDispatcher = updatesDispatcher;
     }
 
     /**
@@ -45,31 +46,12 @@ public class BotUpdatesListener implements UpdatesListener {
     }
 
     /**
-     * Обрабатывает список обновлений
+     * Обрабатывает список обновлений.
+     * Чаты обрабатываются параллельно, обновления внутри чата - по порядку
      *
      * @param updates Список обновлений, которые необходимо обработать.
      */
     private void processUpdates(List<Update> updates) {
-        updates.forEach(update -> {
-            try {
-                logger.info("Process update: {}", update);
-                processUpdate(update);
-            } catch (Exception e) {
-                logger.error(e.getMessage());
-            }
-        });
-    }
-
-    /**
-     * Обрабатывает одно обновление из списка
-     *
-     * @param update Обновление, которое необходимо обработать
-     */
-    private void processUpdate(Update update) {
-        updateListener.processUpdate(update)
-                .forEach(telegramBot::execute);
+        updatesDispatcher.dispatchAndWait(updates);
     }
 }
-
-
-
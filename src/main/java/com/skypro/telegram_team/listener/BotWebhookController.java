@@ -0,0 +1,81 @@
+package com.skypro.telegram_team.listener;
+
+import com.pengrad.telegrambot.BotUtils;
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.request.SetWebhook;
+import com.pengrad.telegrambot.response.BaseResponse;
+import io.swagger.v3.oas.annotations.Hidden;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Получение обновлений через webhook (вместо long polling).
+ * <p>
+ * Включается свойством telegram.bot.webhook.enabled=true.
+ * Обновление подтверждается сразу, обработка выполняется в пуле потоков {@link BotUpdatesDispatcher}.
+ * Секрет в пути запроса защищает endpoint от чужих запросов.
+ */
+@Hidden
+@RestController
+@RequestMapping("/telegram/webhook")
+@ConditionalOnProperty(name = "telegram.bot.webhook.enabled", havingValue = "true")
+public class BotWebhookController {
+    private final Logger logger = LoggerFactory.getLogger(BotWebhookController.class);
+    private final TelegramBot telegramBot;
+    private final BotUpdatesDispatcher updatesDispatcher;
+    private final String url;
+    private final String secret;
+
+    public BotWebhookController(TelegramBot telegramBot, BotUpdatesDispatcher updatesDispatcher,
+                                @Value("${telegram.bot.webhook.url:}") String url,
+                                @Value("${telegram.bot.webhook.secret}") String secret) {
+        this.telegramBot = telegramBot;
+        this.updatesDispatcher = updatesDispatcher;
+        this.url = url;
+        this.secret = secret;
+    }
+
+    /**
+     * Регистрирует webhook в Telegram, если задан внешний адрес
+     */
+    @PostConstruct
+    public void init() {
+        if (url.isBlank()) {
+            logger.warn("Webhook url is not set, webhook should be registered manually");
+            return;
+        }
+        BaseResponse response = telegramBot.execute(new SetWebhook().url(url + "/" + secret));
+        if (!response.isOk()) {
+            logger.error("Webhook was not set: {}", response.description());
+        }
+    }
+
+    /**
+     * Принимает обновление от Telegram
+     *
+     * @param secret секрет из адреса webhook
+     * @param body   обновление в формате JSON
+     * @return 200 - обновление принято
+     */
+    @PostMapping("/{secret}")
+    public ResponseEntity<Void> receiveUpdate(@PathVariable("secret") String secret, @RequestBody String body) {
+        if (!this.secret.equals(secret)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Update update = BotUtils.parseUpdate(body);
+        updatesDispatcher.dispatch(update);
+        return ResponseEntity.ok().build();
+    }
+}
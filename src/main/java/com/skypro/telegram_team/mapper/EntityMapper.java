@@ -0,0 +1,74 @@
+package com.skypro.telegram_team.mapper;
+
+import com.skypro.telegram_team.model.Animal;
+import com.skypro.telegram_team.model.Report;
+import com.skypro.telegram_team.model.User;
+
+/**
+ * Копирование полей сущностей при обновлении.
+ * <p>
+ * Повторяет поведение ModelMapper для объектов одного типа: все поля, включая null,
+ * переносятся в объект назначения, связанные сущности копируются по ссылке.
+ * При добавлении поля в сущность его нужно добавить и сюда
+ */
+public final class EntityMapper {
+
+    private EntityMapper() {
+    }
+
+    /**
+     * Скопировать поля пользователя
+     *
+     * @param source пользователь с новыми данными
+     * @param target пользователь для обновления
+     */
+    public static void copy(User source, User target) {
+        target.setId(source.getId());
+        target.setTelegramId(source.getTelegramId());
+        target.setName(source.getName());
+        target.setSurname(source.getSurname());
+        target.setPhone(source.getPhone());
+        target.setEmail(source.getEmail());
+        target.setDaysForTest(source.getDaysForTest());
+        target.setEndTest(source.getEndTest());
+        target.setAnimal(source.getAnimal());
+        target.setShelter(source.getShelter());
+        target.setState(source.getState());
+        target.setVolunteer(source.isVolunteer());
+    }
+
+    /**
+     * Скопировать поля животного
+     *
+     * @param source животное с новыми данными
+     * @param target животное для обновления
+     */
+    public static void copy(Animal source, Animal target) {
+        target.setId(source.getId());
+        target.setName(source.getName());
+        target.setBreed(source.getBreed());
+        target.setDescription(source.getDescription());
+        target.setUser(source.getUser());
+        target.setShelter(source.getShelter());
+        target.setPhotoHash(source.getPhotoHash());
+        target.setState(source.getState());
+        target.setType(source.getType());
+    }
+
+    /**
+     * Скопировать поля отчета
+     *
+     * @param source отчет с новыми данными
+     * @param target отчет для обновления
+     */
+    public static void copy(Report source, Report target) {
+        target.setId(source.getId());
+        target.setDiet(source.getDiet());
+        target.setWellBeing(source.getWellBeing());
+        target.setChangeBehavior(source.getChangeBehavior());
+        target.setDate(source.getDate());
+        target.setPhotoHash(source.getPhotoHash());
+        target.setUser(source.getUser());
+        target.setAnimal(source.getAnimal());
+    }
+}
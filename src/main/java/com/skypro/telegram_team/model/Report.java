@@ -5,7 +5,6 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
-import org.hibernate.annotations.Type;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -27,10 +26,9 @@ public class Report {
     private String changeBehavior;
     private LocalDateTime date;
 
-    @Lob
-    @Type(type = "org.hibernate.type.ImageType")
+    //Хеш фото в PhotoStorage
     @JsonIgnore
-    private byte[] photo;
+    private String photoHash;
 
     @OneToOne
     @JoinColumn(name = "user_id", referencedColumnName = "id")
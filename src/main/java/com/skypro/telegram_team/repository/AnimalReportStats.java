@@ -0,0 +1,19 @@
+package com.skypro.telegram_team.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сводка по отчетам для животного и его усыновителя
+ *
+ * @param animalId       идентификатор животного
+ * @param userId         идентификатор усыновителя
+ * @param telegramId     идентификатор Telegram усыновителя
+ * @param name           имя усыновителя
+ * @param surname        фамилия усыновителя
+ * @param endTest        окончание испытательного срока
+ * @param lastReportDate дата последнего отчета (null, если отчетов нет)
+ * @param reportCount    количество отчетов
+ */
+public record AnimalReportStats(Long animalId, Long userId, Long telegramId, String name, String surname,
+                                LocalDateTime endTest, LocalDateTime lastReportDate, Long reportCount) {
+}
@@ -1,10 +1,16 @@
 package com.skypro.telegram_team.repository;
 
+import com.skypro.telegram_team.dto.AnimalSummary;
 import com.skypro.telegram_team.model.Animal;
 import com.skypro.telegram_team.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +24,31 @@ public interface AnimalRepository extends JpaRepository<Animal, Long> {
     List<Animal> findAllByUserIdNotNullAndState(Animal.AnimalStateEnum inTest);
 
     List<Animal> findAnimalsByUserState(User.OwnerStateEnum ownerStateEnum);
+
+    /**
+     * Изменение статуса животных одним запросом
+     *
+     * @return количество измененных животных
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Animal a set a.state = :state where a.id in :ids")
+    int updateStateByIdIn(@Param("ids") Collection<Long> ids, @Param("state") Animal.AnimalStateEnum state);
+
+    /**
+     * Страница кратких данных животных с id в интервале (afterId, beforeId),
+     * фильтры со значением null не применяются
+     */
+    @Query("""
+            select new com.skypro.telegram_team.dto.AnimalSummary(a.id, a.name, a.breed, a.type, a.state, s.id, u.id)
+            from Animal a
+            left join a.shelter s
+            left join a.user u
+            where a.id > :afterId and a.id < :beforeId
+            and (:state is null or a.state = :state)
+            and (:shelterId is null or s.id = :shelterId)""")
+    List<AnimalSummary> findSummaries(@Param("afterId") long afterId,
+                                      @Param("beforeId") long beforeId,
+                                      @Param("state") Animal.AnimalStateEnum state,
+                                      @Param("shelterId") Long shelterId,
+                                      Pageable pageable);
 }
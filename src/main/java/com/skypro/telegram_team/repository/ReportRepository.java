@@ -1,12 +1,18 @@
 package com.skypro.telegram_team.repository;
 
+import com.skypro.telegram_team.dto.ReportSummary;
+import com.skypro.telegram_team.model.Animal;
 import com.skypro.telegram_team.model.Report;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ReportRepository extends JpaRepository<Report, Long> {
@@ -15,4 +21,54 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     Collection<Report> findByUserId(Long userId);
 
     Collection<Report> findByUserIdAndDate(Long userId, LocalDateTime dateTime);
+
+    /**
+     * Первый отчет пользователя в интервале дат [from, to)
+     * (использует индекс reports(user_id, date))
+     */
+    Optional<Report> findFirstByUserIdAndDateGreaterThanEqualAndDateLessThanOrderByDateAsc(Long userId,
+                                                                                          LocalDateTime from,
+                                                                                          LocalDateTime to);
+
+    /**
+     * Дата последнего отчета и количество отчетов по каждому животному с усыновителем в заданном статусе
+     * (один сгруппированный запрос, использует индекс reports(animal_id, date)).
+     * Животные выбираются по возрастанию id, начиная после afterId, не больше pageable.getPageSize()
+     */
+    @Query("""
+            select new com.skypro.telegram_team.repository.AnimalReportStats(
+                a.id, u.id, u.telegramId, u.name, u.surname, u.endTest, max(r.date), count(r.id))
+            from Animal a
+            join a.user u
+            left join Report r on r.animal = a
+            where a.state = :state and a.id > :afterId
+            group by a.id, u.id, u.telegramId, u.name, u.surname, u.endTest
+            order by a.id""")
+    List<AnimalReportStats> findReportStatsByAnimalState(@Param("state") Animal.AnimalStateEnum state,
+                                                         @Param("afterId") Long afterId,
+                                                         Pageable pageable);
+
+    /**
+     * Страница кратких данных отчетов с id в интервале (afterId, beforeId) без фото,
+     * фильтры со значением null не применяются, интервал дат [from, to).
+     * cast нужен PostgreSQL, чтобы определить тип даты, переданной как null
+     */
+    @Query("""
+            select new com.skypro.telegram_team.dto.ReportSummary(r.id, r.date, r.diet, r.wellBeing,
+                r.changeBehavior, u.id, a.id)
+            from Report r
+            left join r.user u
+            left join r.animal a
+            where r.id > :afterId and r.id < :beforeId
+            and (:userId is null or u.id = :userId)
+            and (:animalId is null or a.id = :animalId)
+            and (cast(:from as timestamp) is null or r.date >= :from)
+            and (cast(:to as timestamp) is null or r.date < :to)""")
+    List<ReportSummary> findSummaries(@Param("afterId") long afterId,
+                                      @Param("beforeId") long beforeId,
+                                      @Param("userId") Long userId,
+                                      @Param("animalId") Long animalId,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      Pageable pageable);
 }
@@ -1,9 +1,30 @@
 package com.skypro.telegram_team.repository;
 
+import com.skypro.telegram_team.dto.ShelterSummary;
+import com.skypro.telegram_team.model.Animal;
 import com.skypro.telegram_team.model.Shelter;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ShelterRepository extends JpaRepository<Shelter, Long> {
+
+    /**
+     * Страница кратких данных приютов с id в интервале (afterId, beforeId),
+     * фильтр со значением null не применяется
+     */
+    @Query("""
+            select new com.skypro.telegram_team.dto.ShelterSummary(s.id, s.name, s.type, s.address)
+            from Shelter s
+            where s.id > :afterId and s.id < :beforeId
+            and (:type is null or s.type = :type)""")
+    List<ShelterSummary> findSummaries(@Param("afterId") long afterId,
+                                       @Param("beforeId") long beforeId,
+                                       @Param("type") Animal.TypeAnimal type,
+                                       Pageable pageable);
 }
@@ -1,7 +1,12 @@
 package com.skypro.telegram_team.repository;
 
+import com.skypro.telegram_team.dto.UserSummary;
 import com.skypro.telegram_team.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collection;
@@ -15,5 +20,34 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByState(User.OwnerStateEnum state);
 
     Collection<User> findByTelegramId(Long telegramId);
-}
 
+    /**
+     * Изменение статуса пользователей одним запросом
+     *
+     * @return количество измененных пользователей
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update User u set u.state = :state where u.id in :ids")
+    int updateStateByIdIn(@Param("ids") Collection<Long> ids, @Param("state") User.OwnerStateEnum state);
+
+    /**
+     * Страница кратких данных пользователей с id в интервале (afterId, beforeId),
+     * фильтры со значением null не применяются
+     */
+    @Query("""
+            select new com.skypro.telegram_team.dto.UserSummary(u.id, u.telegramId, u.name, u.surname, u.phone,
+                u.email, u.state, u.volunteer, u.endTest, s.id, a.id)
+            from User u
+            left join u.shelter s
+            left join u.animal a
+            where u.id > :afterId and u.id < :beforeId
+            and (:state is null or u.state = :state)
+            and (:shelterId is null or s.id = :shelterId)
+            and (:volunteer is null or u.volunteer = :volunteer)""")
+    List<UserSummary> findSummaries(@Param("afterId") long afterId,
+                                    @Param("beforeId") long beforeId,
+                                    @Param("state") User.OwnerStateEnum state,
+                                    @Param("shelterId") Long shelterId,
+                                    @Param("volunteer") Boolean volunteer,
+                                    Pageable pageable);
+}
@@ -0,0 +1,302 @@
+package com.skypro.telegram_team.sender;
+
+import com.pengrad.telegrambot.Callback;
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.request.BaseRequest;
+import com.pengrad.telegrambot.request.SendMessage;
+import com.pengrad.telegrambot.response.BaseResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Очередь исходящих сообщений.
+ * <p>
+ * В очередь ставятся новые сообщения ({@link SendMessage}) и изменения отправленных сообщений
+ * (например, EditMessageReplyMarkup), ограничения для них общие.
+ * Сообщения отправляются асинхронно с соблюдением ограничений Telegram:
+ * общего (~30 сообщений в секунду) и для каждого чата (1 сообщение в секунду).
+ * При ответе 429 чат и общий лимит блокируются на retry_after секунд, а сообщение возвращается в начало очереди,
+ * чтобы следующие сообщения этого чата не были отправлены раньше него.
+ * При ошибке сети сообщение так же возвращается в начало очереди, но не больше telegram.bot.sender.max-retries раз.
+ * При остановке бота очередь и отложенные сообщения отправляются с теми же ограничениями
+ * не дольше telegram.bot.sender.shutdown-timeout.
+ */
+@Component
+public class BotMessageSender {
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final long IDLE_BUCKETS_CLEANUP_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private final Logger logger = LoggerFactory.getLogger(BotMessageSender.class);
+    private final TelegramBot telegramBot;
+    private final TokenBucket globalBucket;
+    private final double chatRate;
+    private final long tickMillis;
+    private final int maxRetries;
+    private final Duration shutdownTimeout;
+    private final LongSupplier nanoClock;
+    private final Map<Object, TokenBucket> chatBuckets = new ConcurrentHashMap<>();
+    private final BlockingDeque<BaseRequest<?, ?>> queue = new LinkedBlockingDeque<>();
+    //Сообщения с ответом 429 или ошибкой сети, возвращаются в начало очереди в начале drain
+    private final Deque<BaseRequest<?, ?>> retries = new ConcurrentLinkedDeque<>();
+    //Количество ошибок сети по сообщениям (BaseRequest сравнивается по ссылке)
+    private final Map<BaseRequest<?, ?>, Integer> failures = new ConcurrentHashMap<>();
+    //Отправленные сообщения, ответ на которые еще не получен
+    private final AtomicInteger inFlight = new AtomicInteger();
+    //Сообщения, отложенные через send(SendMessage, Duration), ставятся в очередь в drain по наступлении срока
+    private final PriorityBlockingQueue<DelayedMessage> delayed = new PriorityBlockingQueue<>(11,
+            Comparator.comparingLong(DelayedMessage::dueAt).thenComparingLong(DelayedMessage::sequence));
+    private final AtomicLong delayedSequence = new AtomicLong();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bot-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long lastCleanup;
+
+    @Autowired
+    public BotMessageSender(TelegramBot telegramBot,
+                            @Value("${telegram.bot.sender.global-rate:30}") double globalRate,
+                            @Value("${telegram.bot.sender.chat-rate:1}") double chatRate,
+                            @Value("${telegram.bot.sender.tick:50}") long tickMillis,
+                            @Value("${telegram.bot.sender.max-retries:3}") int maxRetries,
+                            @Value("${telegram.bot.sender.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this(telegramBot, globalRate, chatRate, tickMillis, maxRetries, shutdownTimeout, System::nanoTime);
+    }
+
+    public BotMessageSender(TelegramBot telegramBot, double globalRate, double chatRate, long tickMillis,
+                            int maxRetries, Duration shutdownTimeout, LongSupplier nanoClock) {
+        this.telegramBot = telegramBot;
+        this.globalBucket = new TokenBucket(globalRate, globalRate, nanoClock);
+        this.chatRate = chatRate;
+        this.tickMillis = tickMillis;
+        this.maxRetries = maxRetries;
+        this.shutdownTimeout = shutdownTimeout;
+        this.nanoClock = nanoClock;
+        this.lastCleanup = nanoClock.getAsLong();
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::drain, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            //Дождаться текущего drain, дальше очередь отправляется в этом потоке
+            if (scheduler.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int unsent = getQueueSize() + getDelayedCount() + inFlight.get();
+        if (unsent > 0) {
+            logger.warn("{} messages were not sent", unsent);
+        }
+    }
+
+    /**
+     * Отправить очередь и отложенные сообщения (не дожидаясь их срока) с соблюдением ограничений,
+     * не дольше shutdownTimeout
+     */
+    private void flush() throws InterruptedException {
+        for (DelayedMessage message = delayed.poll(); message != null; message = delayed.poll()) {
+            queue.add(message.request());
+        }
+        long ticks = shutdownTimeout.toMillis() / tickMillis;
+        for (long i = 0; i < ticks && hasPending(); i++) {
+            drain();
+            if (hasPending()) {
+                Thread.sleep(tickMillis);
+            }
+        }
+    }
+
+    private boolean hasPending() {
+        return getQueueSize() > 0 || inFlight.get() > 0;
+    }
+
+    /**
+     * Поставить сообщение в очередь на отправку
+     *
+     * @param sendMessage сообщение
+     */
+    public void send(BaseRequest<?, ?> sendMessage) {
+        queue.add(sendMessage);
+    }
+
+    /**
+     * Поставить сообщение в очередь на отправку через заданное время
+     * (для распределения массовых рассылок во времени)
+     *
+     * @param sendMessage сообщение
+     * @param delay       задержка перед постановкой в очередь
+     */
+    public void send(BaseRequest<?, ?> sendMessage, Duration delay) {
+        if (delay.isZero() || delay.isNegative()) {
+            send(sendMessage);
+            return;
+        }
+        delayed.add(new DelayedMessage(nanoClock.getAsLong() + delay.toNanos(), delayedSequence.incrementAndGet(),
+                sendMessage));
+    }
+
+    /**
+     * Поставить сообщения в очередь на отправку, порядок сохраняется
+     *
+     * @param sendMessages сообщения
+     */
+    public void send(List<? extends BaseRequest<?, ?>> sendMessages) {
+        queue.addAll(sendMessages);
+    }
+
+    /**
+     * Количество сообщений, ожидающих отправки
+     */
+    public int getQueueSize() {
+        return queue.size() + retries.size();
+    }
+
+    /**
+     * Количество отложенных сообщений, еще не поставленных в очередь
+     */
+    public int getDelayedCount() {
+        return delayed.size();
+    }
+
+    /**
+     * Отправить сообщения, для которых есть свободные маркеры.
+     * Если чат исчерпал лимит, его сообщения остаются в очереди в прежнем порядке
+     */
+    void drain() {
+        try {
+            //Повторы возвращаются в поток drain, а не в очередь из callback, иначе сообщения чата,
+            //отложенные текущим drain, могли бы оказаться перед повтором
+            for (BaseRequest<?, ?> retry = retries.pollLast(); retry != null; retry = retries.pollLast()) {
+                queue.addFirst(retry);
+            }
+            moveDueDelayed();
+            List<BaseRequest<?, ?>> postponed = new ArrayList<>();
+            Set<Object> limitedChats = new HashSet<>();
+            int count = queue.size();
+            for (int i = 0; i < count && globalBucket.hasToken(); i++) {
+                BaseRequest<?, ?> sendMessage = queue.poll();
+                if (sendMessage == null) {
+                    break;
+                }
+                Object chatId = sendMessage.getParameters().get("chat_id");
+                if (limitedChats.contains(chatId) || !getChatBucket(chatId).tryAcquire()) {
+                    limitedChats.add(chatId);
+                    postponed.add(sendMessage);
+                    continue;
+                }
+                globalBucket.tryAcquire();
+                execute(sendMessage);
+            }
+            for (int i = postponed.size() - 1; i >= 0; i--) {
+                queue.addFirst(postponed.get(i));
+            }
+            cleanupIdleBuckets();
+        } catch (Exception e) {
+            logger.error(e.getMessage());
+        }
+    }
+
+    //Ответ разбирается только по полям BaseResponse, общим для всех запросов
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void execute(BaseRequest<?, ?> sendMessage) {
+        inFlight.incrementAndGet();
+        telegramBot.execute((BaseRequest) sendMessage, new Callback() {
+            @Override
+            public void onResponse(BaseRequest request, BaseResponse response) {
+                inFlight.decrementAndGet();
+                failures.remove(request);
+                if (response.isOk()) {
+                    return;
+                }
+                if (response.errorCode() == TOO_MANY_REQUESTS) {
+                    int retryAfter = response.parameters() != null && response.parameters().retryAfter() != null
+                            ? response.parameters().retryAfter() : 1;
+                    logger.warn("Too many requests, retry after {} s", retryAfter);
+                    long blockNanos = TimeUnit.SECONDS.toNanos(retryAfter);
+                    getChatBucket(request.getParameters().get("chat_id")).block(blockNanos);
+                    globalBucket.block(blockNanos);
+                    retries.addLast(request);
+                } else {
+                    logger.error("Message was not sent: {}", response.description());
+                }
+            }
+
+            @Override
+            public void onFailure(BaseRequest request, IOException e) {
+                inFlight.decrementAndGet();
+                int attempt = failures.merge(request, 1, Integer::sum);
+                if (attempt > maxRetries) {
+                    failures.remove(request);
+                    logger.error("Message was not sent after {} attempts: {}", attempt, e.getMessage());
+                    return;
+                }
+                logger.warn("Message was not sent, attempt {}: {}", attempt, e.getMessage());
+                retries.addLast(request);
+            }
+        });
+    }
+
+    private void moveDueDelayed() {
+        long now = nanoClock.getAsLong();
+        for (DelayedMessage message = delayed.peek(); message != null && now - message.dueAt() >= 0;
+             message = delayed.peek()) {
+            //Сообщения забирает только поток drain, первое в очереди не позже просмотренного
+            queue.add(delayed.poll().request());
+        }
+    }
+
+    private TokenBucket getChatBucket(Object chatId) {
+        return chatBuckets.computeIfAbsent(chatId, key -> new TokenBucket(1, chatRate, nanoClock));
+    }
+
+    private void cleanupIdleBuckets() {
+        long now = nanoClock.getAsLong();
+        if (now - lastCleanup > IDLE_BUCKETS_CLEANUP_NANOS) {
+            chatBuckets.values().removeIf(TokenBucket::isFull);
+            lastCleanup = now;
+        }
+    }
+
+    /**
+     * Отложенное сообщение
+     *
+     * @param dueAt    время постановки в очередь (по nanoClock)
+     * @param sequence порядок отложенных сообщений с одинаковым временем
+     * @param request  сообщение
+     */
+    private record DelayedMessage(long dueAt, long sequence, BaseRequest<?, ?> request) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.skypro.telegram_team.sender;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничитель частоты: маркеры пополняются с постоянной скоростью до заданной емкости,
+ * на каждое действие расходуется один маркер
+ */
+public class TokenBucket {
+    private static final double NANOS_IN_SECOND = 1_000_000_000d;
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoClock;
+    private double tokens;
+    private long lastRefill;
+    //Время окончания блокировки (по nanoClock), 0 - корзина не заблокирована
+    private long blockedUntil;
+
+    /**
+     * @param capacity        максимальное количество маркеров
+     * @param tokensPerSecond скорость пополнения
+     */
+    public TokenBucket(double capacity, double tokensPerSecond) {
+        this(capacity, tokensPerSecond, System::nanoTime);
+    }
+
+    /**
+     * @param capacity        максимальное количество маркеров
+     * @param tokensPerSecond скорость пополнения
+     * @param nanoClock       источник времени в наносекундах, как {@link System#nanoTime()}
+     */
+    public TokenBucket(double capacity, double tokensPerSecond, LongSupplier nanoClock) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / NANOS_IN_SECOND;
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    /**
+     * Взять маркер, если он есть
+     *
+     * @return true, если маркер получен
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Есть ли свободный маркер (маркер не расходуется)
+     */
+    public synchronized boolean hasToken() {
+        refill();
+        return tokens >= 1;
+    }
+
+    /**
+     * Забрать все маркеры и не пополнять корзину заданное время.
+     * После блокировки сразу доступен один маркер
+     *
+     * @param nanos время блокировки в наносекундах
+     */
+    public synchronized void block(long nanos) {
+        refill();
+        tokens = 0;
+        long until = nanoClock.getAsLong() + nanos;
+        if (blockedUntil == 0 || until - blockedUntil > 0) {
+            blockedUntil = until;
+        }
+    }
+
+    /**
+     * Корзина полностью заполнена, т.е. давно не использовалась
+     */
+    public synchronized boolean isFull() {
+        refill();
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        if (blockedUntil != 0) {
+            if (now - blockedUntil < 0) {
+                lastRefill = now;
+                return;
+            }
+            tokens = Math.min(capacity, 1);
+            lastRefill = blockedUntil;
+            blockedUntil = 0;
+        }
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
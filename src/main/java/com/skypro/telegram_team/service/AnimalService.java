@@ -1,11 +1,17 @@
 package com.skypro.telegram_team.service;
 
+import com.skypro.telegram_team.dto.AnimalSummary;
+import com.skypro.telegram_team.dto.KeysetPage;
+import com.skypro.telegram_team.dto.KeysetRequest;
 import com.skypro.telegram_team.exception.InvalidDataException;
+import com.skypro.telegram_team.mapper.EntityMapper;
 import com.skypro.telegram_team.model.Animal;
 import com.skypro.telegram_team.model.User;
 import com.skypro.telegram_team.repository.AnimalRepository;
+import com.skypro.telegram_team.storage.PhotoResource;
+import com.skypro.telegram_team.storage.PhotoStorage;
 import lombok.extern.log4j.Log4j2;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.http.MediaType;
@@ -15,6 +21,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import javax.persistence.EntityNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Objects;
 
@@ -25,10 +32,12 @@ import java.util.Objects;
 @Service
 public class AnimalService {
     private final AnimalRepository animalRepository;
+    private final PhotoStorage photoStorage;
 
 
-    public AnimalService(AnimalRepository animalRepository) {
+    public AnimalService(AnimalRepository animalRepository, PhotoStorage photoStorage) {
         this.animalRepository = animalRepository;
+        this.photoStorage = photoStorage;
     }
 
     /**
@@ -82,6 +91,21 @@ public class AnimalService {
         return animalRepository.findAll(Sort.by("name"));
     }
 
+    /**
+     * Страница кратких данных животных по возрастанию или убыванию id, использует метод репозитория
+     * {@link AnimalRepository#findSummaries(long, long, Animal.AnimalStateEnum, Long, Pageable)}
+     *
+     * @param state     статус животного (null - любой)
+     * @param shelterId идентификатор приюта (null - любой)
+     * @param request   cursor, размер страницы и порядок сортировки
+     * @return страница животных
+     */
+    public KeysetPage<AnimalSummary> findPage(Animal.AnimalStateEnum state, Long shelterId, KeysetRequest request) {
+        log.info("Finding animals page: {}, state {}, shelter {}", request, state, shelterId);
+        return request.page(animalRepository.findSummaries(request.afterId(), request.beforeId(),
+                state, shelterId, request.pageable()), AnimalSummary::id);
+    }
+
     /**
      * Находит список животных по имени, использует метод репозитория {@link AnimalRepository#findAnimalsByName(String)}
      *
@@ -118,7 +142,6 @@ public class AnimalService {
     @Transactional
     public Animal update(Animal animal, Long id) {
         log.info("Updating animal: " + animal);
-        ModelMapper modelMapper = new ModelMapper();
         if (animal.getShelter() != null && animal.getType() != animal.getShelter().getType()) {
             throw new IllegalStateException("Animal type does not match shelter type.");
         }
@@ -126,7 +149,7 @@ public class AnimalService {
                 .orElseThrow(() -> new EntityNotFoundException("Animal not found"));
         animal.setId(id);
 
-        modelMapper.map(animal, animalToUpdate);
+        EntityMapper.copy(animal, animalToUpdate);
         return animalRepository.save(animalToUpdate);
     }
 
@@ -153,6 +176,15 @@ public class AnimalService {
         return animalRepository.findAnimalsByUserState(ownerStateEnum);
     }
 
+    /**
+     * Можно ли загрузить файл как фото животного (только JPEG)
+     *
+     * @param fileName имя файла
+     */
+    public boolean isPhotoAllowed(String fileName) {
+        return getFileExtensions(fileName).equals(MediaType.IMAGE_JPEG.getSubtype());
+    }
+
     /**
      * Загрузка фото животного
      *
@@ -162,13 +194,14 @@ public class AnimalService {
     @Transactional
     public void photoUpload(Long id, MultipartFile file) throws IOException {
         log.info("Was invoked method to upload photo to animal {}", id);
-        var fileExt = getFileExtensions(Objects.requireNonNull(file.getOriginalFilename()));
-        if (!fileExt.equals(MediaType.IMAGE_JPEG.getSubtype())) {
+        if (!isPhotoAllowed(Objects.requireNonNull(file.getOriginalFilename()))) {
             throw new InvalidDataException("Only JPEG files allowed");
         }
         var animal = animalRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Animal not found"));
-        animal.setPhoto(file.getBytes());
+        try (InputStream content = file.getInputStream()) {
+            animal.setPhotoHash(photoStorage.save(content));
+        }
         animalRepository.save(animal);
     }
 
@@ -176,16 +209,18 @@ public class AnimalService {
      * Выгрузка фото животного
      *
      * @param id идентификатор животного
-     * @return данные
+     * @return фото, содержимое читается при выгрузке
      */
-    public byte[] photoDownload(Long id) {
+    public PhotoResource photoDownload(Long id) {
         log.info("Was invoked method to download photo from animal {}", id);
         var animal = animalRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Animal not found"));
-        if (animal.getPhoto() == null) {
+        if (animal.getPhotoHash() == null) {
             throw new EntityNotFoundException("Animal photo not found");
         }
-        return animal.getPhoto();
+        return photoStorage.find(animal.getPhotoHash())
+                .map(photo -> new PhotoResource(photoStorage, photo))
+                .orElseThrow(() -> new EntityNotFoundException("Animal photo not found"));
     }
 
     /**
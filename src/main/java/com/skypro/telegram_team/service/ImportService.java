@@ -0,0 +1,357 @@
+package com.skypro.telegram_team.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skypro.telegram_team.exception.InvalidDataException;
+import com.skypro.telegram_team.importer.AnimalImportRow;
+import com.skypro.telegram_team.importer.CsvParser;
+import com.skypro.telegram_team.importer.ImportError;
+import com.skypro.telegram_team.importer.ImportResult;
+import com.skypro.telegram_team.model.Animal;
+import com.skypro.telegram_team.model.Shelter;
+import com.skypro.telegram_team.repository.ShelterRepository;
+import com.skypro.telegram_team.storage.PhotoStorage;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Пакетный импорт животных и приютов из JSON массива или CSV с заголовком.
+ * <p>
+ * Все строки проверяются перед вставкой: обязательные поля, длина полей по размерам колонок,
+ * совпадение вида животного с видом животных приюта, только JPEG фото.
+ * Если есть ошибки, не сохраняется ни одна строка и возвращаются ошибки по номерам строк.
+ * Иначе строки вставляются пакетами JDBC в одной транзакции.
+ * Фото животных загружаются zip архивом, в строке указывается имя файла в архиве
+ */
+@Log4j2
+@Service
+public class ImportService {
+    private static final String INSERT_ANIMAL_SQL = """
+            INSERT INTO animals (name, breed, description, type, state, shelter_id, photo_hash)
+            VALUES (?, ?, ?, ?, ?, ?, ?)""";
+    private static final String INSERT_SHELTER_SQL = """
+            INSERT INTO shelters (name, type, address, schedule, scheme, safety, docs, rules, arrangements,
+                                  arrangements_for_puppy, arrangements_for_cripple, movement,
+                                  expert_advices_first, expert_advices_next, reject_reasons)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+    //Длина animals.name, animals.breed и shelters.name
+    private static final int MAX_NAME_LENGTH = 50;
+    //Длина shelters.address, schedule, scheme
+    private static final int MAX_TEXT_LENGTH = 100;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final AnimalService animalService;
+    private final ShelterService shelterService;
+    private final ShelterRepository shelterRepository;
+    private final PhotoStorage photoStorage;
+    private final int batchSize;
+
+    public ImportService(JdbcTemplate jdbcTemplate,
+                         ObjectMapper objectMapper,
+                         AnimalService animalService,
+                         ShelterService shelterService,
+                         ShelterRepository shelterRepository,
+                         PhotoStorage photoStorage,
+                         @Value("${telegram.bot.import.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.animalService = animalService;
+        this.shelterService = shelterService;
+        this.shelterRepository = shelterRepository;
+        this.photoStorage = photoStorage;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Импорт животных
+     *
+     * @param file   JSON массив или CSV со строками {@link AnimalImportRow}
+     * @param photos zip архив с фото (null, если фото нет)
+     * @return результат импорта
+     * @throws InvalidDataException если файл не удалось разобрать
+     */
+    @Transactional
+    public ImportResult importAnimals(MultipartFile file, MultipartFile photos) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        List<ImportError> errors = new ArrayList<>();
+        List<JsonNode> nodes = readRows(file, errors);
+        log.info("Importing {} animals", nodes.size());
+        List<AnimalImportRow> rows = convert(nodes, AnimalImportRow.class, errors);
+        Map<Long, Shelter> shelters = shelterRepository.findAllById(rows.stream()
+                        .filter(Objects::nonNull)
+                        .map(AnimalImportRow::shelterId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Shelter::getId, Function.identity()));
+        Set<String> photoNames = photos == null ? Set.of() : zipEntryNames(photos);
+        List<Animal> animals = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            AnimalImportRow row = rows.get(i);
+            if (row == null) {
+                continue;
+            }
+            Animal animal = toAnimal(row, shelters);
+            try {
+                if (row.shelterId() != null && animal.getShelter() == null) {
+                    throw new InvalidDataException("Приют не найден: " + row.shelterId());
+                }
+                validate(animal);
+                if (row.photo() != null && !animalService.isPhotoAllowed(row.photo())) {
+                    throw new InvalidDataException("Only JPEG files allowed");
+                }
+                if (row.photo() != null && !photoNames.contains(row.photo())) {
+                    throw new InvalidDataException("Фото не найдено в архиве: " + row.photo());
+                }
+                animals.add(animal);
+            } catch (InvalidDataException e) {
+                errors.add(new ImportError(i + 1, e.getMessage()));
+            }
+        }
+        if (!errors.isEmpty()) {
+            log.info("Animals import rejected: {} errors", errors.size());
+            return ImportResult.failed(nodes.size(), errors);
+        }
+        Set<String> referenced = rows.stream()
+                .map(AnimalImportRow::photo)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, String> hashes = referenced.isEmpty() ? Map.of() : savePhotos(photos, referenced);
+        for (int i = 0; i < animals.size(); i++) {
+            String photo = rows.get(i).photo();
+            if (photo != null) {
+                animals.get(i).setPhotoHash(hashes.get(photo));
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ANIMAL_SQL, animals, batchSize, (ps, animal) -> {
+            ps.setString(1, animal.getName());
+            ps.setString(2, animal.getBreed());
+            ps.setString(3, animal.getDescription());
+            ps.setString(4, animal.getType().name());
+            ps.setString(5, animal.getState().name());
+            ps.setObject(6, animal.getShelter() == null ? null : animal.getShelter().getId(), Types.BIGINT);
+            ps.setString(7, animal.getPhotoHash());
+        });
+        log.info("Imported {} animals, {} photos in {} ms", animals.size(), hashes.size(),
+                System.currentTimeMillis() - startedAt);
+        return new ImportResult(nodes.size(), animals.size(), List.of());
+    }
+
+    /**
+     * Импорт приютов
+     *
+     * @param file JSON массив или CSV с полями приюта {@link Shelter}
+     * @return результат импорта
+     * @throws InvalidDataException если файл не удалось разобрать
+     */
+    @Transactional
+    public ImportResult importShelters(MultipartFile file) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        List<ImportError> errors = new ArrayList<>();
+        List<JsonNode> nodes = readRows(file, errors);
+        log.info("Importing {} shelters", nodes.size());
+        List<Shelter> rows = convert(nodes, Shelter.class, errors);
+        List<Shelter> shelters = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Shelter shelter = rows.get(i);
+            if (shelter == null) {
+                continue;
+            }
+            try {
+                validate(shelter);
+                shelters.add(shelter);
+            } catch (InvalidDataException e) {
+                errors.add(new ImportError(i + 1, e.getMessage()));
+            }
+        }
+        if (!errors.isEmpty()) {
+            log.info("Shelters import rejected: {} errors", errors.size());
+            return ImportResult.failed(nodes.size(), errors);
+        }
+        jdbcTemplate.batchUpdate(INSERT_SHELTER_SQL, shelters, batchSize, (ps, shelter) -> {
+            ps.setString(1, shelter.getName());
+            ps.setString(2, shelter.getType().name());
+            ps.setString(3, shelter.getAddress());
+            ps.setString(4, shelter.getSchedule());
+            ps.setString(5, shelter.getScheme());
+            ps.setString(6, shelter.getSafety());
+            ps.setString(7, shelter.getDocs());
+            ps.setString(8, shelter.getRules());
+            ps.setString(9, shelter.getArrangements());
+            ps.setString(10, shelter.getArrangementsForPuppy());
+            ps.setString(11, shelter.getArrangementsForCripple());
+            ps.setString(12, shelter.getMovement());
+            ps.setString(13, shelter.getExpertAdvicesFirst());
+            ps.setString(14, shelter.getExpertAdvicesNext());
+            ps.setString(15, shelter.getRejectReasons());
+        });
+        shelterService.invalidateCaches();
+        log.info("Imported {} shelters in {} ms", shelters.size(), System.currentTimeMillis() - startedAt);
+        return new ImportResult(nodes.size(), shelters.size(), List.of());
+    }
+
+    /**
+     * Проверка строки животного перед вставкой
+     *
+     * @throws InvalidDataException если данные животного некорректны
+     */
+    private static void validate(Animal animal) {
+        if (animal.getName() == null || animal.getName().isBlank()) {
+            throw new InvalidDataException("Отсутствует кличка животного");
+        }
+        checkLength("Кличка животного", animal.getName(), MAX_NAME_LENGTH);
+        checkLength("Порода животного", animal.getBreed(), MAX_NAME_LENGTH);
+        if (animal.getType() == null) {
+            throw new InvalidDataException("Отсутствует вид животного");
+        }
+        if (animal.getShelter() != null && animal.getType() != animal.getShelter().getType()) {
+            throw new InvalidDataException("Вид животного не совпадает с видом животных приюта");
+        }
+    }
+
+    /**
+     * Проверка строки приюта перед вставкой
+     *
+     * @throws InvalidDataException если данные приюта некорректны
+     */
+    private static void validate(Shelter shelter) {
+        if (shelter.getName() == null || shelter.getName().isBlank()) {
+            throw new InvalidDataException("Отсутствует название приюта");
+        }
+        checkLength("Название приюта", shelter.getName(), MAX_NAME_LENGTH);
+        if (shelter.getType() == null) {
+            throw new InvalidDataException("Отсутствует вид животных приюта");
+        }
+        checkLength("Адрес приюта", shelter.getAddress(), MAX_TEXT_LENGTH);
+        checkLength("Расписание приюта", shelter.getSchedule(), MAX_TEXT_LENGTH);
+        checkLength("Схема проезда приюта", shelter.getScheme(), MAX_TEXT_LENGTH);
+    }
+
+    private static void checkLength(String field, String value, int maxLength) {
+        if (value != null && value.length() > maxLength) {
+            throw new InvalidDataException(field + " длиннее " + maxLength + " символов");
+        }
+    }
+
+    private static Animal toAnimal(AnimalImportRow row, Map<Long, Shelter> shelters) {
+        Animal animal = new Animal();
+        animal.setName(row.name());
+        animal.setBreed(row.breed());
+        animal.setDescription(row.description());
+        animal.setType(row.type());
+        animal.setState(row.state() == null ? Animal.AnimalStateEnum.IN_SHELTER : row.state());
+        animal.setShelter(row.shelterId() == null ? null : shelters.get(row.shelterId()));
+        return animal;
+    }
+
+    /**
+     * Строки файла: CSV определяется по расширению .csv или типу text/csv, иначе JSON массив.
+     * Для строк CSV с ошибкой в результат добавляется null, ошибка - в errors
+     */
+    private List<JsonNode> readRows(MultipartFile file, List<ImportError> errors) throws IOException {
+        String fileName = Objects.requireNonNullElse(file.getOriginalFilename(), "").toLowerCase(Locale.ROOT);
+        String contentType = Objects.requireNonNullElse(file.getContentType(), "");
+        List<JsonNode> nodes = new ArrayList<>();
+        try (InputStream content = file.getInputStream()) {
+            if (fileName.endsWith(".csv") || contentType.startsWith("text/csv")) {
+                for (Map<String, String> row : CsvParser.parse(new InputStreamReader(content, StandardCharsets.UTF_8),
+                        errors)) {
+                    nodes.add(row == null ? null : objectMapper.valueToTree(row));
+                }
+                return nodes;
+            }
+            JsonNode root = objectMapper.readTree(content);
+            if (root == null || !root.isArray()) {
+                throw new InvalidDataException("Ожидается JSON массив");
+            }
+            root.forEach(nodes::add);
+            return nodes;
+        } catch (JsonProcessingException e) {
+            throw new InvalidDataException("Некорректный JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Преобразование строк, для строк с ошибкой в результат добавляется null
+     */
+    private <T> List<T> convert(List<JsonNode> nodes, Class<T> type, List<ImportError> errors) {
+        List<T> rows = new ArrayList<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            //Ошибка разбора CSV уже добавлена в errors
+            if (nodes.get(i) == null) {
+                rows.add(null);
+                continue;
+            }
+            try {
+                rows.add(objectMapper.treeToValue(nodes.get(i), type));
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                rows.add(null);
+                String message = e instanceof JsonProcessingException jsonException
+                        ? jsonException.getOriginalMessage()
+                        : e.getMessage();
+                errors.add(new ImportError(i + 1, message));
+            }
+        }
+        return rows;
+    }
+
+    private static Set<String> zipEntryNames(MultipartFile zip) throws IOException {
+        Set<String> names = new HashSet<>();
+        try (ZipInputStream in = new ZipInputStream(zip.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    names.add(baseName(entry.getName()));
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Сохранить фото из архива, на которые ссылаются строки
+     *
+     * @return имя файла -> хеш фото
+     */
+    private Map<String, String> savePhotos(MultipartFile zip, Set<String> referenced) throws IOException {
+        Map<String, String> hashes = new HashMap<>();
+        try (ZipInputStream in = new ZipInputStream(zip.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                String name = baseName(entry.getName());
+                if (!entry.isDirectory() && referenced.contains(name) && !hashes.containsKey(name)) {
+                    //Поток архива читается до конца записи, хранилище его не закрывает
+                    hashes.put(name, photoStorage.save(in));
+                }
+            }
+        }
+        return hashes;
+    }
+
+    private static String baseName(String entryName) {
+        return entryName.substring(entryName.lastIndexOf('/') + 1);
+    }
+}
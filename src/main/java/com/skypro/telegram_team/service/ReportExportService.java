@@ -0,0 +1,131 @@
+package com.skypro.telegram_team.service;
+
+import com.skypro.telegram_team.export.ReportExportFilter;
+import com.skypro.telegram_team.export.ReportExportFormat;
+import com.skypro.telegram_team.export.ReportExportRow;
+import com.skypro.telegram_team.export.ReportExportWriter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковая выгрузка отчетов.
+ * <p>
+ * Отчеты читаются одним запросом через курсор с размером выборки telegram.bot.export.fetch-size
+ * и сразу пишутся в поток, поэтому расход памяти не зависит от количества отчетов.
+ * Драйвер PostgreSQL читает результат частями только внутри транзакции, поэтому запрос
+ * выполняется в транзакции только для чтения. Фото не выгружаются, только ссылки на них
+ */
+@Log4j2
+@Service
+public class ReportExportService {
+    private static final String SELECT_SQL = """
+            SELECT r.id, r.date, r.user_id, r.animal_id, a.shelter_id,
+                   r.diet, r.well_being, r.change_behavior, r.photo_hash
+            FROM reports r
+            LEFT JOIN animals a ON a.id = r.animal_id""";
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+
+    public ReportExportService(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${telegram.bot.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Выгрузить отчеты по возрастанию id
+     *
+     * @param filter фильтр отчетов
+     * @param format формат выгрузки
+     * @param photos выгружать ссылки на фото отчетов
+     * @param out    поток выгрузки, не закрывается
+     * @return количество выгруженных отчетов
+     * @throws IOException если не удалось записать в поток
+     */
+    public long export(ReportExportFilter filter, ReportExportFormat format, boolean photos, OutputStream out)
+            throws IOException {
+        log.info("Exporting reports: {}, format {}, photos {}", filter, format, photos);
+        long startedAt = System.currentTimeMillis();
+        ReportExportWriter writer = format.writer(out, photos);
+        List<Object> args = new ArrayList<>();
+        String sql = SELECT_SQL + where(filter, args) + " ORDER BY r.id";
+        long[] count = {0};
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < args.size(); i++) {
+                    statement.setObject(i + 1, args.get(i));
+                }
+                return statement;
+            }, rs -> {
+                try {
+                    writer.write(mapRow(rs));
+                } catch (IOException e) {
+                    //Клиент закрыл соединение - прерываем чтение курсора
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        log.info("Exported {} reports in {} ms", count[0], System.currentTimeMillis() - startedAt);
+        return count[0];
+    }
+
+    private static String where(ReportExportFilter filter, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.shelterId() != null) {
+            conditions.add("a.shelter_id = ?");
+            args.add(filter.shelterId());
+        }
+        if (filter.animalId() != null) {
+            conditions.add("r.animal_id = ?");
+            args.add(filter.animalId());
+        }
+        if (filter.from() != null) {
+            conditions.add("r.date >= ?");
+            args.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            conditions.add("r.date < ?");
+            args.add(Timestamp.valueOf(filter.to()));
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static ReportExportRow mapRow(ResultSet rs) throws SQLException {
+        Timestamp date = rs.getTimestamp("date");
+        return new ReportExportRow(
+                rs.getLong("id"),
+                date == null ? null : date.toLocalDateTime(),
+                rs.getObject("user_id", Long.class),
+                rs.getObject("animal_id", Long.class),
+                rs.getObject("shelter_id", Long.class),
+                rs.getString("diet"),
+                rs.getString("well_being"),
+                rs.getString("change_behavior"),
+                rs.getString("photo_hash"));
+    }
+}
@@ -1,15 +1,26 @@
 package com.skypro.telegram_team.service;
 
+import com.skypro.telegram_team.dto.KeysetPage;
+import com.skypro.telegram_team.dto.KeysetRequest;
+import com.skypro.telegram_team.dto.ReportSummary;
+import com.skypro.telegram_team.mapper.EntityMapper;
+import com.skypro.telegram_team.model.Animal;
 import com.skypro.telegram_team.model.Report;
+import com.skypro.telegram_team.repository.AnimalReportStats;
 import com.skypro.telegram_team.repository.ReportRepository;
 import com.skypro.telegram_team.repository.UserRepository;
+import com.skypro.telegram_team.storage.PhotoResource;
+import com.skypro.telegram_team.storage.PhotoStorage;
 import lombok.extern.log4j.Log4j2;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Collection;
@@ -23,11 +34,14 @@ import java.util.List;
 public class ReportService {
     private final UserRepository userRepository;
     private final ReportRepository reportRepository;
+    private final PhotoStorage photoStorage;
 
     public ReportService(ReportRepository reportRepository,
-                         UserRepository userRepository) {
+                         UserRepository userRepository,
+                         PhotoStorage photoStorage) {
         this.reportRepository = reportRepository;
         this.userRepository = userRepository;
+        this.photoStorage = photoStorage;
     }
 
     /**
@@ -78,6 +92,24 @@ public class ReportService {
         return reportRepository.findAll();
     }
 
+    /**
+     * Страница кратких данных отчетов без фото по возрастанию или убыванию id, использует метод репозитория
+     * {@link ReportRepository#findSummaries(long, long, Long, Long, LocalDateTime, LocalDateTime, Pageable)}
+     *
+     * @param userId   идентификатор усыновителя (null - любой)
+     * @param animalId идентификатор животного (null - любое)
+     * @param from     начало интервала дат включительно (null - без ограничения)
+     * @param to       конец интервала дат не включительно (null - без ограничения)
+     * @param request  cursor, размер страницы и порядок сортировки
+     * @return страница отчетов
+     */
+    public KeysetPage<ReportSummary> findPage(Long userId, Long animalId, LocalDateTime from, LocalDateTime to,
+                                              KeysetRequest request) {
+        log.info("Finding reports page: {}, user {}, animal {}, from {} to {}", request, userId, animalId, from, to);
+        return request.page(reportRepository.findSummaries(request.afterId(), request.beforeId(),
+                userId, animalId, from, to, request.pageable()), ReportSummary::id);
+    }
+
     /**
      * Обновление отчета в БД используя метод репозитория {@link JpaRepository#save(Object)}}
      *
@@ -89,10 +121,9 @@ public class ReportService {
     public Report update(Report report, Long id) {
         log.info("Updating report: " + report);
 //        validate(report);
-        ModelMapper modelMapper = new ModelMapper();
         Report reportToUpdate = reportRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Report not found"));
         report.setId(id);
-        modelMapper.map(report, reportToUpdate);
+        EntityMapper.copy(report, reportToUpdate);
         return reportRepository.save(reportToUpdate);
     }
 
@@ -130,37 +161,63 @@ public class ReportService {
     }
 
     /**
-     * Поиск отчета пользователя по дате
+     * Сводка по отчетам для животных в заданном статусе, у которых есть усыновитель.
+     * Постраничная выборка по id животного: следующая страница запрашивается с id последнего животного
+     *
+     * @param state   статус животного
+     * @param afterId id животного, после которого начинается страница (0 - с начала)
+     * @param limit   размер страницы
+     * @return дата последнего отчета и количество отчетов по каждому животному, по возрастанию id животного
+     */
+    public List<AnimalReportStats> findReportStatsByAnimalState(Animal.AnimalStateEnum state, long afterId, int limit) {
+        log.info("Finding report stats by animal state: " + state + " after animal id: " + afterId);
+        return reportRepository.findReportStatsByAnimalState(state, afterId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Поиск отчета пользователя за день
      * Если отчет не найден, то возвращаем пустой отчет
      *
-     * @param userId
-     * @param dateTime
-     * @return
+     * @param userId   идентификатор пользователя
+     * @param dateTime любое время внутри дня
+     * @return отчет за день
      */
     public Report findFirstByUserIdAndDate(Long userId, LocalDateTime dateTime) {
-        //почему-то не выбирает данные из БД по дате, поэтому пока фильтруем здесь
-        LocalDateTime finalDateTime = dateTime.truncatedTo(ChronoUnit.DAYS);
-        return findAll().stream()
-                .filter(r -> r.getUser().getId() == userId &&
-                        r.getDate().toLocalDate().isEqual(finalDateTime.toLocalDate()))
-                .findFirst()
+        //В БД хранится время создания отчета, поэтому ищем по интервалу дня
+        LocalDateTime dayStart = dateTime.truncatedTo(ChronoUnit.DAYS);
+        return reportRepository.findFirstByUserIdAndDateGreaterThanEqualAndDateLessThanOrderByDateAsc(
+                        userId, dayStart, dayStart.plusDays(1))
                 .orElse(new Report());
     }
 
+    /**
+     * Сохранение фото отчета в хранилище,
+     * в отчет записывается только ссылка на фото (отчет в БД не сохраняется)
+     *
+     * @param report  отчет
+     * @param content содержимое фото
+     */
+    public void savePhoto(Report report, InputStream content) throws IOException {
+        log.info("Was invoked method to save photo of report {}", report.getId());
+        report.setPhotoHash(photoStorage.save(content));
+    }
+
     /**
      * Выгрузка фото животного
      *
      * @param id идентификатор животного
-     * @return данные
+     * @return фото, содержимое читается при выгрузке
      */
-    public byte[] photoDownload(Long id) {
+    public PhotoResource photoDownload(Long id) {
         log.info("Was invoked method to download photo from report {}", id);
         var report = reportRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Report not found"));
-        if (report.getPhoto() == null) {
+        if (report.getPhotoHash() == null) {
             throw new EntityNotFoundException("Report photo not found");
         }
-        return report.getPhoto();
+        return photoStorage.find(report.getPhotoHash())
+                .map(photo -> new PhotoResource(photoStorage, photo))
+                .orElseThrow(() -> new EntityNotFoundException("Report photo not found"));
     }
 
 //    /**
@@ -1,11 +1,19 @@
 package com.skypro.telegram_team.service;
 
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+import com.skypro.telegram_team.cache.KeyboardCache;
+import com.skypro.telegram_team.cache.ShelterInfoCache;
+import com.skypro.telegram_team.dto.KeysetPage;
+import com.skypro.telegram_team.dto.KeysetRequest;
+import com.skypro.telegram_team.dto.ShelterSummary;
+import com.skypro.telegram_team.keyboard.Callback;
 import com.skypro.telegram_team.model.Animal;
 import com.skypro.telegram_team.model.Shelter;
 import com.skypro.telegram_team.repository.AnimalRepository;
 import com.skypro.telegram_team.repository.ShelterRepository;
 import lombok.extern.log4j.Log4j2;
 import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,10 +32,15 @@ import java.util.Collection;
 public class ShelterService {
     private final ShelterRepository shelterRepository;
     private final AnimalRepository animalRepository;
+    private final ShelterInfoCache shelterInfoCache;
+    private final KeyboardCache keyboardCache;
 
-    public ShelterService(ShelterRepository shelterRepository, AnimalRepository animalRepository) {
+    public ShelterService(ShelterRepository shelterRepository, AnimalRepository animalRepository,
+                          ShelterInfoCache shelterInfoCache, KeyboardCache keyboardCache) {
         this.shelterRepository = shelterRepository;
         this.animalRepository = animalRepository;
+        this.shelterInfoCache = shelterInfoCache;
+        this.keyboardCache = keyboardCache;
     }
 
     /**
@@ -53,6 +66,50 @@ public class ShelterService {
         return shelterRepository.findAll();
     }
 
+    /**
+     * страница кратких данных приютов по возрастанию или убыванию id, использует метод репозитория
+     * {@link ShelterRepository#findSummaries(long, long, Animal.TypeAnimal, Pageable)}
+     *
+     * @param type    вид животных приюта (null - любой)
+     * @param request cursor, размер страницы и порядок сортировки
+     * @return страница приютов
+     */
+    public KeysetPage<ShelterSummary> findPage(Animal.TypeAnimal type, KeysetRequest request) {
+        log.info("Finding shelters page: {}, type {}", request, type);
+        return request.page(shelterRepository.findSummaries(request.afterId(), request.beforeId(),
+                type, request.pageable()), ShelterSummary::id);
+    }
+
+    /**
+     * информация приюта для ответа на команду inline keyboard без обращения к БД, использует {@link ShelterInfoCache}
+     *
+     * @param shelterId id приюта
+     * @param callback  команда INF_* или HOW_*
+     * @return текст или null, если у приюта он не заполнен
+     */
+    public String findInfo(Long shelterId, Callback callback) {
+        return shelterInfoCache.get(shelterId, callback, shelterRepository::findAll);
+    }
+
+    /**
+     * страница клавиатуры выбора приюта, использует {@link KeyboardCache}
+     *
+     * @param page номер страницы с 0
+     * @return кнопки приютов
+     */
+    public InlineKeyboardMarkup getSheltersKeyboard(int page) {
+        return keyboardCache.getShelters(page, shelterRepository::findAll);
+    }
+
+    /**
+     * сброс кэшей, построенных по приютам (информация приютов и клавиатура выбора приюта).
+     * Вызывается при любом изменении приютов
+     */
+    public void invalidateCaches() {
+        shelterInfoCache.invalidate();
+        keyboardCache.invalidateShelters();
+    }
+
     /**
      * Создает новый приют и сохраняет его в БД.
      *
@@ -64,6 +121,7 @@ public class ShelterService {
     public Shelter create(Shelter shelter, Animal.TypeAnimal typeAnimal) {
         log.info("Saving shelter: " + shelter.getName());
         shelter.setType(typeAnimal);
+        invalidateCaches();
         return shelterRepository.save(shelter);
     }
 
@@ -85,6 +143,7 @@ public class ShelterService {
                 .orElseThrow(() -> new EntityNotFoundException("Shelter not found"));
         //shelter.setId(id);
         //modelMapper.map(shelter, shelterToUpdate);
+        invalidateCaches();
         return shelterRepository.save(shelter);
     }
 
@@ -101,6 +160,7 @@ public class ShelterService {
         Shelter shelter = shelterRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Shelter not found"));
         shelterRepository.delete(shelter);
+        invalidateCaches();
         return shelter;
     }
 
@@ -1,12 +1,21 @@
 package com.skypro.telegram_team.service;
 
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+import com.skypro.telegram_team.cache.KeyboardCache;
+import com.skypro.telegram_team.cache.UserCache;
+import com.skypro.telegram_team.cache.VolunteerCache;
+import com.skypro.telegram_team.dto.KeysetPage;
+import com.skypro.telegram_team.dto.KeysetRequest;
+import com.skypro.telegram_team.dto.UserSummary;
 import com.skypro.telegram_team.exception.InvalidDataException;
+import com.skypro.telegram_team.mapper.EntityMapper;
 import com.skypro.telegram_team.model.Animal;
 import com.skypro.telegram_team.model.User;
 import com.skypro.telegram_team.repository.AnimalRepository;
 import com.skypro.telegram_team.repository.UserRepository;
+import com.skypro.telegram_team.validation.ContactValidator;
 import lombok.extern.log4j.Log4j2;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,8 +24,9 @@ import javax.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.regex.Pattern;
 
 /**
  * Сервис для работы с пользователями.
@@ -27,8 +37,14 @@ import java.util.regex.Pattern;
 @Log4j2
 @Service
 public class UserService {
+    //Ограничение количества id в одном запросе на изменение статусов
+    private static final int STATE_UPDATE_CHUNK = 1000;
     private final UserRepository userRepository;
     private final AnimalRepository animalRepository;
+    private final UserCache userCache;
+    private final VolunteerCache volunteerCache;
+    private final KeyboardCache keyboardCache;
+    private final AnimalService animalService;
 
 
     /**
@@ -36,10 +52,19 @@ public class UserService {
      *
      * @param userRepository   Репозиторий для работы с сущностью User.
      * @param animalRepository Репозиторий для работы с сущностью Animal.
+     * @param userCache        Кэш пользователей по telegramId.
+     * @param volunteerCache   Кэш списка волонтеров.
+     * @param keyboardCache    Кэш клавиатуры выбора волонтера.
+     * @param animalService    Сервис для работы с животными.
      */
-    public UserService(UserRepository userRepository, AnimalRepository animalRepository) {
+    public UserService(UserRepository userRepository, AnimalRepository animalRepository, UserCache userCache,
+                       VolunteerCache volunteerCache, KeyboardCache keyboardCache, AnimalService animalService) {
         this.userRepository = userRepository;
         this.animalRepository = animalRepository;
+        this.userCache = userCache;
+        this.volunteerCache = volunteerCache;
+        this.keyboardCache = keyboardCache;
+        this.animalService = animalService;
     }
 
     /**
@@ -52,6 +77,11 @@ public class UserService {
     @Transactional
     public User create(User user) {
         log.info("Saving user: " + user.getName() + " " + user.getSurname());
+        userCache.invalidate(user.getTelegramId());
+        if (user.isVolunteer()) {
+            volunteerCache.invalidate();
+            keyboardCache.invalidateVolunteers();
+        }
         validate(user);
         return userRepository.save(user);
     }
@@ -79,6 +109,11 @@ public class UserService {
     public User deleteById(Long id) {
         log.info("Deleting user by id: " + id);
         User user = userRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("User not found"));
+        userCache.invalidate(user.getTelegramId());
+        if (user.isVolunteer()) {
+            volunteerCache.invalidate();
+            keyboardCache.invalidateVolunteers();
+        }
         userRepository.delete(user);
         return user;
     }
@@ -93,6 +128,23 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    /**
+     * Страница кратких данных пользователей по возрастанию или убыванию id, использует метод репозитория
+     * {@link UserRepository#findSummaries(long, long, User.OwnerStateEnum, Long, Boolean, Pageable)}
+     *
+     * @param state     статус пользователя (null - любой)
+     * @param shelterId идентификатор выбранного приюта (null - любой)
+     * @param volunteer только волонтеры или только не волонтеры (null - все)
+     * @param request   cursor, размер страницы и порядок сортировки
+     * @return страница пользователей
+     */
+    public KeysetPage<UserSummary> findPage(User.OwnerStateEnum state, Long shelterId, Boolean volunteer,
+                                            KeysetRequest request) {
+        log.info("Finding users page: {}, state {}, shelter {}, volunteer {}", request, state, shelterId, volunteer);
+        return request.page(userRepository.findSummaries(request.afterId(), request.beforeId(),
+                state, shelterId, volunteer, request.pageable()), UserSummary::id);
+    }
+
     /**
      * Обновляет данные пользователя в БД по заданному идентификатору, используя
      * метод репозитория {@link JpaRepository#save(Object)}
@@ -102,17 +154,25 @@ public class UserService {
      * @return объект пользователя после обновления данных
      * @throws EntityNotFoundException  если пользователь с заданным идентификатором не найден в БД
      * @throws IllegalArgumentException если объект пользователя не проходит валидацию
-     * @see ModelMapper
+     * @see EntityMapper
      */
     @Transactional
     public User update(User user, Long id) {
         log.info("Updating myUser: " + user);
+        //telegramId мог измениться, сбрасываются записи кэша по новому и старому telegramId
+        userCache.invalidate(user.getTelegramId());
         validate(user);
-        ModelMapper modelMapper = new ModelMapper();
         User userToUpdate = userRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        userCache.invalidate(userToUpdate.getTelegramId());
+        if (userToUpdate.isVolunteer() || user.isVolunteer()) {
+            volunteerCache.invalidate();
+        }
+        if (isVolunteersKeyboardChanged(userToUpdate, user)) {
+            keyboardCache.invalidateVolunteers();
+        }
         user.setId(id);
-        modelMapper.map(user, userToUpdate);
+        EntityMapper.copy(user, userToUpdate);
         return userRepository.save(userToUpdate);
     }
 
@@ -129,9 +189,26 @@ public class UserService {
         log.info("User is volunteer: " + isVolunteer);
         User user = userRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("User not found"));
         user.setVolunteer(isVolunteer);
+        //Пользователь из БД уже изменен, update не увидит разницы
+        volunteerCache.invalidate();
+        keyboardCache.invalidateVolunteers();
         return update(user, id);
     }
 
+    /**
+     * Изменились ли данные клавиатуры волонтеров: признак волонтера, имя или telegramId волонтера
+     *
+     * @param before пользователь в БД
+     * @param after  новые данные пользователя
+     */
+    private static boolean isVolunteersKeyboardChanged(User before, User after) {
+        if (before.isVolunteer() != after.isVolunteer()) {
+            return true;
+        }
+        return after.isVolunteer() && (!Objects.equals(before.getName(), after.getName())
+                || !Objects.equals(before.getTelegramId(), after.getTelegramId()));
+    }
+
     /**
      * Возвращает список пользователей из БД, чей статус соответствует переданному значению
      *
@@ -144,12 +221,24 @@ public class UserService {
     }
 
     /**
-     * Поиск волонтеров
+     * Поиск волонтеров.
+     * Список кэшируется и сбрасывается при изменении волонтеров или признака волонтера, см. {@link VolunteerCache}.
      *
-     * @return список волонтеров
+     * @return неизменяемый список волонтеров
      */
     public Collection<User> findVolunteers() {
-        return userRepository.findByVolunteerTrue();
+        return volunteerCache.get(userRepository::findByVolunteerTrue);
+    }
+
+    /**
+     * Страница клавиатуры выбора волонтера.
+     * Клавиатура строится по {@link #findVolunteers()} и кэшируется, см. {@link KeyboardCache}.
+     *
+     * @param page номер страницы с 0
+     * @return кнопки волонтеров
+     */
+    public InlineKeyboardMarkup getVolunteersKeyboard(int page) {
+        return keyboardCache.getVolunteers(page, this::findVolunteers);
     }
 
     /**
@@ -166,14 +255,20 @@ public class UserService {
 
     /**
      * Находит пользователя по заданному идентификатору Telegram.
+     * Найденный пользователь кэшируется, см. {@link UserCache}. Возвращается копия из кэша,
+     * поэтому ее можно изменять до {@link #update(User, Long)}: другие потоки изменений не видят.
      *
      * @param telegramId идентификатор Telegram, по которому нужно найти пользователя.
      * @return объект типа User, соответствующий заданному идентификатору Telegram,
      * или пустой объект User, если пользователь не найден.
      */
     public User findByTelegramId(Long telegramId) {
-        return userRepository.findByTelegramId(telegramId).stream()
-                .findFirst()
+        return userCache.get(telegramId, key -> userRepository.findByTelegramId(key).stream().findFirst())
+                .map(cached -> {
+                    User user = new User();
+                    EntityMapper.copy(cached, user);
+                    return user;
+                })
                 .orElse(new User());
     }
 
@@ -185,45 +280,21 @@ public class UserService {
      * @throws InvalidDataException если данные пользователя некорректны.
      */
     private void validate(User user) {
-        log.info("Валидация пользователя: " + user);
+        log.info("Валидация пользователя: {}", user);
         if (user.getName() == null) {
             throw new InvalidDataException("Отсутствует имя пользователя");
         }
         if (user.getTelegramId() == 0L) {
             throw new InvalidDataException("Отсутствует telegramId");
         }
-        if (user.getPhone() != null && !isPhoneValid(user.getPhone())) {
+        if (user.getPhone() != null && !ContactValidator.isPhoneValid(user.getPhone())) {
             throw new InvalidDataException("Некорректный телефон");
         }
-        if (user.getEmail() != null && !isEmailValid(user.getEmail())) {
+        if (user.getEmail() != null && !ContactValidator.isEmailValid(user.getEmail())) {
             throw new InvalidDataException("Некорректная почта");
         }
     }
 
-    /**
-     * Проверяет, соответствует ли заданный номер телефона российскому формату.
-     *
-     * @param phone номер телефона, который нужно проверить.
-     * @return true, если номер телефона соответствует российскому формату, и false в противном случае.
-     */
-    private boolean isPhoneValid(String phone) {
-        log.info("Валидация номера телефона: {}", phone);
-        final String regexPattern = "^((\\+7|7|8)+([0-9]){10})$";
-        return Pattern.compile(regexPattern).matcher(phone).matches();
-    }
-
-    /**
-     * Проверяет, соответствует ли заданный email адрес заданному шаблону.
-     *
-     * @param email email адрес, который нужно проверить.
-     * @return true, если email адрес соответствует шаблону, и false в противном случае.
-     */
-    private boolean isEmailValid(String email) {
-        log.info("Валидация email: {}", email);
-        final String regexPattern = "^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$";
-        return Pattern.compile(regexPattern).matcher(email).matches();
-    }
-
     /**
      * Метод, который связывает животное с пользователем по их идентификаторам, устанавливает статус
      * {@link User.OwnerStateEnum#PROBATION} и конец испытательного срока {@link User#setEndTest} у пользователя
@@ -246,11 +317,45 @@ public class UserService {
         user.setState(User.OwnerStateEnum.PROBATION);
         user.setEndTest(LocalDateTime.now().plusMonths(1));
         update(user, userId);
-        AnimalService animalService = new AnimalService(animalRepository);
         animalService.update(animal, animalId);
 
     }
 
+    /**
+     * Пакетно изменяет статусы животных и пользователей в одной транзакции:
+     * вместо загрузки и сохранения каждой сущности выполняется один UPDATE на статус
+     * (для больших списков - на каждую 1000 id).
+     * Животные изменяются раньше пользователей. Валидация пользователей не выполняется.
+     *
+     * @param userIdsByState   новый статус пользователей -> идентификаторы пользователей
+     * @param animalIdsByState новый статус животных -> идентификаторы животных
+     * @return количество измененных строк
+     */
+    @Transactional
+    public int changeStates(Map<User.OwnerStateEnum, List<Long>> userIdsByState,
+                            Map<Animal.AnimalStateEnum, List<Long>> animalIdsByState) {
+        int updated = 0;
+        for (Map.Entry<Animal.AnimalStateEnum, List<Long>> entry : animalIdsByState.entrySet()) {
+            List<Long> ids = entry.getValue();
+            for (int from = 0; from < ids.size(); from += STATE_UPDATE_CHUNK) {
+                List<Long> chunk = ids.subList(from, Math.min(from + STATE_UPDATE_CHUNK, ids.size()));
+                updated += animalRepository.updateStateByIdIn(chunk, entry.getKey());
+            }
+        }
+        for (Map.Entry<User.OwnerStateEnum, List<Long>> entry : userIdsByState.entrySet()) {
+            List<Long> ids = entry.getValue();
+            for (int from = 0; from < ids.size(); from += STATE_UPDATE_CHUNK) {
+                List<Long> chunk = ids.subList(from, Math.min(from + STATE_UPDATE_CHUNK, ids.size()));
+                updated += userRepository.updateStateByIdIn(chunk, entry.getKey());
+            }
+        }
+        if (!userIdsByState.isEmpty()) {
+            userCache.invalidateAll();
+        }
+        log.info("Changed states of {} users and animals", updated);
+        return updated;
+    }
+
     /**
      * Обновляет статус пользователя по его идентификатору и проверяет, что в случае если его статус
      * меняется на User.OwnerStateEnum.PROBATION, что установлено количество дней для теста
@@ -0,0 +1,84 @@
+package com.skypro.telegram_team.storage;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Optional;
+
+/**
+ * Хранение фото в каталоге telegram.bot.photos.dir (telegram.bot.photos.storage=file).
+ * <p>
+ * Файл фото называется его хешем и лежит в подкаталоге из первых двух символов хеша.
+ * Содержимое пишется во временный файл с одновременным вычислением хеша, затем файл переносится на место,
+ * поэтому фото не загружается в память целиком ни при сохранении, ни при выгрузке.
+ */
+@Log4j2
+@Component
+@ConditionalOnProperty(name = "telegram.bot.photos.storage", havingValue = "file")
+public class FilePhotoStorage implements PhotoStorage {
+    private final Path root;
+
+    public FilePhotoStorage(@Value("${telegram.bot.photos.dir:photos}") Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public String save(InputStream content) throws IOException {
+        Files.createDirectories(root);
+        Path temp = Files.createTempFile(root, "upload", ".tmp");
+        try {
+            MessageDigest digest = PhotoHashes.newDigest();
+            long size = Files.copy(new DigestInputStream(content, digest), temp, StandardCopyOption.REPLACE_EXISTING);
+            String hash = PhotoHashes.toHex(digest);
+            Path target = resolve(hash);
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                //Такое фото уже сохранено
+                log.debug("Photo {} already exists", hash);
+            }
+            log.info("Photo {} saved, {} bytes", hash, size);
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Optional<StoredPhoto> find(String hash) {
+        if (!PhotoHashes.isValid(hash)) {
+            return Optional.empty();
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(resolve(hash), BasicFileAttributes.class);
+            return Optional.of(new StoredPhoto(hash, attributes.size(), attributes.lastModifiedTime().toInstant()));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public InputStream open(String hash) throws IOException {
+        if (!PhotoHashes.isValid(hash) || !Files.exists(resolve(hash))) {
+            throw new EntityNotFoundException("Photo not found");
+        }
+        return Files.newInputStream(resolve(hash));
+    }
+
+    private Path resolve(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+}
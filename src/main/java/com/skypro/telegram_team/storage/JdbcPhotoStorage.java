@@ -0,0 +1,164 @@
+package com.skypro.telegram_team.storage;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Хранение фото в таблице photos (telegram.bot.photos.storage=db).
+ * <p>
+ * Содержимое читается только при выгрузке фото, запросы к отчетам и животным его не загружают.
+ * При сохранении содержимое передается драйверу потоком под временным ключом с одновременным вычислением хеша,
+ * затем ключ заменяется хешем. Выгружается содержимое частями по {@value #CHUNK_SIZE} байт,
+ * поэтому фото не загружается в память целиком ни при сохранении, ни при выгрузке, в том числе частями (Range).
+ */
+@Log4j2
+@Component
+@ConditionalOnProperty(name = "telegram.bot.photos.storage", havingValue = "db", matchIfMissing = true)
+public class JdbcPhotoStorage implements PhotoStorage {
+    static final int CHUNK_SIZE = 256 * 1024;
+    private static final String TEMP_PREFIX = "upload-";
+    private static final String INSERT_SQL = "INSERT INTO photos (hash, content, size, created_at) VALUES (?, ?, 0, ?)";
+    //Если такое фото уже сохранено, временная строка не переименовывается и удаляется
+    private static final String RENAME_SQL = """
+            UPDATE photos SET hash = ?, size = octet_length(content)
+            WHERE hash = ? AND NOT EXISTS (SELECT 1 FROM photos WHERE hash = ?)""";
+    private static final String DELETE_SQL = "DELETE FROM photos WHERE hash = ?";
+    private static final String SELECT_INFO_SQL = "SELECT hash, size, created_at FROM photos WHERE hash = ?";
+    private static final String SELECT_SIZE_SQL = "SELECT size FROM photos WHERE hash = ?";
+    private static final String SELECT_CHUNK_SQL = "SELECT substring(content FROM ? FOR ?) FROM photos WHERE hash = ?";
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcPhotoStorage(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public String save(InputStream content) throws IOException {
+        String tempKey = TEMP_PREFIX + UUID.randomUUID();
+        MessageDigest digest = PhotoHashes.newDigest();
+        jdbcTemplate.update(INSERT_SQL, ps -> {
+            ps.setString(1, tempKey);
+            //Без длины, драйвер сам читает поток до конца
+            ps.setBinaryStream(2, new DigestInputStream(content, digest));
+            ps.setTimestamp(3, Timestamp.from(Instant.now()));
+        });
+        String hash = PhotoHashes.toHex(digest);
+        if (jdbcTemplate.update(RENAME_SQL, hash, tempKey, hash) == 0) {
+            jdbcTemplate.update(DELETE_SQL, tempKey);
+            log.debug("Photo {} already exists", hash);
+        }
+        log.info("Photo {} saved", hash);
+        return hash;
+    }
+
+    @Override
+    public Optional<StoredPhoto> find(String hash) {
+        return jdbcTemplate.query(SELECT_INFO_SQL, (rs, rowNum) -> new StoredPhoto(
+                        rs.getString("hash"),
+                        rs.getLong("size"),
+                        rs.getTimestamp("created_at").toInstant()), hash)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public InputStream open(String hash) {
+        long size = jdbcTemplate.query(SELECT_SIZE_SQL, (rs, rowNum) -> rs.getLong("size"), hash)
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("Photo not found"));
+        return new ContentInputStream(hash, size);
+    }
+
+    /**
+     * Содержимое фото, читается из БД частями по мере чтения потока. Пропуск байт (skip) не читает содержимое
+     */
+    private class ContentInputStream extends InputStream {
+        private final String hash;
+        private final long size;
+        private byte[] chunk = new byte[0];
+        private int chunkPosition;
+        //Позиция в содержимом начала следующей части
+        private long nextChunkStart;
+
+        private ContentInputStream(String hash, long size) {
+            this.hash = hash;
+            this.size = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureChunk()) {
+                return -1;
+            }
+            return chunk[chunkPosition++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0) {
+                return 0;
+            }
+            if (!ensureChunk()) {
+                return -1;
+            }
+            int count = Math.min(len, chunk.length - chunkPosition);
+            System.arraycopy(chunk, chunkPosition, b, off, count);
+            chunkPosition += count;
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            if (n <= 0) {
+                return 0;
+            }
+            long skipped = Math.min(n, available() + size - nextChunkStart);
+            int inChunk = (int) Math.min(skipped, chunk.length - chunkPosition);
+            chunkPosition += inChunk;
+            nextChunkStart += skipped - inChunk;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return chunk.length - chunkPosition;
+        }
+
+        private boolean ensureChunk() throws IOException {
+            if (chunkPosition < chunk.length) {
+                return true;
+            }
+            if (nextChunkStart >= size) {
+                return false;
+            }
+            //substring в SQL считает позиции с 1
+            chunk = jdbcTemplate.query(SELECT_CHUNK_SQL, (rs, rowNum) -> rs.getBytes(1),
+                            nextChunkStart + 1, CHUNK_SIZE, hash)
+                    .stream()
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .orElseThrow(() -> new IOException("Photo " + hash + " was deleted while reading"));
+            chunkPosition = 0;
+            if (chunk.length == 0) {
+                throw new IOException("Photo " + hash + " is shorter than " + size + " bytes");
+            }
+            nextChunkStart += chunk.length;
+            return true;
+        }
+    }
+}
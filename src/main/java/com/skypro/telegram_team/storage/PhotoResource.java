@@ -0,0 +1,56 @@
+package com.skypro.telegram_team.storage;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Фото из {@link PhotoStorage} в виде ресурса для выгрузки.
+ * <p>
+ * Размер и время изменения известны без чтения содержимого,
+ * содержимое открывается при каждом обращении, поэтому ресурс можно выгружать частями (Range).
+ */
+public class PhotoResource extends AbstractResource {
+    private final PhotoStorage photoStorage;
+    private final StoredPhoto photo;
+
+    public PhotoResource(PhotoStorage photoStorage, StoredPhoto photo) {
+        this.photoStorage = photoStorage;
+        this.photo = photo;
+    }
+
+    public String getHash() {
+        return photo.hash();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return photoStorage.open(photo.hash());
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public long contentLength() {
+        return photo.size();
+    }
+
+    @Override
+    public long lastModified() {
+        return photo.createdAt().toEpochMilli();
+    }
+
+    @Override
+    public String getFilename() {
+        return photo.hash() + ".jpg";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Photo [" + photo.hash() + "]";
+    }
+}
@@ -0,0 +1,39 @@
+package com.skypro.telegram_team.storage;
+
+import javax.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Хранилище фото, адресуемое по содержимому.
+ * <p>
+ * Фото хранится один раз под своим sha-256 хешем, сущности хранят только хеш.
+ * Реализация выбирается настройкой telegram.bot.photos.storage (db или file).
+ */
+public interface PhotoStorage {
+    /**
+     * Сохранить фото
+     *
+     * @param content содержимое, поток читается до конца, но не закрывается
+     * @return sha-256 хеш содержимого (hex)
+     */
+    String save(InputStream content) throws IOException;
+
+    /**
+     * Сведения о фото без загрузки содержимого
+     *
+     * @param hash хеш фото
+     * @return сведения или пустой Optional, если фото нет
+     */
+    Optional<StoredPhoto> find(String hash);
+
+    /**
+     * Открыть содержимое фото, поток закрывает вызывающий
+     *
+     * @param hash хеш фото
+     * @return содержимое
+     * @throws EntityNotFoundException если фото нет
+     */
+    InputStream open(String hash) throws IOException;
+}
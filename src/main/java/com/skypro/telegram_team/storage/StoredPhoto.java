@@ -0,0 +1,13 @@
+package com.skypro.telegram_team.storage;
+
+import java.time.Instant;
+
+/**
+ * Сведения о сохраненном фото
+ *
+ * @param hash      sha-256 хеш содержимого (hex)
+ * @param size      размер в байтах
+ * @param createdAt время сохранения
+ */
+public record StoredPhoto(String hash, long size, Instant createdAt) {
+}
@@ -0,0 +1,160 @@
+package com.skypro.telegram_team.timer;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.IntSupplier;
+
+/**
+ * Запуск задач по расписанию на одном экземпляре бота.
+ * <p>
+ * Перед запуском задача захватывает блокировку в таблице scheduler_lock на время telegram.bot.scheduler.lease.
+ * Если блокировка уже захвачена другим экземпляром и срок ее не истек, задача пропускается.
+ * После выполнения блокировка удерживается еще не меньше telegram.bot.scheduler.lock-at-least,
+ * чтобы экземпляр с немного отстающими часами не выполнил тот же запуск повторно.
+ * Каждый запуск записывается в таблицу job_run (длительность, количество измененных строк, ошибка).
+ * Задача может сохранять свой прогресс (checkpoint), чтобы прерванный запуск был продолжен.
+ */
+@Log4j2
+@Component
+public class JobRunner {
+    private static final String UPDATE_LOCK_SQL = """
+            UPDATE scheduler_lock SET locked_until = ?, locked_at = ?, locked_by = ?
+            WHERE name = ? AND locked_until <= ?""";
+    private static final String INSERT_LOCK_SQL = """
+            INSERT INTO scheduler_lock (name, locked_until, locked_at, locked_by) VALUES (?, ?, ?, ?)""";
+    private static final String UNLOCK_SQL = """
+            UPDATE scheduler_lock SET locked_until = ? WHERE name = ? AND locked_by = ?""";
+    private static final String SELECT_CHECKPOINT_SQL = "SELECT checkpoint FROM scheduler_lock WHERE name = ?";
+    private static final String SAVE_CHECKPOINT_SQL = """
+            UPDATE scheduler_lock SET checkpoint = ?, locked_until = ? WHERE name = ? AND locked_by = ?""";
+    private static final String INSERT_RUN_SQL = """
+            INSERT INTO job_run (name, node, started_at, duration_ms, affected_rows, status, error)
+            VALUES (?, ?, ?, ?, ?, ?, ?)""";
+    //Ограничение длины сообщения об ошибке в истории запусков
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration lease;
+    private final Duration lockAtLeast;
+    private final String node;
+
+    public JobRunner(JdbcTemplate jdbcTemplate,
+                     @Value("${telegram.bot.scheduler.lease:10m}") Duration lease,
+                     @Value("${telegram.bot.scheduler.lock-at-least:30s}") Duration lockAtLeast,
+                     @Value("${telegram.bot.scheduler.node:}") String node) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lease = lease;
+        this.lockAtLeast = lockAtLeast;
+        //По умолчанию pid@host
+        this.node = node.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : node;
+    }
+
+    /**
+     * Выполнить задачу, если удалось захватить ее блокировку
+     *
+     * @param name имя задачи (имя блокировки)
+     * @param job  задача, возвращает количество измененных строк
+     * @return true, если задача выполнялась на этом экземпляре
+     */
+    public boolean run(String name, IntSupplier job) {
+        Instant startedAt = Instant.now();
+        if (!tryLock(name, startedAt)) {
+            log.debug("Job {} skipped, locked by another node", name);
+            return false;
+        }
+        Integer affectedRows = null;
+        String status = "SUCCESS";
+        String error = null;
+        try {
+            affectedRows = job.getAsInt();
+        } catch (RuntimeException e) {
+            log.error("Job {} failed", name, e);
+            status = "FAILED";
+            error = String.valueOf(e.getMessage());
+            error = error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH));
+        } finally {
+            unlock(name, startedAt);
+        }
+        long durationMs = Duration.between(startedAt, Instant.now()).toMillis();
+        log.info("Job {} finished on {}: {}, {} ms, {} rows", name, node, status, durationMs, affectedRows);
+        saveRun(name, startedAt, durationMs, affectedRows, status, error);
+        return true;
+    }
+
+    /**
+     * Прогресс незавершенного запуска задачи
+     *
+     * @param name имя задачи
+     * @return сохраненный прогресс или пустой Optional, если прогресса нет
+     */
+    public Optional<String> findCheckpoint(String name) {
+        return jdbcTemplate.query(SELECT_CHECKPOINT_SQL, (rs, rowNum) -> rs.getString("checkpoint"), name)
+                .stream()
+                .filter(Objects::nonNull)
+                .findFirst();
+    }
+
+    /**
+     * Сохранить прогресс задачи и продлить блокировку еще на lease.
+     * Вызывается из выполняемой задачи, пока блокировка у этого экземпляра
+     *
+     * @param name       имя задачи
+     * @param checkpoint прогресс, null - запуск завершен
+     * @return false, если блокировка потеряна (lease истек и задачу захватил другой экземпляр),
+     * задача в этом случае должна прекратить выполнение
+     */
+    public boolean saveCheckpoint(String name, String checkpoint) {
+        return jdbcTemplate.update(SAVE_CHECKPOINT_SQL, checkpoint, Timestamp.from(Instant.now().plus(lease)),
+                name, node) > 0;
+    }
+
+    private boolean tryLock(String name, Instant now) {
+        Timestamp lockedAt = Timestamp.from(now);
+        Timestamp lockedUntil = Timestamp.from(now.plus(lease));
+        try {
+            if (jdbcTemplate.update(UPDATE_LOCK_SQL, lockedUntil, lockedAt, node, name, lockedAt) > 0) {
+                return true;
+            }
+            //Блокировки еще нет - первый запуск задачи
+            jdbcTemplate.update(INSERT_LOCK_SQL, name, lockedUntil, lockedAt, node);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        } catch (DataAccessException e) {
+            log.error("Job {} lock failed", name, e);
+            return false;
+        }
+    }
+
+    private void unlock(String name, Instant lockedAt) {
+        Instant now = Instant.now();
+        Instant minUntil = lockedAt.plus(lockAtLeast);
+        Instant lockedUntil = now.isAfter(minUntil) ? now : minUntil;
+        try {
+            jdbcTemplate.update(UNLOCK_SQL, Timestamp.from(lockedUntil), name, node);
+        } catch (DataAccessException e) {
+            //Блокировка освободится по истечении lease
+            log.error("Job {} unlock failed", name, e);
+        }
+    }
+
+    private void saveRun(String name, Instant startedAt, long durationMs, Integer affectedRows,
+                         String status, String error) {
+        try {
+            jdbcTemplate.update(INSERT_RUN_SQL, name, node, Timestamp.from(startedAt), durationMs,
+                    affectedRows, status, error);
+        } catch (DataAccessException e) {
+            log.error("Job {} run history not saved", name, e);
+        }
+    }
+}
@@ -1,16 +1,16 @@
 package com.skypro.telegram_team.timer;
 
-import com.pengrad.telegrambot.TelegramBot;
 import com.pengrad.telegrambot.model.request.ParseMode;
 import com.pengrad.telegrambot.request.SendMessage;
 import com.skypro.telegram_team.model.Animal;
-import com.skypro.telegram_team.model.Report;
 import com.skypro.telegram_team.model.User;
+import com.skypro.telegram_team.repository.AnimalReportStats;
+import com.skypro.telegram_team.sender.BotMessageSender;
 import com.skypro.telegram_team.service.AnimalService;
 import com.skypro.telegram_team.service.ReportService;
 import com.skypro.telegram_team.service.UserService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -18,17 +18,71 @@ import org.springframework.stereotype.Component;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Log4j2
 @Component
-@RequiredArgsConstructor
 @EnableScheduling
 public class Timer {
-    private final TelegramBot telegramBot;
+    static final String REPORT_REMINDERS_JOB = "checkingDailyAndTwoDaysReportFromUsers";
+    //Продолжительность испытательного срока в днях
+    private static final int TEST_DAYS = 30;
+    private final BotMessageSender messageSender;
     private final AnimalService animalService;
     private final ReportService reportService;
     private final UserService userService;
+    private final JobRunner jobRunner;
+    private final VolunteerDigestStore digestStore;
+    private final int chunkSize;
+    private final Duration resumeWithin;
+    private final Duration sendSpread;
+
+    public Timer(BotMessageSender messageSender, AnimalService animalService, ReportService reportService,
+                 UserService userService, JobRunner jobRunner, VolunteerDigestStore digestStore,
+                 @Value("${telegram.bot.reports.reminder.chunk-size:500}") int chunkSize,
+                 @Value("${telegram.bot.reports.reminder.resume-within:4h}") Duration resumeWithin,
+                 @Value("${telegram.bot.reports.reminder.send-spread:0s}") Duration sendSpread) {
+        this.messageSender = messageSender;
+        this.animalService = animalService;
+        this.reportService = reportService;
+        this.userService = userService;
+        this.jobRunner = jobRunner;
+        this.digestStore = digestStore;
+        this.chunkSize = chunkSize;
+        this.resumeWithin = resumeWithin;
+        this.sendSpread = sendSpread;
+    }
+
+    /**
+     * Запуск {@link #checkAndChangeUsersStatus()} на одном экземпляре бота (см. {@link JobRunner})
+     */
+    //@Scheduled(cron = "0 32 13 * * *")// demo
+    @Scheduled(cron = "0 0 9-18/3 * * *")
+    void runCheckAndChangeUsersStatus() {
+        jobRunner.run("checkAndChangeUsersStatus", this::checkAndChangeUsersStatus);
+    }
+
+    /**
+     * Запуск {@link #checkingDailyAndTwoDaysReportFromUsers()} на одном экземпляре бота (см. {@link JobRunner})
+     */
+    //@Scheduled(cron = "0 02 06 * * *")// demo
+    @Scheduled(cron = "0 0 8-21/4 * * *")
+    void runCheckingDailyAndTwoDaysReportFromUsers() {
+        jobRunner.run(REPORT_REMINDERS_JOB, this::checkingDailyAndTwoDaysReportFromUsers);
+    }
+
+    /**
+     * Запуск {@link #resumeReportReminders()}, если есть прогресс прерванной проверки отчетов
+     */
+    @Scheduled(cron = "${telegram.bot.reports.reminder.resume-cron:0 */10 * * * *}")
+    void runResumeReportReminders() {
+        if (jobRunner.findCheckpoint(REPORT_REMINDERS_JOB).isPresent()) {
+            jobRunner.run(REPORT_REMINDERS_JOB, this::resumeReportReminders);
+        }
+    }
 
     /**
      * Проверка и изменение статуса пользователей. У пользователей есть следующие состояния:
@@ -41,10 +95,13 @@ public class Timer {
      * PROLONGED - испытательный срок продлен и отправлено сообщение усыновителю о сроке продления.
      * PROBATION - испытательный срок 30 дней, устанавливается автоматически при связывании животного с пользователем,
      * а так же при продлении испытательного срока на срок указанный волонтером.
+     * <p>
+     * Новые статусы записываются в БД пакетно, одной транзакцией (см. {@link UserService#changeStates}).
+     * Волонтеры получают одну сводку по всем изменениям (см. {@link VolunteerDigest}).
+     *
+     * @return количество измененных строк
      */
-    //@Scheduled(cron = "0 32 13 * * *")// demo
-    @Scheduled(cron = "0 0 9-18/3 * * *")
-    void checkAndChangeUsersStatus() {
+    int checkAndChangeUsersStatus() {
         List<User> acceptedUsers = changeStateAcceptedToAdoptedAndCollect();
         List<Animal> acceptedAnimals = changeStateAcceptedToHappyEndAndCollect();
 
@@ -65,8 +122,24 @@ public class Timer {
         saveChangesOfAnimals.addAll(acceptedAnimals);
         saveChangesOfAnimals.addAll(backInShelterAnimals); // объединяем все в один массив
 
-        saveChangesOfUsers.forEach(user -> userService.update(user, user.getId())); // обновляем изменения в БД
-        saveChangesOfAnimals.forEach(animal -> animalService.update(animal, animal.getId()));
+        int affectedRows = userService.changeStates( // обновляем изменения в БД
+                saveChangesOfUsers.stream().collect(Collectors.groupingBy(User::getState,
+                        Collectors.mapping(User::getId, Collectors.toList()))),
+                saveChangesOfAnimals.stream().collect(Collectors.groupingBy(Animal::getState,
+                        Collectors.mapping(Animal::getId, Collectors.toList()))));
+
+        VolunteerDigest digest = new VolunteerDigest();
+        acceptedUsers.forEach(user -> digest.add(VolunteerDigest.Topic.ADOPTED,
+                user.getId(), user.getName(), user.getSurname(), null));
+        refusedUsers.forEach(user -> digest.add(VolunteerDigest.Topic.BLACKLIST,
+                user.getId(), user.getName(), user.getSurname(), null));
+        prolongedUsers.forEach(user -> digest.add(VolunteerDigest.Topic.PROLONGED,
+                user.getId(), user.getName(), user.getSurname(),
+                String.format("на %s дней", Duration.between(user.getEndTest(), LocalDateTime.now()).toDays())));
+        decisionAboutUsers.forEach(user -> digest.add(VolunteerDigest.Topic.DECISION,
+                user.getId(), user.getName(), user.getSurname(), null));
+        sendDigest(digest); // одна сводка каждому волонтеру вместо сообщения по каждому пользователю
+        return affectedRows;
     }
 
     List<User> changeStateAcceptedToAdoptedAndCollect() {
@@ -78,10 +151,6 @@ public class Timer {
             sendMessage(user.getTelegramId(),
                     String.format("Уважаемый %s %s Поздравляем, вы прошли пробный период!",
                             user.getName(), user.getSurname()));
-            userService.findVolunteers().forEach(volunteer -> sendMessage(volunteer.getTelegramId(),
-                    String.format("Одобрение на усыновление подтверждено у %s %s.",
-                            user.getName(), user.getSurname())));
-
         });
         return sortUsersWithStateAccepted;
     }
@@ -97,9 +166,6 @@ public class Timer {
                     sendMessage(user.getTelegramId(),
                             String.format("Уважаемый %s %s Вы НЕ прошли пробный период! " +
                                     "Пожалуйста сдайте собаку в приют!", user.getName(), user.getSurname()));
-                    userService.findVolunteers().forEach(volunteer -> sendMessage(volunteer.getTelegramId(),
-                            String.format("Отказ подтвержден у %s %s.",
-                                    user.getName(), user.getSurname())));
                 });
         return sortUsersWithStateRefused;
     }
@@ -116,10 +182,6 @@ public class Timer {
                             "Уважаемый %s %s, мы решили продлить пробный период на %s дней!",
                             user.getName(), user.getSurname(),
                             Duration.between(user.getEndTest(), LocalDateTime.now()).toDays()));
-                    userService.findVolunteers().forEach(volunteer -> sendMessage(volunteer.getTelegramId(),
-                            String.format("Подтверждено продление у %s %s на %s дней!",
-                                    user.getName(), user.getSurname(),
-                                    Duration.between(user.getEndTest(), LocalDateTime.now()).toDays())));
                 });
         return prolongedUsers;
     }
@@ -139,10 +201,6 @@ public class Timer {
                             "Уважаемый %s %s, у Вас закончился испытательный срок," +
                                     " пожалуйста дождитесь принятия решения волонтером о вашем животном!",
                             user.getName(), user.getSurname()));
-
-                    userService.findVolunteers().forEach(volunteer -> sendMessage(volunteer.getTelegramId(),
-                            String.format("Принять решение об усыновлении" +
-                                    " животного у %s %s.", user.getName(), user.getSurname())));
                 });
         return decisionAboutUsers;
     }
@@ -157,58 +215,194 @@ public class Timer {
                 peek(animal -> animal.setState(Animal.AnimalStateEnum.HAPPY_END)).toList();
     }
 
-    //@Scheduled(cron = "0 02 06 * * *")// demo
-    @Scheduled(cron = "0 0 8-21/4 * * *")
-    void checkingDailyAndTwoDaysReportFromUsers() {
+    /**
+     * Напоминания об отчетах усыновителям животных на испытательном сроке.
+     * Дата последнего отчета и количество отчетов выбираются постранично по id животного
+     * (см. {@link ReportService#findReportStatsByAnimalState}), после каждой страницы сохраняется прогресс.
+     * Напоминания только ставятся в очередь {@link BotMessageSender}, поэтому страницы обрабатываются
+     * в потоке задачи по очереди.
+     * Прогресс сохраняется в блокировке задачи, прерванный запуск продолжается {@link #resumeReportReminders()}.
+     *
+     * @return количество отправленных напоминаний
+     */
+    int checkingDailyAndTwoDaysReportFromUsers() {
         log.info("Проверяем отчеты за день и за два дня от пользователей");
+        return processReportReminders(new ReminderCheckpoint(LocalDateTime.now(), 0L));
+    }
 
-        LocalDateTime twoDaysAgo = LocalDateTime.now().minusDays(2).withHour(0);
-        LocalDateTime yesterdayAt0AM = LocalDateTime.now().minusDays(1).withHour(0);
-
-        List<Animal> animals = animalService.findAllByUserIdNotNullAndState(Animal.AnimalStateEnum.IN_TEST);
-        List<User> usersWithoutReportForTwoDays = new ArrayList<>();
-        List<User> usersWithoutDailyReport = new ArrayList<>();
+    /**
+     * Продолжение прерванного запуска {@link #checkingDailyAndTwoDaysReportFromUsers()} с сохраненного прогресса.
+     * Сводка для волонтеров хранится только в памяти, поэтому страницы до сохраненного прогресса читаются заново:
+     * по ним восстанавливается сводка, но напоминания повторно не отправляются.
+     * Запуск, начатый раньше чем telegram.bot.reports.reminder.resume-within назад, не продолжается
+     * (его заменит следующий плановый запуск)
+     *
+     * @return количество отправленных напоминаний
+     */
+    int resumeReportReminders() {
+        Optional<ReminderCheckpoint> checkpoint = jobRunner.findCheckpoint(REPORT_REMINDERS_JOB)
+                .map(ReminderCheckpoint::parse);
+        if (checkpoint.isEmpty()) {
+            return 0;
+        }
+        if (checkpoint.get().startedAt().plus(resumeWithin).isBefore(LocalDateTime.now())) {
+            log.info("Прерванная проверка отчетов от {} устарела", checkpoint.get().startedAt());
+            saveCheckpoint(null);
+            return 0;
+        }
+        log.info("Продолжаем проверку отчетов от {} после животного {}",
+                checkpoint.get().startedAt(), checkpoint.get().lastAnimalId());
+        return processReportReminders(checkpoint.get());
+    }
 
-        animals.forEach(animal -> {
-            User user = animal.getUser();
-            int testDays = 30;
-            List<Report> reports = reportService.findByAnimalId(animal.getId());
-            if (reports.size() == 0 && user.getEndTest().minusDays(testDays - 1).isBefore(LocalDateTime.now())) {
-                usersWithoutDailyReport.add(user);
+    /**
+     * Постраничный обход животных на испытательном сроке. Напоминания отправляются только по животным
+     * после сохраненного прогресса, сводка для волонтеров собирается по всем.
+     * Прогресс сохраняется после каждой обработанной страницы.
+     *
+     * @param start время начала запуска и id животного, до которого включительно напоминания уже отправлены
+     * @return количество отправленных напоминаний
+     */
+    private int processReportReminders(ReminderCheckpoint start) {
+        VolunteerDigest digest = new VolunteerDigest();
+        int reminders = 0;
+        long afterId = 0L;
+        List<AnimalReportStats> page;
+        do {
+            page = reportService.findReportStatsByAnimalState(Animal.AnimalStateEnum.IN_TEST, afterId, chunkSize);
+            if (page.isEmpty()) {
+                break;
             }
-            if ((reports.size() == 0 && user.getEndTest().minusDays(testDays - 2).isBefore(LocalDateTime.now())) ||
-                    (reports.size() != 0 && reports.get(reports.size() - 1).getDate().isBefore(twoDaysAgo))) {
-                usersWithoutReportForTwoDays.add(user);
-            } else if (reports.size() != 0 && !usersWithoutReportForTwoDays.contains(user) &&
-                    reports.get(reports.size() - 1).getDate().isBefore(yesterdayAt0AM)) {
-                usersWithoutDailyReport.add(user);
+            reminders += processReminderChunk(page, start, digest);
+            afterId = page.get(page.size() - 1).animalId();
+            if (afterId > start.lastAnimalId()) {
+                saveCheckpoint(new ReminderCheckpoint(start.startedAt(), afterId).format());
             }
-        });
+        } while (page.size() == chunkSize);
+        saveCheckpoint(null); // запуск завершен
+        sendDigest(digest);
+        return reminders;
+    }
 
-        usersWithoutReportForTwoDays.forEach(user -> {
-            userService.findVolunteers().forEach(volunteer -> sendMessage(volunteer.getTelegramId(),
-                    String.format("Последний отчет был принят более двух дней у : %s %s.",
-                            user.getName(), user.getSurname())));
-            sendMessage(user.getTelegramId(),
-                    "Последний отчет был принят более двух дней! Пожалуйста, сдайте отчет.");
+    /**
+     * Сохранить прогресс проверки отчетов
+     *
+     * @param checkpoint прогресс, null - запуск завершен
+     * @throws IllegalStateException если блокировка задачи потеряна, запуск прерывается,
+     *                               чтобы не отправлять напоминания параллельно с другим экземпляром
+     */
+    private void saveCheckpoint(String checkpoint) {
+        if (!jobRunner.saveCheckpoint(REPORT_REMINDERS_JOB, checkpoint)) {
+            throw new IllegalStateException("Report reminders lock lost");
+        }
+    }
+
+    /**
+     * Напоминания усыновителям одной страницы
+     *
+     * @param stats  сводка по отчетам животных страницы
+     * @param start  время начала запуска и id животного, до которого включительно напоминания уже отправлены
+     * @param digest сводка для волонтеров, в нее добавляются усыновители без отчета больше двух дней
+     * @return количество напоминаний
+     */
+    private int processReminderChunk(List<AnimalReportStats> stats, ReminderCheckpoint start, VolunteerDigest digest) {
+        LocalDateTime now = start.startedAt();
+        LocalDateTime twoDaysAgo = now.minusDays(2).withHour(0);
+        LocalDateTime yesterdayAt0AM = now.minusDays(1).withHour(0);
+
+        List<AnimalReportStats> usersWithoutReportForTwoDays = new ArrayList<>();
+        List<AnimalReportStats> usersWithoutDailyReport = new ArrayList<>();
+
+        stats.forEach(stat -> {
+            boolean noReports = stat.reportCount() == 0;
+            if (noReports && stat.endTest().minusDays(TEST_DAYS - 1).isBefore(now)) {
+                usersWithoutDailyReport.add(stat);
+            }
+            if ((noReports && stat.endTest().minusDays(TEST_DAYS - 2).isBefore(now)) ||
+                    (!noReports && stat.lastReportDate().isBefore(twoDaysAgo))) {
+                usersWithoutReportForTwoDays.add(stat);
+            } else if (!noReports && stat.lastReportDate().isBefore(yesterdayAt0AM)) {
+                usersWithoutDailyReport.add(stat);
+            }
         });
 
-        usersWithoutDailyReport.forEach(user -> sendMessage(user.getTelegramId(),
+        usersWithoutReportForTwoDays.forEach(user -> digest.add(VolunteerDigest.Topic.NO_REPORT,
+                user.userId(), user.name(), user.surname(), null));
+        //Напоминания до сохраненного прогресса отправлены прерванным запуском
+        usersWithoutReportForTwoDays.removeIf(user -> user.animalId() <= start.lastAnimalId());
+        usersWithoutDailyReport.removeIf(user -> user.animalId() <= start.lastAnimalId());
+        usersWithoutReportForTwoDays.forEach(user -> sendReminder(user.telegramId(),
+                "Последний отчет был принят более двух дней! Пожалуйста, сдайте отчет."));
+        usersWithoutDailyReport.forEach(user -> sendReminder(user.telegramId(),
                 "Здравствуйте, вчера от вас не поступал отчет о собаке. Пожалуйста, сдайте отчет."));
+        return usersWithoutReportForTwoDays.size() + usersWithoutDailyReport.size();
     }
 
     /**
-     * Отправляет текстовое сообщение в заданный чат.
+     * Ставит первую страницу сводки в очередь отправки каждому волонтеру,
+     * сводка сохраняется в {@link VolunteerDigestStore} для показа остальных страниц.
+     * Пустая сводка не отправляется.
+     *
+     * @param digest сводка за запуск проверки
+     */
+    private void sendDigest(VolunteerDigest digest) {
+        if (digest.isEmpty()) {
+            return;
+        }
+        Collection<User> volunteers = userService.findVolunteers();
+        log.info("Отправляем сводку из {} событий {} волонтерам", digest.size(), volunteers.size());
+        long digestId = digestStore.save(digest);
+        volunteers.forEach(volunteer -> messageSender.send(digest.toMessage(volunteer.getTelegramId(), digestId)));
+    }
+
+    /**
+     * Ставит текстовое сообщение в очередь отправки в заданный чат.
      *
      * @param chatId идентификатор чата, куда нужно отправить сообщение
      * @param text   текст сообщения
      */
     private void sendMessage(long chatId, String text) {
         log.info("Отправляем сообщение в чат {} сообщением {}", chatId, text);
-        SendMessage request = new SendMessage(chatId, text)
+        messageSender.send(createMessage(chatId, text));
+    }
+
+    /**
+     * Ставит напоминание в очередь отправки. Если задан telegram.bot.reports.reminder.send-spread,
+     * напоминание откладывается на время от 0 до send-spread, постоянное для чата,
+     * чтобы напоминания не уходили все сразу в начале часа.
+     *
+     * @param chatId идентификатор чата, куда нужно отправить напоминание
+     * @param text   текст напоминания
+     */
+    private void sendReminder(long chatId, String text) {
+        if (sendSpread.isZero()) {
+            sendMessage(chatId, text);
+            return;
+        }
+        Duration delay = Duration.ofMillis(Math.floorMod(chatId, sendSpread.toMillis()));
+        log.info("Отправляем напоминание в чат {} через {} сообщением {}", chatId, delay, text);
+        messageSender.send(createMessage(chatId, text), delay);
+    }
+
+    private SendMessage createMessage(long chatId, String text) {
+        return new SendMessage(chatId, text)
                 .parseMode(ParseMode.HTML)
                 .disableWebPagePreview(true)
                 .disableNotification(true);
-        telegramBot.execute(request);
+    }
+
+    /**
+     * Прогресс проверки отчетов: время начала запуска и id последнего обработанного животного
+     */
+    record ReminderCheckpoint(LocalDateTime startedAt, long lastAnimalId) {
+        static ReminderCheckpoint parse(String checkpoint) {
+            int separator = checkpoint.lastIndexOf(';');
+            return new ReminderCheckpoint(LocalDateTime.parse(checkpoint.substring(0, separator)),
+                    Long.parseLong(checkpoint.substring(separator + 1)));
+        }
+
+        String format() {
+            return startedAt + ";" + lastAnimalId;
+        }
     }
 }
@@ -0,0 +1,173 @@
+package com.skypro.telegram_team.timer;
+
+import com.pengrad.telegrambot.model.request.InlineKeyboardButton;
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+import com.pengrad.telegrambot.model.request.ParseMode;
+import com.pengrad.telegrambot.request.EditMessageText;
+import com.pengrad.telegrambot.request.SendMessage;
+import com.skypro.telegram_team.keyboard.Callback;
+import com.skypro.telegram_team.keyboard.PagedKeyboard;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Сводка для волонтеров за один запуск проверки.
+ * <p>
+ * Вместо отдельного сообщения каждому волонтеру по каждому усыновителю события накапливаются
+ * и отправляются одной сводкой, сгруппированной по типу события.
+ * Сводка разбивается на страницы по {@link #PAGE_SIZE} усыновителей,
+ * у каждого усыновителя есть кнопка для просмотра его данных ({@link Callback#ADOPTER_INFO}).
+ * Отправляется только первая страница, остальные показываются в том же сообщении по кнопкам перехода
+ * ({@link Callback#DIGEST_PAGE}), для этого сводка хранится в {@link VolunteerDigestStore}.
+ */
+public class VolunteerDigest {
+    //Количество усыновителей на одной странице (ограничено размером сообщения и клавиатуры)
+    static final int PAGE_SIZE = 20;
+    //Разделитель id сводки и номера страницы в параметре DIGEST_PAGE
+    private static final char PAGE_SEPARATOR = '_';
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Тип события
+     */
+    public enum Topic {
+        ADOPTED("Одобрение на усыновление подтверждено"),
+        BLACKLIST("Отказ подтвержден"),
+        PROLONGED("Подтверждено продление"),
+        DECISION("Принять решение об усыновлении"),
+        NO_REPORT("Последний отчет был принят более двух дней назад");
+
+        private final String title;
+
+        Topic(String title) {
+            this.title = title;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    /**
+     * Страница сохраненной сводки, параметр команды {@link Callback#DIGEST_PAGE}
+     *
+     * @param digestId id сводки в {@link VolunteerDigestStore}
+     * @param page     номер страницы с 0
+     */
+    public record PageRef(long digestId, int page) {
+        /**
+         * Разобрать параметр команды
+         *
+         * @param payload параметр команды
+         * @return страница сводки
+         * @throws NumberFormatException если параметр некорректен
+         */
+        public static PageRef parse(String payload) {
+            int separator = payload.indexOf(PAGE_SEPARATOR);
+            if (separator < 0) {
+                throw new NumberFormatException("Digest page expected: " + payload);
+            }
+            return new PageRef(Long.parseLong(payload.substring(0, separator)),
+                    Integer.parseInt(payload.substring(separator + 1)));
+        }
+
+        String format() {
+            return Callback.DIGEST_PAGE.name() + digestId + PAGE_SEPARATOR + page;
+        }
+    }
+
+    /**
+     * Добавить событие
+     *
+     * @param topic   тип события
+     * @param userId  id усыновителя
+     * @param name    имя усыновителя
+     * @param surname фамилия усыновителя
+     * @param details дополнительная информация, может быть null
+     */
+    public void add(Topic topic, Long userId, String name, String surname, String details) {
+        entries.add(new Entry(topic, userId, name, surname, details));
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Первая страница сводки для волонтера
+     *
+     * @param chatId   чат волонтера
+     * @param digestId id сводки в {@link VolunteerDigestStore}
+     * @return сообщение для отправки
+     */
+    public SendMessage toMessage(long chatId, long digestId) {
+        Page page = page(digestId, 0);
+        return new SendMessage(chatId, page.text())
+                .parseMode(ParseMode.HTML)
+                .disableWebPagePreview(true)
+                .disableNotification(true)
+                .replyMarkup(page.markup());
+    }
+
+    /**
+     * Показать другую страницу в отправленном сообщении сводки
+     *
+     * @param chatId    чат волонтера
+     * @param messageId сообщение со сводкой
+     * @param ref       id сводки и номер страницы, номер за пределами приводится к первой или последней странице
+     * @return изменение сообщения
+     */
+    public EditMessageText toPage(long chatId, int messageId, PageRef ref) {
+        Page page = page(ref.digestId(), ref.page());
+        return new EditMessageText(chatId, messageId, page.text())
+                .parseMode(ParseMode.HTML)
+                .disableWebPagePreview(true)
+                .replyMarkup(page.markup());
+    }
+
+    private Page page(long digestId, int page) {
+        List<Entry> sorted = entries.stream()
+                .sorted(Comparator.comparing(Entry::topic))
+                .toList();
+        //Кнопки усыновителей разбиваются на страницы так же, как текст
+        PagedKeyboard keyboard = PagedKeyboard.of(sorted.stream()
+                        .map(entry -> new InlineKeyboardButton(entry.fullName())
+                                .callbackData(Callback.ADOPTER_INFO.name() + entry.userId()))
+                        .toList(),
+                index -> new PageRef(digestId, index).format(), List.of(), PAGE_SIZE);
+        int pages = keyboard.size();
+        int index = Math.max(0, Math.min(page, pages - 1));
+        StringBuilder text = new StringBuilder("Сводка для волонтеров");
+        if (pages > 1) {
+            text.append(String.format(" (стр. %d из %d)", index + 1, pages));
+        }
+        Topic topic = null;
+        for (Entry entry : sorted.subList(index * PAGE_SIZE, Math.min(sorted.size(), (index + 1) * PAGE_SIZE))) {
+            if (entry.topic() != topic) {
+                topic = entry.topic();
+                text.append("\n\n<b>").append(topic.getTitle()).append(":</b>");
+            }
+            text.append("\n- ").append(HtmlUtils.htmlEscape(entry.fullName()));
+            if (entry.details() != null) {
+                text.append(" (").append(HtmlUtils.htmlEscape(entry.details())).append(")");
+            }
+        }
+        return new Page(text.toString(), keyboard.page(index));
+    }
+
+    private record Page(String text, InlineKeyboardMarkup markup) {
+    }
+
+    private record Entry(Topic topic, Long userId, String name, String surname, String details) {
+        String fullName() {
+            return surname == null ? String.valueOf(name) : name + " " + surname;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.skypro.telegram_team.timer;
+
+import com.skypro.telegram_team.cache.TtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Отправленные сводки для волонтеров, по ним показываются следующие страницы сводки.
+ * <p>
+ * Сводка хранится в памяти не дольше telegram.bot.digest.ttl, хранится не больше telegram.bot.digest.max-size
+ * последних сводок. После перезапуска бота листать старые сводки нельзя.
+ */
+@Component
+public class VolunteerDigestStore {
+    private final TtlCache<Long, VolunteerDigest> digests;
+    //Начинается со времени запуска, чтобы кнопки сводок до перезапуска не открывали новые сводки
+    private final AtomicLong ids = new AtomicLong(System.currentTimeMillis());
+
+    public VolunteerDigestStore(@Value("${telegram.bot.digest.ttl:24h}") Duration ttl,
+                                @Value("${telegram.bot.digest.max-size:100}") int maxSize) {
+        this.digests = new TtlCache<>(ttl, maxSize);
+    }
+
+    /**
+     * Сохранить сводку
+     *
+     * @param digest сводка, после сохранения не изменяется
+     * @return id сводки
+     */
+    public long save(VolunteerDigest digest) {
+        long id = ids.incrementAndGet();
+        digests.put(id, digest);
+        return id;
+    }
+
+    /**
+     * Найти сводку
+     *
+     * @param id id сводки
+     * @return сводка или пустой Optional, если сводка устарела
+     */
+    public Optional<VolunteerDigest> find(long id) {
+        return digests.get(id, key -> Optional.empty());
+    }
+}
@@ -0,0 +1,61 @@
+package com.skypro.telegram_team.validation;
+
+import java.util.regex.Pattern;
+
+/**
+ * Проверка контактных данных пользователя.
+ * <p>
+ * Шаблоны компилируются один раз, телефон проверяется без регулярного выражения.
+ */
+public final class ContactValidator {
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$");
+    //Количество цифр номера после кода страны
+    private static final int PHONE_DIGITS = 10;
+
+    private ContactValidator() {
+    }
+
+    /**
+     * Проверяет, соответствует ли номер телефона российскому формату:
+     * код страны (+7, 7 или 8, в том числе повторенный) и 10 цифр.
+     * Результат совпадает с шаблоном ^((\+7|7|8)+([0-9]){10})$
+     *
+     * @param phone номер телефона
+     * @return true, если номер телефона соответствует формату
+     */
+    public static boolean isPhoneValid(String phone) {
+        if (phone == null || phone.length() <= PHONE_DIGITS) {
+            return false;
+        }
+        int prefixLength = phone.length() - PHONE_DIGITS;
+        for (int i = prefixLength; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        //Код страны - последовательность из "+7", "7" и "8"
+        int i = 0;
+        while (i < prefixLength) {
+            char c = phone.charAt(i);
+            if (c == '+' && i + 1 < prefixLength && phone.charAt(i + 1) == '7') {
+                i += 2;
+            } else if (c == '7' || c == '8') {
+                i++;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Проверяет, соответствует ли email адрес шаблону
+     *
+     * @param email email адрес
+     * @return true, если email адрес соответствует шаблону
+     */
+    public static boolean isEmailValid(String email) {
+        return email != null && EMAIL_PATTERN.matcher(email).matches();
+    }
+}
@@ -210,3 +210,90 @@ ALTER TABLE reports
 ALTER TABLE reports
     ADD COLUMN photo BYTEA;
 
+-- changeSet 11th:10
+CREATE TABLE dialog_state
+(
+    kind         VARCHAR(10) NOT NULL,
+    chat_id      BIGINT      NOT NULL,
+    peer_chat_id BIGINT,
+    message_id   INT,
+    flags        INT         NOT NULL DEFAULT 0,
+    text         TEXT,
+    created_at   TIMESTAMP   NOT NULL,
+    PRIMARY KEY (kind, chat_id)
+);
+
+-- changeSet 11th:11
+CREATE INDEX IF NOT EXISTS reports_user_id_date_idx ON reports (user_id, date);
+
+-- changeSet 11th:12
+CREATE TABLE photos
+(
+    hash       VARCHAR(64) PRIMARY KEY NOT NULL,
+    content    BYTEA                   NOT NULL,
+    size       BIGINT                  NOT NULL,
+    created_at TIMESTAMP               NOT NULL
+);
+
+ALTER TABLE animals
+    ADD COLUMN photo_hash VARCHAR(64);
+
+ALTER TABLE reports
+    ADD COLUMN photo_hash VARCHAR(64);
+
+INSERT INTO photos (hash, content, size, created_at)
+SELECT encode(sha256(photo), 'hex'), photo, length(photo), now()
+FROM animals
+WHERE photo IS NOT NULL
+ON CONFLICT (hash) DO NOTHING;
+
+INSERT INTO photos (hash, content, size, created_at)
+SELECT encode(sha256(photo), 'hex'), photo, length(photo), now()
+FROM reports
+WHERE photo IS NOT NULL
+ON CONFLICT (hash) DO NOTHING;
+
+UPDATE animals
+SET photo_hash = encode(sha256(photo), 'hex')
+WHERE photo IS NOT NULL;
+
+UPDATE reports
+SET photo_hash = encode(sha256(photo), 'hex')
+WHERE photo IS NOT NULL;
+
+ALTER TABLE animals
+    DROP COLUMN photo;
+
+ALTER TABLE reports
+    DROP COLUMN photo;
+
+-- changeSet 11th:13
+CREATE INDEX IF NOT EXISTS reports_animal_id_date_idx ON reports (animal_id, date);
+
+
+-- changeSet 11th:14
+CREATE TABLE scheduler_lock
+(
+    name         VARCHAR(64) PRIMARY KEY,
+    locked_until TIMESTAMP    NOT NULL,
+    locked_at    TIMESTAMP    NOT NULL,
+    locked_by    VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE job_run
+(
+    id            BIGSERIAL PRIMARY KEY,
+    name          VARCHAR(64)  NOT NULL,
+    node          VARCHAR(255) NOT NULL,
+    started_at    TIMESTAMP    NOT NULL,
+    duration_ms   BIGINT       NOT NULL,
+    affected_rows INTEGER,
+    status        VARCHAR(16)  NOT NULL,
+    error         TEXT
+);
+
+CREATE INDEX job_run_name_started_at_idx ON job_run (name, started_at);
+
+-- changeSet 11th:15
+ALTER TABLE scheduler_lock
+    ADD COLUMN checkpoint VARCHAR(255);
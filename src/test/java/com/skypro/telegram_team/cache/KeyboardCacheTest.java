@@ -0,0 +1,93 @@
+package com.skypro.telegram_team.cache;
+
+import com.skypro.telegram_team.keyboard.Callback;
+import com.skypro.telegram_team.listener.BotListenerUtil;
+import com.skypro.telegram_team.model.Shelter;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+class KeyboardCacheTest {
+    private final Instant start = Instant.parse("2023-03-01T10:00:00Z");
+    private Instant now;
+    private KeyboardCache out;
+
+    @BeforeEach
+    void setUp() {
+        now = start;
+        out = new KeyboardCache(Duration.ofMinutes(5), 2, () -> now);
+    }
+
+    @Test
+    void getShelters_builtOnce() {
+        //Given
+        List<Shelter> shelters = IntStream.rangeClosed(1, 3)
+                .mapToObj(id -> {
+                    Shelter shelter = BotListenerUtil.mockShelter();
+                    shelter.setId((long) id);
+                    return shelter;
+                })
+                .toList();
+        //When
+        var first = out.getShelters(0, () -> shelters);
+        var actual = out.getShelters(1, List::of);
+        //Then
+        Assertions.assertThat(out.getBuildCount()).isEqualTo(1);
+        Assertions.assertThat(first.inlineKeyboard()[0][0].callbackData()).isEqualTo("SAVE_SHELTER1");
+        Assertions.assertThat(first.inlineKeyboard()[2][0].callbackData()).isEqualTo("SHELTERS_PAGE1");
+        Assertions.assertThat(actual.inlineKeyboard()[0][0].callbackData()).isEqualTo("SAVE_SHELTER3");
+        Assertions.assertThat(out.getShelters(0, List::of)).isSameAs(first);
+    }
+
+    @Test
+    void getVolunteers_anyVolunteerOnEveryPage() {
+        //When
+        var actual = out.getVolunteers(0, () -> List.of(BotListenerUtil.mockVolunteer()));
+        //Then
+        Assertions.assertThat(actual.inlineKeyboard().length).isEqualTo(2);
+        Assertions.assertThat(actual.inlineKeyboard()[0][0].callbackData()).isEqualTo("ASK_VOLUNTEER12");
+        Assertions.assertThat(actual.inlineKeyboard()[1][0].callbackData())
+                .isEqualTo(Callback.ASK_ANY_VOLUNTEER.name());
+    }
+
+    @Test
+    void invalidate_rebuildsOnlyChanged() {
+        //Given
+        var shelters = out.getShelters(0, List::of);
+        var volunteers = out.getVolunteers(0, List::of);
+        //When
+        out.invalidateShelters();
+        //Then
+        Assertions.assertThat(out.getShelters(0, List::of)).isNotSameAs(shelters);
+        Assertions.assertThat(out.getVolunteers(0, List::of)).isSameAs(volunteers);
+        Assertions.assertThat(out.getBuildCount()).isEqualTo(3);
+    }
+
+    @Test
+    void invalidate_duringBuild_notCached() {
+        //When
+        out.getShelters(0, () -> {
+            out.invalidateShelters();
+            return List.of();
+        });
+        out.getShelters(0, List::of);
+        //Then
+        Assertions.assertThat(out.getBuildCount()).isEqualTo(2);
+    }
+
+    @Test
+    void get_rebuildsExpired() {
+        //Given
+        out.getVolunteers(0, List::of);
+        now = start.plus(Duration.ofMinutes(6));
+        //When
+        out.getVolunteers(0, List::of);
+        //Then
+        Assertions.assertThat(out.getBuildCount()).isEqualTo(2);
+    }
+}
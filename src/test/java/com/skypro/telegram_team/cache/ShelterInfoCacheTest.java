@@ -0,0 +1,82 @@
+package com.skypro.telegram_team.cache;
+
+import com.skypro.telegram_team.keyboard.Callback;
+import com.skypro.telegram_team.listener.BotListenerUtil;
+import com.skypro.telegram_team.model.Shelter;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class ShelterInfoCacheTest {
+    private final ShelterInfoCache out = new ShelterInfoCache();
+
+    @Test
+    void get_loadsOnce() {
+        //Given
+        Shelter shelter = BotListenerUtil.mockShelter();
+        //When
+        out.get(shelter.getId(), Callback.INF_ADDRESS, () -> List.of(shelter));
+        var actual = out.get(shelter.getId(), Callback.HOW_REJECT_REASONS, List::of);
+        //Then
+        Assertions.assertThat(actual).isEqualTo(shelter.getRejectReasons());
+        Assertions.assertThat(out.getLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    void get_snapshotNotChangedByEntity() {
+        //Given
+        Shelter shelter = BotListenerUtil.mockShelter();
+        out.get(shelter.getId(), Callback.INF_ADDRESS, () -> List.of(shelter));
+        //When
+        shelter.setAddress("new address");
+        var actual = out.get(shelter.getId(), Callback.INF_ADDRESS, List::of);
+        //Then
+        Assertions.assertThat(actual).isEqualTo(BotListenerUtil.mockShelter().getAddress());
+    }
+
+    @Test
+    void get_unknownShelterOrEmptyText() {
+        //Given
+        Shelter shelter = BotListenerUtil.mockShelter();
+        shelter.setSafety(null);
+        //Then
+        Assertions.assertThat(out.get(shelter.getId(), Callback.INF_SAFETY, () -> List.of(shelter))).isNull();
+        Assertions.assertThat(out.get(2L, Callback.INF_ADDRESS, List::of)).isNull();
+    }
+
+    @Test
+    void invalidate_reloads() {
+        //Given
+        Shelter shelter = BotListenerUtil.mockShelter();
+        out.get(shelter.getId(), Callback.INF_ADDRESS, List::of);
+        //When
+        out.invalidate();
+        var actual = out.get(shelter.getId(), Callback.INF_ADDRESS, () -> List.of(shelter));
+        //Then
+        Assertions.assertThat(actual).isEqualTo(shelter.getAddress());
+        Assertions.assertThat(out.getLoadCount()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidate_duringLoad_notCached() {
+        //Given
+        Shelter shelter = BotListenerUtil.mockShelter();
+        //When
+        out.get(shelter.getId(), Callback.INF_ADDRESS, () -> {
+            out.invalidate();
+            return List.of(shelter);
+        });
+        out.get(shelter.getId(), Callback.INF_ADDRESS, () -> List.of(shelter));
+        //Then
+        Assertions.assertThat(out.getLoadCount()).isEqualTo(2);
+    }
+
+    @Test
+    void callbacks() {
+        //Then
+        Assertions.assertThat(ShelterInfoCache.callbacks())
+                .allMatch(callback -> callback.name().startsWith("INF_") || callback.name().startsWith("HOW_"))
+                .hasSize(13);
+    }
+}
@@ -0,0 +1,96 @@
+package com.skypro.telegram_team.cache;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class TtlCacheTest {
+    private final Instant start = Instant.parse("2023-03-01T10:00:00Z");
+    private final AtomicInteger loads = new AtomicInteger();
+    private Instant now;
+    private TtlCache<Long, String> out;
+
+    @BeforeEach
+    void setUp() {
+        now = start;
+        out = new TtlCache<>(Duration.ofMinutes(10), 2, () -> now);
+    }
+
+    @Test
+    void get_loadsOnce() {
+        //When
+        out.get(1L, this::load);
+        var actual = out.get(1L, this::load);
+        //Then
+        Assertions.assertThat(actual).contains("1");
+        Assertions.assertThat(loads.get()).isEqualTo(1);
+        Assertions.assertThat(out.getHitCount()).isEqualTo(1);
+        Assertions.assertThat(out.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void get_reloadsExpired() {
+        //Given
+        out.get(1L, this::load);
+        now = start.plus(Duration.ofMinutes(11));
+        //When
+        out.get(1L, this::load);
+        //Then
+        Assertions.assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_emptyNotCached() {
+        //When
+        var actual = out.get(1L, key -> Optional.empty());
+        //Then
+        Assertions.assertThat(actual).isEmpty();
+        Assertions.assertThat(out.size()).isZero();
+    }
+
+    @Test
+    void get_evictsLeastRecentlyUsed() {
+        //Given
+        out.get(1L, this::load);
+        out.get(2L, this::load);
+        out.get(1L, this::load);
+        //When
+        out.get(3L, this::load);
+        out.get(1L, this::load);
+        out.get(2L, this::load);
+        //Then
+        Assertions.assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    void invalidate() {
+        //Given
+        out.get(1L, this::load);
+        //When
+        out.invalidate(1L);
+        out.get(1L, this::load);
+        //Then
+        Assertions.assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_invalidatedDuringLoadNotCached() {
+        //When
+        out.get(1L, key -> {
+            out.invalidate(key);
+            return load(key);
+        });
+        //Then
+        Assertions.assertThat(out.size()).isZero();
+    }
+
+    private Optional<String> load(Long key) {
+        loads.incrementAndGet();
+        return Optional.of(String.valueOf(key));
+    }
+}
@@ -0,0 +1,70 @@
+package com.skypro.telegram_team.cache;
+
+import com.skypro.telegram_team.model.User;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+class VolunteerCacheTest {
+    private final Instant start = Instant.parse("2023-03-01T10:00:00Z");
+    private Instant now;
+    private VolunteerCache out;
+
+    @BeforeEach
+    void setUp() {
+        now = start;
+        out = new VolunteerCache(Duration.ofMinutes(5), () -> now);
+    }
+
+    @Test
+    void get_loadsOnce() {
+        //Given
+        User volunteer = new User();
+        //When
+        out.get(() -> List.of(volunteer));
+        var actual = out.get(() -> List.of());
+        //Then
+        Assertions.assertThat(actual).containsExactly(volunteer);
+        Assertions.assertThat(out.getLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    void get_reloadsExpired() {
+        //Given
+        out.get(List::of);
+        now = start.plus(Duration.ofMinutes(6));
+        //When
+        out.get(List::of);
+        //Then
+        Assertions.assertThat(out.getLoadCount()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidate_reloads() {
+        //Given
+        out.get(List::of);
+        User volunteer = new User();
+        //When
+        out.invalidate();
+        var actual = out.get(() -> List.of(volunteer));
+        //Then
+        Assertions.assertThat(actual).containsExactly(volunteer);
+        Assertions.assertThat(out.getLoadCount()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidate_duringLoad_notCached() {
+        //When
+        out.get(() -> {
+            out.invalidate();
+            return List.of(new User());
+        });
+        out.get(List::of);
+        //Then
+        Assertions.assertThat(out.getLoadCount()).isEqualTo(2);
+    }
+}
@@ -1,8 +1,14 @@
 package com.skypro.telegram_team.controller;
 
+import com.skypro.telegram_team.dto.AnimalSummary;
+import com.skypro.telegram_team.importer.ImportError;
+import com.skypro.telegram_team.importer.ImportResult;
 import com.skypro.telegram_team.model.Animal;
 import com.skypro.telegram_team.repository.AnimalRepository;
 import com.skypro.telegram_team.service.AnimalService;
+import com.skypro.telegram_team.service.ImportService;
+import com.skypro.telegram_team.storage.PhotoStorage;
+import com.skypro.telegram_team.storage.StoredPhoto;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +20,7 @@ import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
@@ -21,11 +28,17 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.io.ByteArrayInputStream;
 import java.nio.file.Files;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -39,6 +52,8 @@ public class AnimalControllerTest {
     @SpyBean
     private AnimalService animalService;
     @MockBean
+    private PhotoStorage photoStorage;
+    @MockBean
     private ShelterController shelterController;
     @MockBean
     private ReportController reportController;
@@ -46,6 +61,8 @@ public class AnimalControllerTest {
     private UserController userController;
     @MockBean
     private AnimalRepository animalRepository;
+    @MockBean
+    private ImportService importService;
     private final Animal animal = new Animal();
     private final JSONObject jsonAnimal = new JSONObject();
 
@@ -151,6 +168,35 @@ public class AnimalControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void importAnimals() throws Exception {
+        //Given
+        MockMultipartFile file = new MockMultipartFile("file", "animals.csv", "text/csv", "name,type".getBytes());
+        MockMultipartFile photos = new MockMultipartFile("photos", "photos.zip", "application/zip", new byte[0]);
+        //When
+        when(importService.importAnimals(any(), any())).thenReturn(new ImportResult(1, 1, List.of()));
+        //Then
+        mockMvc.perform(multipart("/animals/import").file(file).file(photos))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.imported").value(1));
+    }
+
+    @Test
+    public void importAnimals_rowErrors() throws Exception {
+        //Given
+        MockMultipartFile file = new MockMultipartFile("file", "animals.json",
+                MediaType.APPLICATION_JSON_VALUE, "[{}]".getBytes());
+        //When
+        when(importService.importAnimals(any(), isNull()))
+                .thenReturn(ImportResult.failed(1, List.of(new ImportError(1, "Отсутствует кличка животного"))));
+        //Then
+        mockMvc.perform(multipart("/animals/import").file(file))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.imported").value(0))
+                .andExpect(jsonPath("$.errors[0].message").value("Отсутствует кличка животного"));
+    }
+
     @Test
     public void photoDownload() throws Exception {
         //Given
@@ -158,12 +204,63 @@ public class AnimalControllerTest {
         byte[] photo = Files.readAllBytes(resource.getFile().toPath());
         Animal expected = new Animal();
         expected.setId(1L);
-        expected.setPhoto(photo);
+        expected.setPhotoHash("hash");
         //When
         when(animalRepository.findById(1L)).thenReturn(Optional.of(expected));
+        when(photoStorage.find("hash")).thenReturn(Optional.of(new StoredPhoto("hash", photo.length, Instant.now())));
+        when(photoStorage.open("hash")).thenReturn(new ByteArrayInputStream(photo));
         //Then
         mockMvc.perform(MockMvcRequestBuilders.get("/animals/1/photo"))
                 .andExpect(status().isOk())
-                .andExpect(content().bytes(expected.getPhoto()));
+                .andExpect(header().string(HttpHeaders.ETAG, "\"hash\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(content().bytes(photo));
+    }
+
+    @Test
+    public void photoDownloadNotModified() throws Exception {
+        //Given
+        Animal expected = new Animal();
+        expected.setId(1L);
+        expected.setPhotoHash("hash");
+        //When
+        when(animalRepository.findById(1L)).thenReturn(Optional.of(expected));
+        when(photoStorage.find("hash")).thenReturn(Optional.of(new StoredPhoto("hash", 3, Instant.now())));
+        //Then
+        mockMvc.perform(MockMvcRequestBuilders.get("/animals/1/photo").header(HttpHeaders.IF_NONE_MATCH, "\"hash\""))
+                .andExpect(status().isNotModified());
+        verify(photoStorage, never()).open(any());
+    }
+
+    @Test
+    public void photoDownloadRange() throws Exception {
+        //Given
+        Animal expected = new Animal();
+        expected.setId(1L);
+        expected.setPhotoHash("hash");
+        //When
+        when(animalRepository.findById(1L)).thenReturn(Optional.of(expected));
+        when(photoStorage.find("hash")).thenReturn(Optional.of(new StoredPhoto("hash", 3, Instant.now())));
+        when(photoStorage.open("hash")).thenAnswer(invocation -> new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        //Then
+        mockMvc.perform(MockMvcRequestBuilders.get("/animals/1/photo").header(HttpHeaders.RANGE, "bytes=1-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1-2/3"))
+                .andExpect(content().bytes(new byte[]{2, 3}));
+    }
+
+    @Test
+    public void getAnimalsPage() throws Exception {
+        when(animalRepository.findSummaries(eq(3L), eq(Long.MAX_VALUE), eq(Animal.AnimalStateEnum.IN_SHELTER),
+                isNull(), any())).thenReturn(List.of(new AnimalSummary(4L, "Шарик", null, Animal.TypeAnimal.DOG,
+                Animal.AnimalStateEnum.IN_SHELTER, null, null)));
+        mockMvc.perform(MockMvcRequestBuilders.get("/animals/page")
+                        .param("cursor", "3")
+                        .param("limit", "1")
+                        .param("state", "IN_SHELTER"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(4L))
+                .andExpect(jsonPath("$.items[0].name").value("Шарик"))
+                .andExpect(jsonPath("$.nextCursor").value(4L));
     }
 }
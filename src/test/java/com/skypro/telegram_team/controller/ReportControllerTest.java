@@ -1,5 +1,10 @@
 package com.skypro.telegram_team.controller;
 
+import com.skypro.telegram_team.cache.KeyboardCache;
+import com.skypro.telegram_team.cache.ShelterInfoCache;
+import com.skypro.telegram_team.dto.ReportSummary;
+import com.skypro.telegram_team.export.ReportExportFilter;
+import com.skypro.telegram_team.export.ReportExportFormat;
 import com.skypro.telegram_team.model.Animal;
 import com.skypro.telegram_team.model.Report;
 import com.skypro.telegram_team.model.User;
@@ -7,8 +12,11 @@ import com.skypro.telegram_team.repository.AnimalRepository;
 import com.skypro.telegram_team.repository.ReportRepository;
 import com.skypro.telegram_team.repository.ShelterRepository;
 import com.skypro.telegram_team.repository.UserRepository;
+import com.skypro.telegram_team.service.ReportExportService;
 import com.skypro.telegram_team.service.ReportService;
 import com.skypro.telegram_team.service.ShelterService;
+import com.skypro.telegram_team.storage.PhotoStorage;
+import com.skypro.telegram_team.storage.StoredPhoto;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,18 +27,30 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest
@@ -40,6 +60,10 @@ public class ReportControllerTest {
     @InjectMocks
     private ReportController reportController;
     @MockBean
+    private PhotoStorage photoStorage;
+    @MockBean
+    private ReportExportService reportExportService;
+    @MockBean
     private AnimalController animalController;
     @MockBean
     private UserController userController;
@@ -50,6 +74,10 @@ public class ReportControllerTest {
     @SpyBean
     private ShelterService shelterService;
     @MockBean
+    private ShelterInfoCache shelterInfoCache;
+    @MockBean
+    private KeyboardCache keyboardCache;
+    @MockBean
     private ReportRepository reportRepository;
     @MockBean
     private UserRepository userRepository;
@@ -189,12 +217,88 @@ public class ReportControllerTest {
         byte[] photo = Files.readAllBytes(resource.getFile().toPath());
         Report expected = new Report();
         expected.setId(1L);
-        expected.setPhoto(photo);
+        expected.setPhotoHash("hash");
         //When
         when(reportRepository.findById(1L)).thenReturn(Optional.of(expected));
+        when(photoStorage.find("hash")).thenReturn(Optional.of(new StoredPhoto("hash", photo.length, Instant.now())));
+        when(photoStorage.open("hash")).thenReturn(new ByteArrayInputStream(photo));
         //Then
         mockMvc.perform(MockMvcRequestBuilders.get("/reports/1/photo"))
                 .andExpect(status().isOk())
-                .andExpect(content().bytes(expected.getPhoto()));
+                .andExpect(header().string(HttpHeaders.ETAG, "\"hash\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(content().bytes(photo));
+    }
+
+    @Test
+    public void photoDownloadNotModified() throws Exception {
+        //Given
+        Report expected = new Report();
+        expected.setId(1L);
+        expected.setPhotoHash("hash");
+        //When
+        when(reportRepository.findById(1L)).thenReturn(Optional.of(expected));
+        when(photoStorage.find("hash")).thenReturn(Optional.of(new StoredPhoto("hash", 3, Instant.now())));
+        //Then
+        mockMvc.perform(MockMvcRequestBuilders.get("/reports/1/photo").header(HttpHeaders.IF_NONE_MATCH, "\"hash\""))
+                .andExpect(status().isNotModified());
+        verify(photoStorage, never()).open(any());
+    }
+
+    @Test
+    public void photoDownloadRange() throws Exception {
+        //Given
+        Report expected = new Report();
+        expected.setId(1L);
+        expected.setPhotoHash("hash");
+        //When
+        when(reportRepository.findById(1L)).thenReturn(Optional.of(expected));
+        when(photoStorage.find("hash")).thenReturn(Optional.of(new StoredPhoto("hash", 3, Instant.now())));
+        when(photoStorage.open("hash")).thenAnswer(invocation -> new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        //Then
+        mockMvc.perform(MockMvcRequestBuilders.get("/reports/1/photo").header(HttpHeaders.RANGE, "bytes=1-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1-2/3"))
+                .andExpect(content().bytes(new byte[]{2, 3}));
+    }
+
+    @Test
+    public void getReportsPage() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2023, 4, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2023, 4, 2, 0, 0);
+        when(reportRepository.findSummaries(eq(Long.MIN_VALUE), eq(10L), isNull(), eq(2L), eq(from), eq(to), any()))
+                .thenReturn(List.of(new ReportSummary(9L, from, "diet", "well", "behavior", 1L, 2L)));
+        mockMvc.perform(MockMvcRequestBuilders.get("/reports/page")
+                        .param("cursor", "10")
+                        .param("direction", "DESC")
+                        .param("animalId", "2")
+                        .param("from", "2023-04-01T00:00:00")
+                        .param("to", "2023-04-02T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(9L))
+                .andExpect(jsonPath("$.items[0].diet").value("diet"))
+                .andExpect(jsonPath("$.items[0].animalId").value(2L))
+                .andExpect(jsonPath("$.items[0].photoHash").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+    }
+
+    @Test
+    public void exportReports() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(reportExportService).export(eq(new ReportExportFilter(10L, null, null, null)),
+                eq(ReportExportFormat.NDJSON), eq(true), any());
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/reports/export")
+                        .param("shelterId", "10")
+                        .param("photos", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reports.ndjson\""))
+                .andExpect(content().string("{\"id\":1}\n"));
     }
 }
@@ -1,9 +1,15 @@
 package com.skypro.telegram_team.controller;
 
+import com.skypro.telegram_team.cache.KeyboardCache;
+import com.skypro.telegram_team.cache.ShelterInfoCache;
+import com.skypro.telegram_team.dto.ShelterSummary;
+import com.skypro.telegram_team.importer.ImportError;
+import com.skypro.telegram_team.importer.ImportResult;
 import com.skypro.telegram_team.model.Animal;
 import com.skypro.telegram_team.model.Shelter;
 import com.skypro.telegram_team.repository.AnimalRepository;
 import com.skypro.telegram_team.repository.ShelterRepository;
+import com.skypro.telegram_team.service.ImportService;
 import com.skypro.telegram_team.service.ShelterService;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +20,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
@@ -21,7 +28,9 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -43,6 +52,12 @@ public class ShelterControllerTest {
     private ShelterRepository shelterRepository;
     @MockBean
     private AnimalRepository animalRepository;
+    @MockBean
+    private ImportService importService;
+    @MockBean
+    private ShelterInfoCache shelterInfoCache;
+    @MockBean
+    private KeyboardCache keyboardCache;
     private Shelter shelter;
     private JSONObject jsonShelter;
 
@@ -116,4 +131,37 @@ public class ShelterControllerTest {
 
 
     }
+
+    @Test
+    public void findPage() throws Exception {
+        when(shelterRepository.findSummaries(eq(Long.MIN_VALUE), eq(Long.MAX_VALUE), eq(Animal.TypeAnimal.DOG), any()))
+                .thenReturn(List.of(new ShelterSummary(1L, "Приют", Animal.TypeAnimal.DOG, "Адрес")));
+        mockMvc.perform(MockMvcRequestBuilders.get("/shelters/page")
+                        .param("type", "DOG"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Приют"))
+                .andExpect(jsonPath("$.items[0].address").value("Адрес"));
+    }
+
+    @Test
+    public void importShelters() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "shelters.json",
+                MediaType.APPLICATION_JSON_VALUE, "[]".getBytes());
+        when(importService.importShelters(any())).thenReturn(new ImportResult(2, 2, List.of()));
+        mockMvc.perform(multipart("/shelters/import").file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+    }
+
+    @Test
+    public void importShelters_rowErrors() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "shelters.json",
+                MediaType.APPLICATION_JSON_VALUE, "[]".getBytes());
+        when(importService.importShelters(any()))
+                .thenReturn(ImportResult.failed(2, List.of(new ImportError(2, "Отсутствует название приюта"))));
+        mockMvc.perform(multipart("/shelters/import").file(file))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.imported").value(0))
+                .andExpect(jsonPath("$.errors[0].row").value(2));
+    }
 }
@@ -1,5 +1,9 @@
 package com.skypro.telegram_team.controller;
 
+import com.skypro.telegram_team.cache.KeyboardCache;
+import com.skypro.telegram_team.cache.UserCache;
+import com.skypro.telegram_team.cache.VolunteerCache;
+import com.skypro.telegram_team.dto.UserSummary;
 import com.skypro.telegram_team.model.Animal;
 import com.skypro.telegram_team.model.Shelter;
 import com.skypro.telegram_team.model.User;
@@ -7,6 +11,7 @@ import com.skypro.telegram_team.repository.AnimalRepository;
 import com.skypro.telegram_team.repository.UserRepository;
 import com.skypro.telegram_team.service.AnimalService;
 import com.skypro.telegram_team.service.UserService;
+import com.skypro.telegram_team.storage.PhotoStorage;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,6 +29,8 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -33,6 +40,8 @@ public class UserControllerTest {
     @Autowired
     private MockMvc mockMvc;
     @MockBean
+    private PhotoStorage photoStorage;
+    @MockBean
     private AnimalController animalController;
     @MockBean
     private ReportController reportController;
@@ -48,6 +57,12 @@ public class UserControllerTest {
     private AnimalService animalService;
     @MockBean
     private AnimalRepository animalRepository;
+    @MockBean
+    private UserCache userCache;
+    @MockBean
+    private VolunteerCache volunteerCache;
+    @MockBean
+    private KeyboardCache keyboardCache;
     private final User user = new User();
     private final JSONObject jsonUser = new JSONObject();
     private final Animal animal = new Animal();
@@ -153,4 +168,23 @@ public class UserControllerTest {
                         .post("/users/join?animalId=" + animal.getId() + "&userId=" + user.getId()))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    public void getUsersPage() throws Exception {
+        when(userRepository.findSummaries(eq(Long.MIN_VALUE), eq(Long.MAX_VALUE), isNull(), isNull(), eq(true), any()))
+                .thenReturn(List.of(new UserSummary(1L, 111L, "dima", null, null, null, null, true, null, null, null)));
+        mockMvc.perform(MockMvcRequestBuilders.get("/users/page")
+                        .param("volunteer", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].telegramId").value(111L))
+                .andExpect(jsonPath("$.items[0].volunteer").value(true))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+    }
+
+    @Test
+    public void getUsersPage_invalidLimit() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/users/page")
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,75 @@
+package com.skypro.telegram_team.dto;
+
+import com.skypro.telegram_team.exception.InvalidDataException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+class KeysetRequestTest {
+
+    @Test
+    void bounds_firstPage() {
+        //When
+        KeysetRequest actual = new KeysetRequest(null, 10, null);
+        //Then
+        Assertions.assertThat(actual.direction()).isEqualTo(Sort.Direction.ASC);
+        Assertions.assertThat(actual.afterId()).isEqualTo(Long.MIN_VALUE);
+        Assertions.assertThat(actual.beforeId()).isEqualTo(Long.MAX_VALUE);
+        Assertions.assertThat(actual.pageable().getPageSize()).isEqualTo(10);
+        Assertions.assertThat(actual.pageable().getSort().getOrderFor("id").getDirection())
+                .isEqualTo(Sort.Direction.ASC);
+    }
+
+    @Test
+    void bounds_ascending() {
+        //When
+        KeysetRequest actual = new KeysetRequest(42L, 10, Sort.Direction.ASC);
+        //Then
+        Assertions.assertThat(actual.afterId()).isEqualTo(42L);
+        Assertions.assertThat(actual.beforeId()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void bounds_descending() {
+        //When
+        KeysetRequest actual = new KeysetRequest(42L, 10, Sort.Direction.DESC);
+        //Then
+        Assertions.assertThat(actual.afterId()).isEqualTo(Long.MIN_VALUE);
+        Assertions.assertThat(actual.beforeId()).isEqualTo(42L);
+        Assertions.assertThat(actual.pageable().getSort().getOrderFor("id").getDirection())
+                .isEqualTo(Sort.Direction.DESC);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, KeysetRequest.MAX_LIMIT + 1})
+    void limit_invalid(int limit) {
+        //Then
+        Assertions.assertThatThrownBy(() -> new KeysetRequest(null, limit, Sort.Direction.ASC))
+                .isInstanceOf(InvalidDataException.class);
+    }
+
+    @Test
+    void page_full() {
+        //Given
+        KeysetRequest request = new KeysetRequest(null, 2, Sort.Direction.ASC);
+        //When
+        KeysetPage<Long> actual = request.page(List.of(5L, 7L), id -> id);
+        //Then
+        Assertions.assertThat(actual.items()).containsExactly(5L, 7L);
+        Assertions.assertThat(actual.nextCursor()).isEqualTo(7L);
+    }
+
+    @Test
+    void page_last() {
+        //Given
+        KeysetRequest request = new KeysetRequest(null, 3, Sort.Direction.ASC);
+        //When
+        KeysetPage<Long> actual = request.page(List.of(5L, 7L), id -> id);
+        //Then
+        Assertions.assertThat(actual.nextCursor()).isNull();
+    }
+}
@@ -0,0 +1,64 @@
+package com.skypro.telegram_team.export;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+class ReportExportWriterTest {
+    private final ReportExportRow row = new ReportExportRow(1L, LocalDateTime.of(2023, 4, 1, 12, 30),
+            2L, 3L, null, "корм, вода", "say \"hi\"", "line1\nline2", "hash");
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Test
+    void ndjson() throws IOException {
+        //Given
+        ReportExportWriter writer = ReportExportFormat.NDJSON.writer(out, false);
+        //When
+        writer.write(row);
+        writer.write(row);
+        writer.finish();
+        //Then
+        String expected = "{\"id\":1,\"date\":\"2023-04-01T12:30\",\"userId\":2,\"animalId\":3,\"shelterId\":null,"
+                + "\"diet\":\"корм, вода\",\"wellBeing\":\"say \\\"hi\\\"\",\"changeBehavior\":\"line1\\nline2\"}\n";
+        Assertions.assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(expected + expected);
+    }
+
+    @Test
+    void ndjson_photos() throws IOException {
+        //Given
+        ReportExportWriter writer = ReportExportFormat.NDJSON.writer(out, true);
+        //When
+        writer.write(row);
+        writer.finish();
+        //Then
+        Assertions.assertThat(out.toString(StandardCharsets.UTF_8)).endsWith(",\"photo\":\"/reports/1/photo\"}\n");
+    }
+
+    @Test
+    void csv() throws IOException {
+        //Given
+        ReportExportWriter writer = ReportExportFormat.CSV.writer(out, true);
+        //When
+        writer.write(row);
+        writer.finish();
+        //Then
+        Assertions.assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,date,userId,animalId,shelterId,diet,wellBeing,changeBehavior,photo\r\n"
+                        + "1,2023-04-01T12:30,2,3,,\"корм, вода\",\"say \"\"hi\"\"\",\"line1\nline2\",/reports/1/photo\r\n");
+    }
+
+    @Test
+    void csv_empty() throws IOException {
+        //Given
+        ReportExportWriter writer = ReportExportFormat.CSV.writer(out, false);
+        //When
+        writer.finish();
+        //Then
+        Assertions.assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo("id,date,userId,animalId,shelterId,diet,wellBeing,changeBehavior\r\n");
+    }
+}
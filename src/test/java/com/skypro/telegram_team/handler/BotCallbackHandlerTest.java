@@ -1,6 +1,10 @@
 package com.skypro.telegram_team.handler;
 
 import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+import com.pengrad.telegrambot.request.EditMessageReplyMarkup;
+import com.pengrad.telegrambot.request.EditMessageText;
+import com.skypro.telegram_team.cache.ShelterInfoCache;
 import com.skypro.telegram_team.keyboard.Callback;
 import com.skypro.telegram_team.handler.buffer.QuestionsBuffer;
 import com.skypro.telegram_team.handler.buffer.RequestsBuffer;
@@ -8,6 +12,8 @@ import com.skypro.telegram_team.listener.BotListenerUtil;
 import com.skypro.telegram_team.model.User;
 import com.skypro.telegram_team.service.ShelterService;
 import com.skypro.telegram_team.service.UserService;
+import com.skypro.telegram_team.timer.VolunteerDigest;
+import com.skypro.telegram_team.timer.VolunteerDigestStore;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,10 +25,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,13 +46,14 @@ class BotCallbackHandlerTest {
     private QuestionsBuffer questionsBuffer;
     @Mock
     private RequestsBuffer requestsBuffer;
+    private final VolunteerDigestStore digestStore = new VolunteerDigestStore(Duration.ofHours(1), 10);
 
     @InjectMocks
     private BotCallbackHandler out;
 
     @BeforeEach
     void setUp() {
-        out = new BotCallbackHandler(userService, shelterService, questionsBuffer, requestsBuffer);
+        out = new BotCallbackHandler(userService, shelterService, questionsBuffer, requestsBuffer, digestStore);
         when(userService.findByTelegramId(any())).thenReturn(BotListenerUtil.mockUser());
     }
 
@@ -50,6 +62,11 @@ class BotCallbackHandlerTest {
     void processCallback_Callbacks(String command, String message) throws Exception {
         //Given
         Update update = BotListenerUtil.generateUpdateWithCallback(command);
+        if (ShelterInfoCache.callbacks().contains(Callback.valueOf(command))) {
+            ShelterInfoCache shelterInfoCache = new ShelterInfoCache();
+            when(shelterService.findInfo(eq(1L), any())).thenAnswer(invocation -> shelterInfoCache.get(
+                    invocation.getArgument(0), invocation.getArgument(1), () -> List.of(BotListenerUtil.mockShelter())));
+        }
         //When
         var actual = out.processCallback(update.callbackQuery());
         //Then
@@ -125,4 +142,121 @@ class BotCallbackHandlerTest {
         Assertions.assertThat(actual.get(0).getParameters().get("text")).isEqualTo("Приют выбран");
         Assertions.assertThat(actual.get(0).getParameters().get("reply_markup")).isNotNull();
     }
-}
\ No newline at end of file
+
+    @Test
+    void processCallback_AdopterInfo() throws Exception {
+        //Given
+        Update update = BotListenerUtil.generateUpdateWithCallback(Callback.ADOPTER_INFO.name() + "1");
+        when(userService.findByTelegramId(any())).thenReturn(BotListenerUtil.mockVolunteer());
+        User adopter = BotListenerUtil.mockUser();
+        adopter.setPhone("+79990000000");
+        when(userService.findById(1L)).thenReturn(adopter);
+        //When
+        var actual = out.processCallback(update.callbackQuery());
+        //Then
+        Assertions.assertThat(actual).hasSize(1);
+        Assertions.assertThat(actual.get(0).getParameters().get("chat_id")).isEqualTo(update.callbackQuery().message().chat().id());
+        Assertions.assertThat((String) actual.get(0).getParameters().get("text"))
+                .startsWith("name surname")
+                .contains("+79990000000");
+    }
+
+    @Test
+    void processCallback_AdopterInfoNotVolunteer() throws Exception {
+        //Given
+        Update update = BotListenerUtil.generateUpdateWithCallback(Callback.ADOPTER_INFO.name() + "1");
+        //When
+        var actual = out.processCallback(update.callbackQuery());
+        //Then
+        Assertions.assertThat(actual.get(0).getParameters().get("text")).isEqualTo("Доступно только волонтерам");
+        verify(userService, never()).findById(any());
+    }
+
+    @Test
+    void processCallback_SheltersPageWithoutShelter() throws Exception {
+        //Given
+        Update update = BotListenerUtil.generateUpdateWithCallback(Callback.SHELTERS_PAGE.name() + "1");
+        User user = BotListenerUtil.mockUser();
+        user.setShelter(null);
+        InlineKeyboardMarkup markup = new InlineKeyboardMarkup();
+        when(userService.findByTelegramId(any())).thenReturn(user);
+        when(shelterService.getSheltersKeyboard(1)).thenReturn(markup);
+        //When
+        var actual = out.processCallback(update.callbackQuery());
+        //Then
+        Assertions.assertThat(actual.get(0)).isInstanceOf(EditMessageReplyMarkup.class);
+        Assertions.assertThat(actual.get(0).getParameters())
+                .containsEntry("chat_id", 11L)
+                .containsEntry("message_id", 5)
+                .containsEntry("reply_markup", markup);
+    }
+
+    @Test
+    void processCallback_VolunteersPage() throws Exception {
+        //Given
+        Update update = BotListenerUtil.generateUpdateWithCallback(Callback.VOLUNTEERS_PAGE.name() + "99999999999");
+        InlineKeyboardMarkup markup = new InlineKeyboardMarkup();
+        when(userService.getVolunteersKeyboard(Integer.MAX_VALUE)).thenReturn(markup);
+        //When
+        var actual = out.processCallback(update.callbackQuery());
+        //Then
+        Assertions.assertThat(actual.get(0)).isInstanceOf(EditMessageReplyMarkup.class);
+        Assertions.assertThat(actual.get(0).getParameters())
+                .containsEntry("message_id", 5)
+                .containsEntry("reply_markup", markup);
+    }
+
+    @Test
+    void processCallback_DigestPage() throws Exception {
+        //Given
+        VolunteerDigest digest = new VolunteerDigest();
+        digest.add(VolunteerDigest.Topic.ADOPTED, 1L, "Ivan", "Ivanov", null);
+        long digestId = digestStore.save(digest);
+        Update update = BotListenerUtil.generateUpdateWithCallback(Callback.DIGEST_PAGE.name() + digestId + "_0");
+        User volunteer = BotListenerUtil.mockVolunteer();
+        volunteer.setShelter(null);
+        when(userService.findByTelegramId(any())).thenReturn(volunteer);
+        //When
+        var actual = out.processCallback(update.callbackQuery());
+        //Then
+        Assertions.assertThat(actual.get(0)).isInstanceOf(EditMessageText.class);
+        Assertions.assertThat(actual.get(0).getParameters()).containsEntry("message_id", 5);
+        Assertions.assertThat((String) actual.get(0).getParameters().get("text")).contains("Ivan Ivanov");
+    }
+
+    @Test
+    void processCallback_DigestPageExpiredOrNotVolunteer() throws Exception {
+        //Given
+        Update update = BotListenerUtil.generateUpdateWithCallback(Callback.DIGEST_PAGE.name() + "1_0");
+        //When
+        var notVolunteer = out.processCallback(update.callbackQuery());
+        when(userService.findByTelegramId(any())).thenReturn(BotListenerUtil.mockVolunteer());
+        var expired = out.processCallback(update.callbackQuery());
+        //Then
+        Assertions.assertThat(notVolunteer.get(0).getParameters().get("text")).isEqualTo("Доступно только волонтерам");
+        Assertions.assertThat(expired.get(0).getParameters().get("text")).isEqualTo("Сводка устарела");
+    }
+
+    @Test
+    void processCallback_WithoutShelter() throws Exception {
+        //Given
+        Update update = BotListenerUtil.generateUpdateWithCallback(Callback.INF_ADDRESS.name());
+        User user = BotListenerUtil.mockUser();
+        user.setShelter(null);
+        when(userService.findByTelegramId(any())).thenReturn(user);
+        //When
+        var actual = out.processCallback(update.callbackQuery());
+        //Then
+        Assertions.assertThat(actual.get(0).getParameters().get("text")).isEqualTo("Приют не выбран");
+    }
+
+    @Test
+    void processCallback_Unknown() throws Exception {
+        //Given
+        Update update = BotListenerUtil.generateUpdateWithCallback("UNKNOWN");
+        //When
+        var actual = out.processCallback(update.callbackQuery());
+        //Then
+        Assertions.assertThat(actual).isEmpty();
+    }
+}
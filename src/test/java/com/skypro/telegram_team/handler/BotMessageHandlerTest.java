@@ -9,6 +9,7 @@ import com.pengrad.telegrambot.model.request.Keyboard;
 import com.pengrad.telegrambot.request.GetFile;
 import com.pengrad.telegrambot.request.SendMessage;
 import com.pengrad.telegrambot.response.GetFileResponse;
+import com.skypro.telegram_team.cache.KeyboardCache;
 import com.skypro.telegram_team.exception.InvalidDataException;
 import com.skypro.telegram_team.handler.buffer.Question;
 import com.skypro.telegram_team.handler.buffer.QuestionsBuffer;
@@ -36,6 +37,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
@@ -60,6 +63,8 @@ class BotMessageHandlerTest {
     @Mock
     private ReportService reportService;
 
+    private final KeyboardCache keyboardCache = new KeyboardCache(Duration.ofMinutes(5), 10, Instant::now);
+
     @InjectMocks
     private BotMessageHandler out;
 
@@ -74,6 +79,11 @@ class BotMessageHandlerTest {
     void processMessage_MenuItems(String menuText, String message) throws Exception {
         //Given
         Update update = BotListenerUtil.generateUpdate(menuText);
+        if (Menu.SET_SHELTER.getText().equals(menuText)) {
+            when(shelterService.getSheltersKeyboard(0)).thenReturn(keyboardCache.getShelters(0, Collections::emptyList));
+        } else if (Menu.ASK_VOLUNTEER.getText().equals(menuText)) {
+            when(userService.getVolunteersKeyboard(0)).thenReturn(keyboardCache.getVolunteers(0, Collections::emptyList));
+        }
         //When
         var actual = out.processMessage(update.message());
         //Then
@@ -91,7 +101,8 @@ class BotMessageHandlerTest {
                 Arguments.of(Menu.GET_ANIMAL.getText(), "Как взять животное"),
                 Arguments.of(Menu.SEND_REPORT.getText(), "Какие данные отправить?"),
                 Arguments.of(Menu.SET_USER_DATA.getText(), "Какие данные записать?"),
-                Arguments.of(Menu.ASK_VOLUNTEER.getText(), "Кого спросить?")
+                Arguments.of(Menu.ASK_VOLUNTEER.getText(), "Кого спросить?"),
+                Arguments.of("/start@shelter_bot", "Привет! Для продолжения работы выберите приют.")
         );
     }
 
@@ -123,7 +134,8 @@ class BotMessageHandlerTest {
         //Given
         Update update = BotListenerUtil.generateUpdate(Menu.SET_SHELTER.getText());
         //When
-        when(shelterService.findAll()).thenReturn(Collections.singletonList(BotListenerUtil.mockShelter()));
+        when(shelterService.getSheltersKeyboard(0)).thenReturn(keyboardCache.getShelters(0,
+                () -> Collections.singletonList(BotListenerUtil.mockShelter())));
         var actual = out.processMessage(update.message());
         InlineKeyboardButton[][] buttons = ((InlineKeyboardMarkup) actual.get(0).getParameters().get("reply_markup")).inlineKeyboard();
         //Then
@@ -136,7 +148,8 @@ class BotMessageHandlerTest {
         //Given
         Update update = BotListenerUtil.generateUpdate(Menu.ASK_VOLUNTEER.getText());
         //When
-        when(userService.findVolunteers()).thenReturn(Collections.singletonList(BotListenerUtil.mockVolunteer()));
+        when(userService.getVolunteersKeyboard(0)).thenReturn(keyboardCache.getVolunteers(0,
+                () -> Collections.singletonList(BotListenerUtil.mockVolunteer())));
         var actual = out.processMessage(update.message());
         InlineKeyboardButton[][] buttons = ((InlineKeyboardMarkup) actual.get(0).getParameters().get("reply_markup")).inlineKeyboard();
         //Then
@@ -2,6 +2,7 @@ package com.skypro.telegram_team.handler;
 
 import com.pengrad.telegrambot.BotUtils;
 import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.request.BaseRequest;
 import com.pengrad.telegrambot.request.SendMessage;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -53,7 +54,7 @@ class BotUpdateHandlerTest {
     void processUpdate_callback() throws IOException {
         //Given
         Update update = generateUpdateWithCallback("data");
-        List<SendMessage> expected = Collections.singletonList(
+        List<BaseRequest<?, ?>> expected = Collections.singletonList(
                 new SendMessage(update.message().chat().id(), "message"));
         //When
         when(callbackListener.processCallback(update.callbackQuery())).thenReturn(expected);
@@ -0,0 +1,76 @@
+package com.skypro.telegram_team.handler.buffers;
+
+import com.skypro.telegram_team.handler.buffer.DialogState;
+import com.skypro.telegram_team.handler.buffer.JdbcDialogStateStorage;
+import com.skypro.telegram_team.handler.buffer.Request;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+
+@ExtendWith(MockitoExtension.class)
+class JdbcDialogStateStorageTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @InjectMocks
+    private JdbcDialogStateStorage out;
+    @Captor
+    private ArgumentCaptor<List<Object[]>> upserts;
+    @Captor
+    private ArgumentCaptor<List<Object[]>> deletes;
+
+    @Test
+    void flush_keepsLastChange() {
+        //Given
+        Request request = new Request(11L);
+        out.save(DialogState.of(request, Instant.now()));
+        request.setUserEmailRequested(true);
+        out.save(DialogState.of(request, Instant.now()));
+        out.delete(DialogState.Kind.QUESTION, 12L);
+        //When
+        out.flush();
+        //Then
+        Mockito.verify(jdbcTemplate).batchUpdate(startsWith("INSERT"), upserts.capture());
+        Mockito.verify(jdbcTemplate).batchUpdate(startsWith("DELETE"), deletes.capture());
+        Assertions.assertThat(upserts.getValue()).hasSize(1);
+        Assertions.assertThat(upserts.getValue().get(0)[4]).isEqualTo(2);
+        Assertions.assertThat(deletes.getValue()).hasSize(1);
+        Assertions.assertThat(deletes.getValue().get(0)).containsExactly("QUESTION", 12L);
+    }
+
+    @Test
+    void flush_nothingToWrite() {
+        //When
+        out.flush();
+        //Then
+        Mockito.verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void flush_retriesAfterError() {
+        //Given
+        out.delete(DialogState.Kind.REQUEST, 11L);
+        Mockito.when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("error"))
+                .thenReturn(new int[]{1});
+        //When
+        out.flush();
+        out.flush();
+        //Then
+        Mockito.verify(jdbcTemplate, Mockito.times(2)).batchUpdate(startsWith("DELETE"), anyList());
+    }
+}
@@ -1,18 +1,27 @@
 package com.skypro.telegram_team.handler.buffers;
 
+import com.skypro.telegram_team.handler.buffer.DialogState;
+import com.skypro.telegram_team.handler.buffer.DialogStateStorage;
 import com.skypro.telegram_team.handler.buffer.Question;
 import com.skypro.telegram_team.handler.buffer.QuestionsBuffer;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 
 class QuestionsBufferTest {
+    private DialogStateStorage storage;
     private QuestionsBuffer out;
     private Question expected;
 
     @BeforeEach
     void setUp() {
-        out = new QuestionsBuffer();
+        storage = Mockito.mock(DialogStateStorage.class);
+        out = new QuestionsBuffer(storage, Duration.ofHours(24), 2);
         expected = new Question(11L, 12L);
         expected.setId(1);
         expected.setQuestion("question");
@@ -71,4 +80,105 @@ class QuestionsBufferTest {
         Assertions.assertThat(actual.isPresent()).isTrue();
         Assertions.assertThat(actual.get()).isEqualTo(expected);
     }
-}
\ No newline at end of file
+
+    @Test
+    void setQuestionId() {
+        //Given
+        Question question = new Question(21L, 12L);
+        out.addQuestion(question);
+        //When
+        out.setQuestionId(question, 5);
+        //Then
+        Assertions.assertThat(out.getQuestionById(5).isPresent()).isTrue();
+        Assertions.assertThat(out.getQuestionById(5).get()).isSameAs(question);
+    }
+
+    @Test
+    void addQuestion_replacesUserQuestion() {
+        //Given
+        out.addQuestion(expected);
+        Question next = new Question(11L, 13L);
+        //When
+        out.addQuestion(next);
+        //Then
+        Assertions.assertThat(out.getQuestionByUserChat(11L).get()).isSameAs(next);
+        Assertions.assertThat(out.getQuestionById(1).isPresent()).isFalse();
+        Assertions.assertThat(out.getQuestionByVolunteerChat(12L).isPresent()).isFalse();
+    }
+
+    @Test
+    void delQuestion_keepsOtherVolunteerQuestions() {
+        //Given
+        Question other = new Question(21L, 12L);
+        out.addQuestion(expected);
+        out.addQuestion(other);
+        //When
+        out.delQuestion(expected);
+        //Then
+        Assertions.assertThat(out.getQuestionByVolunteerChat(12L).get()).isSameAs(other);
+        Assertions.assertThat(out.getQuestionByUserChat(11L).isPresent()).isFalse();
+    }
+
+    @Test
+    void evictExpired() {
+        //Given
+        out.addQuestion(expected);
+        //When
+        var actual = out.evictExpired(Instant.now().plus(Duration.ofHours(25)));
+        //Then
+        Assertions.assertThat(actual).containsExactly(expected);
+        Assertions.assertThat(out.getQuestionById(1).isPresent()).isFalse();
+        Assertions.assertThat(out.getQuestionByUserChat(11L).isPresent()).isFalse();
+        Assertions.assertThat(out.getQuestionByVolunteerChat(12L).isPresent()).isFalse();
+        Assertions.assertThat(out.getEvictedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void addQuestion_evictsEldestOnOverflow() {
+        //Given
+        out.addQuestion(expected);
+        out.addQuestion(new Question(21L, 12L));
+        //When
+        out.addQuestion(new Question(31L, 12L));
+        //Then
+        Assertions.assertThat(out.getQuestionByUserChat(11L).isPresent()).isFalse();
+        Assertions.assertThat(out.size()).isEqualTo(2);
+        Assertions.assertThat(out.getEvictedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void setQuestionId_savesState() {
+        //Given
+        out.addQuestion(expected);
+        //When
+        out.setQuestionId(expected, 2);
+        //Then
+        Mockito.verify(storage).save(Mockito.argThat(state -> state.getKind() == DialogState.Kind.QUESTION
+                && state.getChatId() == 11L && Integer.valueOf(2).equals(state.getMessageId())));
+    }
+
+    @Test
+    void delQuestion_deletesState() {
+        //Given
+        out.addQuestion(expected);
+        //When
+        out.delQuestion(expected);
+        //Then
+        Mockito.verify(storage).delete(DialogState.Kind.QUESTION, 11L);
+    }
+
+    @Test
+    void restore() {
+        //Given
+        Mockito.when(storage.loadAll()).thenReturn(List.of(
+                DialogState.of(expected, Instant.now()),
+                new DialogState(DialogState.Kind.REQUEST, 13L, null, null, 1, null, Instant.now())));
+        //When
+        out.restore();
+        //Then
+        Assertions.assertThat(out.getQuestionById(1).isPresent()).isTrue();
+        Assertions.assertThat(out.getQuestionByUserChat(11L).get().getQuestion()).isEqualTo("question");
+        Assertions.assertThat(out.getQuestionByVolunteerChat(12L).isPresent()).isTrue();
+        Assertions.assertThat(out.getQuestionByUserChat(13L).isPresent()).isFalse();
+    }
+}
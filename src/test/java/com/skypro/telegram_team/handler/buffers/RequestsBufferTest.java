@@ -1,18 +1,29 @@
 package com.skypro.telegram_team.handler.buffers;
 
+import com.skypro.telegram_team.handler.buffer.DialogState;
+import com.skypro.telegram_team.handler.buffer.DialogStateStorage;
 import com.skypro.telegram_team.handler.buffer.Request;
 import com.skypro.telegram_team.handler.buffer.RequestsBuffer;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
 
 class RequestsBufferTest {
+    private DialogStateStorage storage;
     private RequestsBuffer out;
     private Request expected;
 
     @BeforeEach
     void setUp() {
-        out = new RequestsBuffer();
+        storage = Mockito.mock(DialogStateStorage.class);
+        out = new RequestsBuffer(storage, Duration.ofMinutes(30), 2);
         expected = new Request(11L);
         expected.setUserPhoneRequested(true);
     }
@@ -46,4 +57,74 @@ class RequestsBufferTest {
         Assertions.assertThat(actual.isPresent()).isTrue();
         Assertions.assertThat(actual.get()).isEqualTo(expected);
     }
-}
\ No newline at end of file
+
+    @Test
+    void evictExpired() {
+        //Given
+        out.addRequest(expected);
+        //When
+        var actual = out.evictExpired(Instant.now().plus(Duration.ofMinutes(31)));
+        //Then
+        Assertions.assertThat(actual).containsExactly(expected);
+        Assertions.assertThat(out.getRequest(11L).isPresent()).isFalse();
+        Assertions.assertThat(out.getEvictedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void evictExpired_keepsActual() {
+        //Given
+        out.addRequest(expected);
+        //When
+        var actual = out.evictExpired(Instant.now());
+        //Then
+        Assertions.assertThat(actual).isEmpty();
+        Assertions.assertThat(out.getRequest(11L).isPresent()).isTrue();
+    }
+
+    @Test
+    void addRequest_evictsEldestOnOverflow() {
+        //Given
+        out.addRequest(expected);
+        out.addRequest(new Request(12L));
+        //When
+        out.addRequest(new Request(13L));
+        //Then
+        Assertions.assertThat(out.getRequest(11L).isPresent()).isFalse();
+        Assertions.assertThat(out.size()).isEqualTo(2);
+        Assertions.assertThat(out.getEvictedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void addRequest_savesState() {
+        //When
+        out.addRequest(expected);
+        //Then
+        Mockito.verify(storage).save(Mockito.argThat(state -> state.getKind() == DialogState.Kind.REQUEST
+                && state.getChatId() == 11L && state.getFlags() == 1));
+    }
+
+    @Test
+    void delRequest_deletesState() {
+        //Given
+        out.addRequest(expected);
+        //When
+        out.delRequest(expected);
+        //Then
+        Mockito.verify(storage).delete(DialogState.Kind.REQUEST, 11L);
+    }
+
+    @Test
+    void restore() {
+        //Given
+        Mockito.when(storage.loadAll()).thenReturn(List.of(
+                DialogState.of(expected, Instant.now()),
+                new DialogState(DialogState.Kind.QUESTION, 12L, 21L, 1, 0, "text", Instant.now())));
+        //When
+        out.restore();
+        //Then
+        Assertions.assertThat(out.getRequest(11L).isPresent()).isTrue();
+        Assertions.assertThat(out.getRequest(11L).get().isUserPhoneRequested()).isTrue();
+        Assertions.assertThat(out.getRequest(12L).isPresent()).isFalse();
+        Mockito.verify(storage, Mockito.never()).save(any());
+    }
+}
@@ -0,0 +1,75 @@
+package com.skypro.telegram_team.importer;
+
+import com.skypro.telegram_team.exception.InvalidDataException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+class CsvParserTest {
+
+    @Test
+    void parse_quotedValues() throws IOException {
+        //Given
+        String csv = "﻿name,description,type\r\n"
+                + "Барсик,\"Рыжий, \"\"домашний\"\"\nкот\",CAT\r\n"
+                + "\r\n"
+                + "Шарик,,DOG";
+        //When
+        var actual = CsvParser.parse(new StringReader(csv), new ArrayList<>());
+        //Then
+        Assertions.assertThat(actual).hasSize(2);
+        Assertions.assertThat(actual.get(0)).containsExactly(
+                Map.entry("name", "Барсик"),
+                Map.entry("description", "Рыжий, \"домашний\"\nкот"),
+                Map.entry("type", "CAT"));
+        Assertions.assertThat(actual.get(1)).containsEntry("name", "Шарик")
+                .containsEntry("description", null)
+                .containsEntry("type", "DOG");
+    }
+
+    @Test
+    void parse_empty() throws IOException {
+        //Then
+        Assertions.assertThat(CsvParser.parse(new StringReader(""), new ArrayList<>())).isEmpty();
+        Assertions.assertThat(CsvParser.parse(new StringReader("name,type\n"), new ArrayList<>())).isEmpty();
+    }
+
+    @Test
+    void parse_columnCountMismatch() throws IOException {
+        //Given
+        String csv = """
+                name,type
+                Барсик,CAT
+                Шарик
+                Мурка,CAT
+                Бобик,DOG,лишнее
+                Снежок,CAT
+                """;
+        List<ImportError> errors = new ArrayList<>();
+        //When
+        var actual = CsvParser.parse(new StringReader(csv), errors);
+        //Then
+        Assertions.assertThat(actual).hasSize(5);
+        Assertions.assertThat(actual.get(1)).isNull();
+        Assertions.assertThat(actual.get(3)).isNull();
+        Assertions.assertThat(actual).filteredOn(Objects::nonNull)
+                .extracting(row -> row.get("name"))
+                .containsExactly("Барсик", "Мурка", "Снежок");
+        Assertions.assertThat(errors).containsExactly(
+                new ImportError(2, "Ожидается 2 значений, получено 1"),
+                new ImportError(4, "Ожидается 2 значений, получено 3"));
+    }
+
+    @Test
+    void parse_unclosedQuote() {
+        //Then
+        Assertions.assertThatThrownBy(() -> CsvParser.parse(new StringReader("name\n\"Барсик\n"), new ArrayList<>()))
+                .isInstanceOf(InvalidDataException.class);
+    }
+}
@@ -0,0 +1,41 @@
+package com.skypro.telegram_team.keyboard;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class CallbackRoutesTest {
+
+    @ParameterizedTest
+    @EnumSource(Callback.class)
+    void route_allCallbacks(Callback callback) {
+        //Given
+        String data = callback.isWithPayload() ? callback.name() + "42" : callback.name();
+        //When
+        var actual = CallbackRoutes.route(data);
+        //Then
+        Assertions.assertThat(actual.callback()).isEqualTo(callback);
+        if (callback.isWithPayload()) {
+            Assertions.assertThat(actual.payloadAsLong()).isEqualTo(42L);
+        } else {
+            Assertions.assertThat(actual.payload()).isNull();
+        }
+    }
+
+    @Test
+    void route_exactNameNotConfusedWithPrefix() {
+        //When
+        var actual = CallbackRoutes.route(Callback.ASK_ANY_VOLUNTEER.name());
+        //Then
+        Assertions.assertThat(actual.callback()).isEqualTo(Callback.ASK_ANY_VOLUNTEER);
+    }
+
+    @Test
+    void route_unknown() {
+        //Then
+        Assertions.assertThat(CallbackRoutes.route("UNKNOWN")).isNull();
+        Assertions.assertThat(CallbackRoutes.route(Callback.INF_ADDRESS.name() + "1")).isNull();
+        Assertions.assertThat(CallbackRoutes.route(null)).isNull();
+    }
+}
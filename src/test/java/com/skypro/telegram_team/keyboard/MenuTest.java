@@ -0,0 +1,33 @@
+package com.skypro.telegram_team.keyboard;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class MenuTest {
+
+    @ParameterizedTest
+    @EnumSource(Menu.class)
+    void fromText_allMenus(Menu menu) {
+        //Then
+        Assertions.assertThat(Menu.fromText(menu.getText())).contains(menu);
+    }
+
+    @Test
+    void fromText_commandWithBotNameAndArguments() {
+        //Then
+        Assertions.assertThat(Menu.fromText("/start@shelter_bot")).contains(Menu.START);
+        Assertions.assertThat(Menu.fromText("/start ref_1")).contains(Menu.START);
+    }
+
+    @Test
+    void fromText_notMenu() {
+        //Then
+        Assertions.assertThat(Menu.fromText(null)).isEmpty();
+        Assertions.assertThat(Menu.fromText("")).isEmpty();
+        Assertions.assertThat(Menu.fromText("/unknown")).isEmpty();
+        Assertions.assertThat(Menu.fromText("/info")).isEmpty();
+        Assertions.assertThat(Menu.fromText("О приюте ")).isEmpty();
+    }
+}
@@ -0,0 +1,62 @@
+package com.skypro.telegram_team.keyboard;
+
+import com.pengrad.telegrambot.model.request.InlineKeyboardButton;
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+class PagedKeyboardTest {
+    private final List<InlineKeyboardButton> footer = List.of(new InlineKeyboardButton("footer").callbackData("F"));
+
+    @Test
+    void of_pages() {
+        //Given
+        List<InlineKeyboardButton> buttons = IntStream.range(0, 5)
+                .mapToObj(i -> new InlineKeyboardButton("b" + i).callbackData("B" + i))
+                .toList();
+        //When
+        var actual = PagedKeyboard.of(buttons, Callback.SHELTERS_PAGE, footer, 2);
+        //Then
+        Assertions.assertThat(actual.size()).isEqualTo(3);
+        Assertions.assertThat(callbackData(actual.page(0)))
+                .containsExactly(List.of("B0"), List.of("B1"), List.of("SHELTERS_PAGE1"), List.of("F"));
+        Assertions.assertThat(callbackData(actual.page(1)))
+                .containsExactly(List.of("B2"), List.of("B3"), List.of("SHELTERS_PAGE0", "SHELTERS_PAGE2"), List.of("F"));
+        Assertions.assertThat(callbackData(actual.page(2)))
+                .containsExactly(List.of("B4"), List.of("SHELTERS_PAGE1"), List.of("F"));
+        Assertions.assertThat(actual.page(1).inlineKeyboard()[2][0].text()).isEqualTo(PagedKeyboard.PREVIOUS_TEXT);
+        Assertions.assertThat(actual.page(1).inlineKeyboard()[2][1].text()).isEqualTo(PagedKeyboard.NEXT_TEXT);
+    }
+
+    @Test
+    void of_singlePageWithoutNavigation() {
+        //When
+        var actual = PagedKeyboard.of(List.of(), Callback.VOLUNTEERS_PAGE, footer, 10);
+        //Then
+        Assertions.assertThat(actual.size()).isEqualTo(1);
+        Assertions.assertThat(callbackData(actual.page(0))).containsExactly(List.of("F"));
+    }
+
+    @Test
+    void page_outOfRange() {
+        //Given
+        List<InlineKeyboardButton> buttons = List.of(new InlineKeyboardButton("b0").callbackData("B0"),
+                new InlineKeyboardButton("b1").callbackData("B1"));
+        var out = PagedKeyboard.of(buttons, Callback.SHELTERS_PAGE, List.of(), 1);
+        //Then
+        Assertions.assertThat(out.page(-1)).isSameAs(out.page(0));
+        Assertions.assertThat(out.page(Integer.MAX_VALUE)).isSameAs(out.page(1));
+        Assertions.assertThatThrownBy(() -> PagedKeyboard.of(buttons, Callback.SHELTERS_PAGE, List.of(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<List<String>> callbackData(InlineKeyboardMarkup markup) {
+        return Arrays.stream(markup.inlineKeyboard())
+                .map(row -> Arrays.stream(row).map(InlineKeyboardButton::callbackData).toList())
+                .toList();
+    }
+}
@@ -0,0 +1,100 @@
+package com.skypro.telegram_team.listener;
+
+import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.request.BaseRequest;
+import com.pengrad.telegrambot.request.SendMessage;
+import com.skypro.telegram_team.exception.InvalidDataException;
+import com.skypro.telegram_team.handler.BotUpdateHandler;
+import com.skypro.telegram_team.sender.BotMessageSender;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BotUpdatesDispatcherTest {
+    @Mock
+    private BotMessageSender messageSender;
+    @Mock
+    private BotUpdateHandler updateHandler;
+
+    private BotUpdatesDispatcher out;
+
+    @BeforeEach
+    void setUp() {
+        out = new BotUpdatesDispatcher(messageSender, updateHandler, 4);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        out.shutdown();
+    }
+
+    @Test
+    void dispatchAndWait_ok() throws Exception {
+        //Given
+        Update update = BotListenerUtil.generateUpdate("/start");
+        List<BaseRequest<?, ?>> expected = Collections.singletonList(
+                new SendMessage(update.message().chat().id(), update.message().text()));
+        //When
+        when(updateHandler.processUpdate(update)).thenReturn(expected);
+        out.dispatchAndWait(Collections.singletonList(update));
+        //Then
+        Mockito.verify(messageSender).send(expected);
+    }
+
+    @Test
+    void dispatchAndWait_exception() throws Exception {
+        //Given
+        Update update = BotListenerUtil.generateUpdate("/start");
+        //When
+        when(updateHandler.processUpdate(update)).thenThrow(new InvalidDataException("error"));
+        out.dispatchAndWait(Collections.singletonList(update));
+        //Then
+        Mockito.verify(messageSender, times(0)).send(anyList());
+    }
+
+    @Test
+    void dispatchAndWait_keepsChatOrder() throws Exception {
+        //Given
+        List<Update> updates = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            updates.add(BotListenerUtil.generateUpdate(Integer.toString(i)));
+        }
+        List<String> processed = Collections.synchronizedList(new ArrayList<>());
+        //When
+        when(updateHandler.processUpdate(any())).thenAnswer(invocation -> {
+            Update update = invocation.getArgument(0);
+            processed.add(update.message().text());
+            return Collections.emptyList();
+        });
+        out.dispatchAndWait(updates);
+        //Then
+        Assertions.assertThat(processed).containsExactly(updates.stream()
+                .map(update -> update.message().text())
+                .toArray(String[]::new));
+    }
+
+    @Test
+    void getChatId_callback() throws Exception {
+        //Given
+        Update update = BotListenerUtil.generateUpdateWithCallback("INF_ADDRESS");
+        //When
+        var actual = BotUpdatesDispatcher.getChatId(update);
+        //Then
+        Assertions.assertThat(actual).isEqualTo(update.callbackQuery().message().chat().id());
+    }
+}
@@ -0,0 +1,71 @@
+package com.skypro.telegram_team.listener;
+
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.request.SetWebhook;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BotWebhookControllerTest {
+    @Mock
+    private TelegramBot telegramBot;
+    @Mock
+    private BotUpdatesDispatcher updatesDispatcher;
+
+    private BotWebhookController out;
+
+    @BeforeEach
+    void setUp() {
+        out = new BotWebhookController(telegramBot, updatesDispatcher, "https://bot.example.com/telegram/webhook", "secret");
+    }
+
+    @Test
+    void init_setWebhook() {
+        //When
+        when(telegramBot.execute(any())).thenReturn(BotListenerUtil.generateResponseOk());
+        out.init();
+        //Then
+        ArgumentCaptor<SetWebhook> argumentCaptor = ArgumentCaptor.forClass(SetWebhook.class);
+        Mockito.verify(telegramBot).execute(argumentCaptor.capture());
+        Assertions.assertThat(argumentCaptor.getValue().getParameters().get("url"))
+                .isEqualTo("https://bot.example.com/telegram/webhook/secret");
+    }
+
+    @Test
+    void receiveUpdate_ok() throws Exception {
+        //Given
+        String json = Files.readString(Paths.get("src", "test", "resources",
+                "com.skypro.telegram_team.listener", "update.json")).replace("%text%", "/start");
+        //When
+        var actual = out.receiveUpdate("secret", json);
+        //Then
+        Assertions.assertThat(actual.getStatusCode()).isEqualTo(HttpStatus.OK);
+        ArgumentCaptor<Update> argumentCaptor = ArgumentCaptor.forClass(Update.class);
+        Mockito.verify(updatesDispatcher).dispatch(argumentCaptor.capture());
+        Assertions.assertThat(argumentCaptor.getValue().message().text()).isEqualTo("/start");
+    }
+
+    @Test
+    void receiveUpdate_wrongSecret() {
+        //When
+        var actual = out.receiveUpdate("wrong", "{}");
+        //Then
+        Assertions.assertThat(actual.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        Mockito.verify(updatesDispatcher, times(0)).dispatch(any());
+    }
+}
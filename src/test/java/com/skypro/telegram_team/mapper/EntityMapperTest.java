@@ -0,0 +1,131 @@
+package com.skypro.telegram_team.mapper;
+
+import com.skypro.telegram_team.model.Animal;
+import com.skypro.telegram_team.model.Report;
+import com.skypro.telegram_team.model.Shelter;
+import com.skypro.telegram_team.model.User;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.LocalDateTime;
+
+class EntityMapperTest {
+
+    @Test
+    void copy_user() throws IllegalAccessException {
+        //Given
+        User source = new User();
+        source.setId(1L);
+        source.setTelegramId(111L);
+        source.setName("dima");
+        source.setSurname("ivanov");
+        source.setPhone("+79991234567");
+        source.setEmail("dima@mail.ru");
+        source.setDaysForTest(30L);
+        source.setEndTest(LocalDateTime.now());
+        source.setAnimal(new Animal());
+        source.setShelter(new Shelter());
+        source.setState(User.OwnerStateEnum.PROBATION);
+        source.setVolunteer(true);
+        User target = new User();
+        target.setPhone("old");
+        //When
+        EntityMapper.copy(source, target);
+        //Then
+        assertAllFieldsCopied(source, target);
+    }
+
+    @Test
+    void copy_animal() throws IllegalAccessException {
+        //Given
+        Animal source = new Animal();
+        source.setId(1L);
+        source.setName("Шарик");
+        source.setBreed("дворняга");
+        source.setDescription("добрый");
+        source.setUser(new User());
+        source.setShelter(new Shelter());
+        source.setPhotoHash("hash");
+        source.setState(Animal.AnimalStateEnum.IN_TEST);
+        source.setType(Animal.TypeAnimal.DOG);
+        Animal target = new Animal();
+        //When
+        EntityMapper.copy(source, target);
+        //Then
+        assertAllFieldsCopied(source, target);
+    }
+
+    @Test
+    void copy_report() throws IllegalAccessException {
+        //Given
+        Report source = new Report();
+        source.setId(1L);
+        source.setDiet("diet");
+        source.setWellBeing("well");
+        source.setChangeBehavior("behavior");
+        source.setDate(LocalDateTime.now());
+        source.setPhotoHash("hash");
+        source.setUser(new User());
+        source.setAnimal(new Animal());
+        Report target = new Report();
+        //When
+        EntityMapper.copy(source, target);
+        //Then
+        assertAllFieldsCopied(source, target);
+    }
+
+    @Test
+    void copy_nullOverwrites() {
+        //Given
+        User source = new User();
+        User target = new User();
+        target.setPhone("+79991234567");
+        target.setAnimal(new Animal());
+        //When
+        EntityMapper.copy(source, target);
+        //Then
+        Assertions.assertThat(target.getPhone()).isNull();
+        Assertions.assertThat(target.getAnimal()).isNull();
+    }
+
+    @Test
+    void copy_sameAsModelMapper() throws IllegalAccessException {
+        //Given
+        User user = new User();
+        user.setName("dima");
+        user.setPhone("+79991234567");
+        Animal source = new Animal();
+        source.setName("Шарик");
+        source.setUser(user);
+        source.setType(Animal.TypeAnimal.CAT);
+        Animal expected = new Animal();
+        expected.setPhotoHash("hash");
+        Animal actual = new Animal();
+        actual.setPhotoHash("hash");
+        //When
+        new ModelMapper().map(source, expected);
+        EntityMapper.copy(source, actual);
+        //Then
+        assertAllFieldsCopied(expected, actual);
+    }
+
+    /**
+     * Все поля сущности (в том числе добавленные позже) совпадают по значению или ссылке
+     */
+    private static void assertAllFieldsCopied(Object expected, Object actual) throws IllegalAccessException {
+        for (Field field : expected.getClass().getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            field.setAccessible(true);
+            if (field.getType().isPrimitive()) {
+                Assertions.assertThat(field.get(actual)).as(field.getName()).isEqualTo(field.get(expected));
+            } else {
+                Assertions.assertThat(field.get(actual)).as(field.getName()).isSameAs(field.get(expected));
+            }
+        }
+    }
+}
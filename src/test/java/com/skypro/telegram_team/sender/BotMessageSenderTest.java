@@ -0,0 +1,184 @@
+package com.skypro.telegram_team.sender;
+
+import com.pengrad.telegrambot.BotUtils;
+import com.pengrad.telegrambot.Callback;
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.request.SendMessage;
+import com.pengrad.telegrambot.response.SendResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class BotMessageSenderTest {
+    @Mock
+    private TelegramBot telegramBot;
+
+    //Время по часам отправителя, тест переводит его вручную
+    private long now;
+    private BotMessageSender out;
+
+    @AfterEach
+    void tearDown() {
+        out.shutdown();
+    }
+
+    @Test
+    void drain_sendsMessagesOfDifferentChats() {
+        //Given
+        out = new BotMessageSender(telegramBot, 30, 1, 50, 2, Duration.ZERO, () -> now);
+        out.send(List.of(new SendMessage(1L, "first"), new SendMessage(2L, "second")));
+        //When
+        out.drain();
+        //Then
+        List<SendMessage> actual = getActualSendMessages(2);
+        Assertions.assertThat(actual.get(0).getParameters().get("chat_id")).isEqualTo(1L);
+        Assertions.assertThat(actual.get(1).getParameters().get("chat_id")).isEqualTo(2L);
+        Assertions.assertThat(out.getQueueSize()).isZero();
+    }
+
+    @Test
+    void drain_limitsChatRate() {
+        //Given
+        out = new BotMessageSender(telegramBot, 30, 1, 50, 2, Duration.ZERO, () -> now);
+        out.send(List.of(new SendMessage(1L, "first"), new SendMessage(1L, "second")));
+        //When
+        out.drain();
+        //Then
+        List<SendMessage> actual = getActualSendMessages(1);
+        Assertions.assertThat(actual.get(0).getParameters().get("text")).isEqualTo("first");
+        Assertions.assertThat(out.getQueueSize()).isEqualTo(1);
+    }
+
+    @Test
+    void drain_limitsGlobalRate() {
+        //Given
+        out = new BotMessageSender(telegramBot, 2, 1, 50, 2, Duration.ZERO, () -> now);
+        out.send(List.of(new SendMessage(1L, "1"), new SendMessage(2L, "2"), new SendMessage(3L, "3")));
+        //When
+        out.drain();
+        //Then
+        getActualSendMessages(2);
+        Assertions.assertThat(out.getQueueSize()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void drain_retriesTooManyRequests() {
+        //Given
+        out = new BotMessageSender(telegramBot, 30, 1, 50, 2, Duration.ZERO, () -> now);
+        SendMessage first = new SendMessage(1L, "first");
+        out.send(first);
+        SendResponse response = BotUtils.fromJson("""
+                { "ok": false, "error_code": 429, "parameters": { "retry_after": 1 } }""", SendResponse.class);
+        out.drain();
+        ArgumentCaptor<Callback<SendMessage, SendResponse>> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        Mockito.verify(telegramBot).execute(any(SendMessage.class), callbackCaptor.capture());
+        out.send(List.of(new SendMessage(1L, "second"), new SendMessage(2L, "other")));
+        //When
+        callbackCaptor.getValue().onResponse(first, response);
+        out.drain();
+        //Then
+        Mockito.verify(telegramBot, times(1)).execute(any(SendMessage.class), any(Callback.class));
+        Assertions.assertThat(out.getQueueSize()).isEqualTo(3);
+        //When
+        now += TimeUnit.MILLISECONDS.toNanos(999);
+        out.drain();
+        //Then
+        Mockito.verify(telegramBot, times(1)).execute(any(SendMessage.class), any(Callback.class));
+        //When
+        now += TimeUnit.MILLISECONDS.toNanos(101);
+        out.drain();
+        //Then
+        List<SendMessage> actual = getActualSendMessages(3);
+        Assertions.assertThat(actual).extracting(message -> message.getParameters().get("text"))
+                .containsExactly("first", "first", "other");
+        Assertions.assertThat(out.getQueueSize()).isEqualTo(1);
+    }
+
+    @Test
+    void send_delayed() {
+        //Given
+        out = new BotMessageSender(telegramBot, 30, 1, 50, 2, Duration.ZERO, () -> now);
+        out.send(new SendMessage(1L, "now"), Duration.ZERO);
+        out.send(new SendMessage(2L, "soon"), Duration.ofMillis(10));
+        out.send(new SendMessage(3L, "later"), Duration.ofMinutes(1));
+        //Then
+        Assertions.assertThat(out.getQueueSize()).isEqualTo(1);
+        Assertions.assertThat(out.getDelayedCount()).isEqualTo(2);
+        //When
+        now += TimeUnit.MILLISECONDS.toNanos(10);
+        out.drain();
+        //Then
+        List<SendMessage> actual = getActualSendMessages(2);
+        Assertions.assertThat(actual).extracting(message -> message.getParameters().get("text"))
+                .containsExactly("now", "soon");
+        Assertions.assertThat(out.getDelayedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void drain_retriesNetworkFailures() {
+        //Given
+        out = new BotMessageSender(telegramBot, 30, 1, 50, 2, Duration.ZERO, () -> now);
+        SendMessage message = new SendMessage(1L, "first");
+        out.send(message);
+        ArgumentCaptor<Callback<SendMessage, SendResponse>> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            //When
+            out.drain();
+            Mockito.verify(telegramBot, times(attempt)).execute(any(SendMessage.class), callbackCaptor.capture());
+            callbackCaptor.getValue().onFailure(message, new IOException("timeout"));
+            now += TimeUnit.SECONDS.toNanos(1);
+            //Then
+            Assertions.assertThat(out.getQueueSize()).isEqualTo(attempt <= 2 ? 1 : 0);
+        }
+        //When
+        out.drain();
+        //Then
+        Mockito.verify(telegramBot, times(3)).execute(any(SendMessage.class), any(Callback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shutdown_sendsQueuedAndDelayed() {
+        //Given
+        out = new BotMessageSender(telegramBot, 30, 1, 50, 2, Duration.ofSeconds(1), () -> now);
+        SendResponse ok = BotUtils.fromJson("{ \"ok\": true }", SendResponse.class);
+        Mockito.doAnswer(invocation -> {
+            invocation.<Callback<SendMessage, SendResponse>>getArgument(1)
+                    .onResponse(invocation.getArgument(0), ok);
+            return null;
+        }).when(telegramBot).execute(any(SendMessage.class), any(Callback.class));
+        out.send(new SendMessage(1L, "queued"));
+        out.send(new SendMessage(2L, "delayed"), Duration.ofMinutes(1));
+        //When
+        out.shutdown();
+        //Then
+        List<SendMessage> actual = getActualSendMessages(2);
+        Assertions.assertThat(actual).extracting(message -> message.getParameters().get("text"))
+                .containsExactly("queued", "delayed");
+        Assertions.assertThat(out.getQueueSize()).isZero();
+        Assertions.assertThat(out.getDelayedCount()).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SendMessage> getActualSendMessages(int count) {
+        ArgumentCaptor<SendMessage> argumentCaptor = ArgumentCaptor.forClass(SendMessage.class);
+        Mockito.verify(telegramBot, times(count)).execute(argumentCaptor.capture(), any(Callback.class));
+        return argumentCaptor.getAllValues();
+    }
+}
@@ -1,9 +1,13 @@
 package com.skypro.telegram_team.service;
 
+import com.skypro.telegram_team.dto.AnimalSummary;
+import com.skypro.telegram_team.dto.KeysetRequest;
 import com.skypro.telegram_team.model.Animal;
 import com.skypro.telegram_team.model.Shelter;
 import com.skypro.telegram_team.model.User;
 import com.skypro.telegram_team.repository.AnimalRepository;
+import com.skypro.telegram_team.storage.PhotoStorage;
+import com.skypro.telegram_team.storage.StoredPhoto;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,7 +20,10 @@ import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Sort;
 import org.springframework.mock.web.MockMultipartFile;
 
+import javax.persistence.EntityNotFoundException;
+import java.io.ByteArrayInputStream;
 import java.nio.file.Files;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -31,6 +38,8 @@ public class AnimalServiceTest {
     private AnimalService animalService;
     @Mock
     private AnimalRepository animalRepository;
+    @Mock
+    private PhotoStorage photoStorage;
     private Animal expectedAnimal;
 
     @BeforeEach
@@ -161,27 +170,59 @@ public class AnimalServiceTest {
         MockMultipartFile multipartFile = new MockMultipartFile("file", "file.jpeg", "", resource.getInputStream());
         Animal animal = new Animal();
         animal.setId(1L);
-        animal.setPhoto(Files.readAllBytes(resource.getFile().toPath()));
         //When
         when(animalRepository.findById(any())).thenReturn(Optional.of(animal));
         when(animalRepository.save(animal)).thenReturn(animal);
+        when(photoStorage.save(any())).thenReturn("hash");
         animalService.photoUpload(1L, multipartFile);
         //Then
         verify(animalRepository, times(1)).save(animal);
+        Assertions.assertThat(animal.getPhotoHash()).isEqualTo("hash");
     }
 
     @Test
     public void photoDownload() throws Exception {
         //Given
         Resource resource = new ClassPathResource("photo/cat.jpeg");
+        byte[] photo = Files.readAllBytes(resource.getFile().toPath());
         Animal expected = new Animal();
         expected.setId(1L);
-        expected.setPhoto(Files.readAllBytes(resource.getFile().toPath()));
+        expected.setPhotoHash("hash");
         //When
         when(animalRepository.findById(any())).thenReturn(Optional.of(expected));
-        var actual = animalService.photoDownload(1L);
+        when(photoStorage.find("hash")).thenReturn(Optional.of(new StoredPhoto("hash", photo.length, Instant.now())));
+        when(photoStorage.open("hash")).thenReturn(new ByteArrayInputStream(photo));
+        var actual = animalService.photoDownload(1L).getInputStream().readAllBytes();
         //Then
         Assertions.assertThat(actual).isNotEmpty();
-        Assertions.assertThat(Arrays.toString(actual)).isEqualTo(Arrays.toString(expected.getPhoto()));
+        Assertions.assertThat(Arrays.toString(actual)).isEqualTo(Arrays.toString(photo));
+    }
+
+    @Test
+    public void photoDownloadWithoutPhoto() {
+        when(animalRepository.findById(any())).thenReturn(Optional.of(expectedAnimal));
+        assertThrows(EntityNotFoundException.class, () -> animalService.photoDownload(1L));
+    }
+
+    @Test
+    public void findPage() {
+        //Given
+        var summary = new AnimalSummary(5L, "Шарик", null, Animal.TypeAnimal.DOG,
+                Animal.AnimalStateEnum.IN_SHELTER, 1L, null);
+        var request = new KeysetRequest(4L, 1, Sort.Direction.ASC);
+        when(animalRepository.findSummaries(4L, Long.MAX_VALUE, Animal.AnimalStateEnum.IN_SHELTER, 1L,
+                request.pageable())).thenReturn(List.of(summary));
+        //When
+        var actual = animalService.findPage(Animal.AnimalStateEnum.IN_SHELTER, 1L, request);
+        //Then
+        Assertions.assertThat(actual.items()).containsExactly(summary);
+        Assertions.assertThat(actual.nextCursor()).isEqualTo(5L);
+    }
+
+    @Test
+    public void isPhotoAllowed() {
+        //Then
+        assertTrue(animalService.isPhotoAllowed("cat.jpeg"));
+        assertFalse(animalService.isPhotoAllowed("cat.png"));
     }
 }
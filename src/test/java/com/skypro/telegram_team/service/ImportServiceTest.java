@@ -0,0 +1,213 @@
+package com.skypro.telegram_team.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skypro.telegram_team.cache.KeyboardCache;
+import com.skypro.telegram_team.cache.ShelterInfoCache;
+import com.skypro.telegram_team.exception.InvalidDataException;
+import com.skypro.telegram_team.importer.ImportError;
+import com.skypro.telegram_team.model.Animal;
+import com.skypro.telegram_team.model.Shelter;
+import com.skypro.telegram_team.repository.AnimalRepository;
+import com.skypro.telegram_team.repository.ShelterRepository;
+import com.skypro.telegram_team.storage.PhotoStorage;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+
+@JdbcTest
+class ImportServiceTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private final ShelterRepository shelterRepository = Mockito.mock(ShelterRepository.class);
+    private final PhotoStorage photoStorage = Mockito.mock(PhotoStorage.class);
+    private final ShelterInfoCache shelterInfoCache = Mockito.mock(ShelterInfoCache.class);
+    private final KeyboardCache keyboardCache = Mockito.mock(KeyboardCache.class);
+    private ImportService out;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS animals");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS shelters");
+        jdbcTemplate.execute("""
+                CREATE TABLE shelters (id BIGSERIAL PRIMARY KEY, name VARCHAR(50), type VARCHAR(10),
+                address VARCHAR(100), schedule VARCHAR(100), scheme VARCHAR(100), safety TEXT, docs TEXT,
+                rules TEXT, arrangements TEXT, arrangements_for_puppy TEXT, arrangements_for_cripple TEXT,
+                movement TEXT, expert_advices_first TEXT, expert_advices_next TEXT, reject_reasons TEXT)""");
+        jdbcTemplate.execute("""
+                CREATE TABLE animals (id BIGSERIAL PRIMARY KEY, name VARCHAR(50), breed VARCHAR(50),
+                description TEXT, type VARCHAR(10), state VARCHAR(10), shelter_id BIGINT, photo_hash VARCHAR(64))""");
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        out = new ImportService(jdbcTemplate, objectMapper,
+                new AnimalService(Mockito.mock(AnimalRepository.class), photoStorage),
+                new ShelterService(shelterRepository, Mockito.mock(AnimalRepository.class), shelterInfoCache,
+                        keyboardCache),
+                shelterRepository, photoStorage, 2);
+    }
+
+    @Test
+    void importAnimals_json() throws IOException {
+        //Given
+        Shelter shelter = new Shelter();
+        shelter.setId(10L);
+        shelter.setType(Animal.TypeAnimal.CAT);
+        Mockito.when(shelterRepository.findAllById(any())).thenReturn(List.of(shelter));
+        Mockito.when(photoStorage.save(any())).thenAnswer(invocation -> {
+            InputStream content = invocation.getArgument(0);
+            return "hash-" + new String(content.readAllBytes(), StandardCharsets.UTF_8);
+        });
+        String json = """
+                [{"name": "Барсик", "type": "CAT", "shelterId": 10, "photo": "barsik.jpeg"},
+                 {"name": "Мурка", "breed": "метис", "type": "CAT", "state": "IN_TEST"},
+                 {"name": "Снежок", "type": "CAT"}]""";
+        MockMultipartFile photos = zip(Map.of("photos/barsik.jpeg", "1", "unused.jpeg", "2"));
+        //When
+        var actual = out.importAnimals(file("animals.json", json), photos);
+        //Then
+        Assertions.assertThat(actual.isSuccess()).isTrue();
+        Assertions.assertThat(actual.total()).isEqualTo(3);
+        Assertions.assertThat(actual.imported()).isEqualTo(3);
+        Assertions.assertThat(jdbcTemplate.queryForList(
+                        "SELECT name, state, shelter_id, photo_hash FROM animals ORDER BY id"))
+                .extracting(row -> List.of(String.valueOf(row.get("NAME")), String.valueOf(row.get("STATE")),
+                        String.valueOf(row.get("SHELTER_ID")), String.valueOf(row.get("PHOTO_HASH"))))
+                .containsExactly(
+                        List.of("Барсик", "IN_SHELTER", "10", "hash-1"),
+                        List.of("Мурка", "IN_TEST", "null", "null"),
+                        List.of("Снежок", "IN_SHELTER", "null", "null"));
+        Mockito.verify(photoStorage).save(any());
+    }
+
+    @Test
+    void importAnimals_rowErrors() throws IOException {
+        //Given
+        String csv = """
+                name,type,shelterId,photo,breed
+                Барсик,CAT,,,
+                ,CAT,,,
+                Шарик,HAMSTER,,,
+                Бобик,DOG,7,,
+                Мурка,CAT,,murka.png,
+                Пушок,CAT,,pushok.jpeg,
+                Рекс,DOG,10,,
+                Тузик,DOG,,,%s
+                """.formatted("т".repeat(51));
+        Shelter shelter = new Shelter();
+        shelter.setId(10L);
+        shelter.setType(Animal.TypeAnimal.CAT);
+        Mockito.when(shelterRepository.findAllById(any())).thenReturn(List.of(shelter));
+        //When
+        var actual = out.importAnimals(file("animals.csv", csv), null);
+        //Then
+        Assertions.assertThat(actual.isSuccess()).isFalse();
+        Assertions.assertThat(actual.total()).isEqualTo(8);
+        Assertions.assertThat(actual.imported()).isZero();
+        Assertions.assertThat(actual.errors()).extracting(ImportError::row).containsExactly(2, 3, 4, 5, 6, 7, 8);
+        Assertions.assertThat(actual.errors().get(0).message()).isEqualTo("Отсутствует кличка животного");
+        Assertions.assertThat(actual.errors().get(2).message()).isEqualTo("Приют не найден: 7");
+        Assertions.assertThat(actual.errors().get(4).message()).isEqualTo("Фото не найдено в архиве: pushok.jpeg");
+        Assertions.assertThat(actual.errors().get(5).message())
+                .isEqualTo("Вид животного не совпадает с видом животных приюта");
+        Assertions.assertThat(actual.errors().get(6).message()).isEqualTo("Порода животного длиннее 50 символов");
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM animals", Long.class)).isZero();
+        Mockito.verifyNoInteractions(photoStorage);
+    }
+
+    @Test
+    void importAnimals_csvColumnCountErrors() throws IOException {
+        //Given
+        String csv = """
+                name,type
+                Барсик,CAT
+                Шарик,DOG,лишнее
+                ,CAT
+                Мурка
+                Снежок,CAT
+                """;
+        //When
+        var actual = out.importAnimals(file("animals.csv", csv), null);
+        //Then
+        Assertions.assertThat(actual.isSuccess()).isFalse();
+        Assertions.assertThat(actual.total()).isEqualTo(5);
+        Assertions.assertThat(actual.errors()).extracting(ImportError::row).containsExactly(2, 3, 4);
+        Assertions.assertThat(actual.errors().get(1).message()).isEqualTo("Отсутствует кличка животного");
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM animals", Long.class)).isZero();
+    }
+
+    @Test
+    void importAnimals_notArray() {
+        //Then
+        Assertions.assertThatThrownBy(() -> out.importAnimals(file("animals.json", "{\"name\": \"Барсик\"}"), null))
+                .isInstanceOf(InvalidDataException.class);
+        Assertions.assertThatThrownBy(() -> out.importAnimals(file("animals.json", "[{"), null))
+                .isInstanceOf(InvalidDataException.class);
+    }
+
+    @Test
+    void importShelters_csv() throws IOException {
+        //Given
+        String csv = """
+                name,type,address,rules
+                Приют 1,DOG,"Москва, ул. Ленина, 1",Правила
+                Приют 2,CAT,,
+                Приют 3,DOG,,
+                """;
+        //When
+        var actual = out.importShelters(file("shelters.csv", csv));
+        //Then
+        Assertions.assertThat(actual.isSuccess()).isTrue();
+        Assertions.assertThat(actual.imported()).isEqualTo(3);
+        Mockito.verify(shelterInfoCache).invalidate();
+        Mockito.verify(keyboardCache).invalidateShelters();
+        Assertions.assertThat(jdbcTemplate.queryForList("SELECT name, type, address, rules FROM shelters ORDER BY id"))
+                .first()
+                .satisfies(row -> Assertions.assertThat(row.values())
+                        .containsExactly("Приют 1", "DOG", "Москва, ул. Ленина, 1", "Правила"));
+    }
+
+    @Test
+    void importShelters_rowErrors() throws IOException {
+        //Given
+        String json = """
+                [{"name": "Приют 1", "type": "DOG"},
+                 {"name": "Приют 2"},
+                 {"name": "Приют 3", "type": "CAT", "address": "%s"}]""".formatted("а".repeat(101));
+        //When
+        var actual = out.importShelters(file("shelters.json", json));
+        //Then
+        Assertions.assertThat(actual.errors()).extracting(ImportError::row).containsExactly(2, 3);
+        Assertions.assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM shelters", Long.class)).isZero();
+    }
+
+    private static MockMultipartFile file(String name, String content) {
+        return new MockMultipartFile("file", name, null, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MockMultipartFile zip(Map<String, String> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (var entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return new MockMultipartFile("photos", "photos.zip", "application/zip", bytes.toByteArray());
+    }
+}
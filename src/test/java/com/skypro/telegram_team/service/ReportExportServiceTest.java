@@ -0,0 +1,92 @@
+package com.skypro.telegram_team.service;
+
+import com.skypro.telegram_team.export.ReportExportFilter;
+import com.skypro.telegram_team.export.ReportExportFormat;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReportExportServiceTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private ReportExportService out;
+    private final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS reports");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS animals");
+        jdbcTemplate.execute("CREATE TABLE animals (id BIGINT PRIMARY KEY, shelter_id BIGINT)");
+        jdbcTemplate.execute("""
+                CREATE TABLE reports (id BIGINT PRIMARY KEY, user_id BIGINT, animal_id BIGINT, date TIMESTAMP,
+                diet TEXT, well_being TEXT, change_behavior TEXT, photo_hash VARCHAR(64))""");
+        jdbcTemplate.update("INSERT INTO animals VALUES (1, 10), (2, 20)");
+        jdbcTemplate.update("INSERT INTO reports VALUES (1, 5, 1, '2023-04-01 10:00:00', 'd1', 'w1', 'c1', 'hash')");
+        jdbcTemplate.update("INSERT INTO reports VALUES (2, 6, 2, '2023-04-02 10:00:00', 'd2', 'w2', 'c2', NULL)");
+        jdbcTemplate.update("INSERT INTO reports VALUES (3, 5, 1, '2023-04-03 10:00:00', 'd3', 'w3', 'c3', NULL)");
+        out = new ReportExportService(jdbcTemplate, transactionManager, 2);
+    }
+
+    @Test
+    void export_all() throws IOException {
+        //When
+        long actual = out.export(new ReportExportFilter(null, null, null, null), ReportExportFormat.NDJSON,
+                true, stream);
+        //Then
+        Assertions.assertThat(actual).isEqualTo(3);
+        Assertions.assertThat(stream.toString(StandardCharsets.UTF_8).split("\n"))
+                .hasSize(3)
+                .satisfies(lines -> {
+                    Assertions.assertThat(lines[0]).startsWith("{\"id\":1,\"date\":\"2023-04-01T10:00\"")
+                            .contains("\"shelterId\":10", "\"photo\":\"/reports/1/photo\"");
+                    Assertions.assertThat(lines[1]).contains("\"id\":2", "\"photo\":null");
+                    Assertions.assertThat(lines[2]).contains("\"id\":3");
+                });
+    }
+
+    @Test
+    void export_filtered() throws IOException {
+        //Given
+        var filter = new ReportExportFilter(10L, 1L, LocalDateTime.of(2023, 4, 2, 0, 0),
+                LocalDateTime.of(2023, 4, 4, 0, 0));
+        //When
+        long actual = out.export(filter, ReportExportFormat.CSV, false, stream);
+        //Then
+        Assertions.assertThat(actual).isEqualTo(1);
+        Assertions.assertThat(stream.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,date,userId,animalId,shelterId,diet,wellBeing,changeBehavior\r\n"
+                        + "3,2023-04-03T10:00,5,1,10,d3,w3,c3\r\n");
+    }
+
+    @Test
+    void export_clientDisconnected() {
+        //Given
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        //Then
+        Assertions.assertThatThrownBy(() -> out.export(new ReportExportFilter(null, null, null, null),
+                        ReportExportFormat.CSV, false, broken))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
+    }
+}
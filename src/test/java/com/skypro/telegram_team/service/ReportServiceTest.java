@@ -1,9 +1,13 @@
 package com.skypro.telegram_team.service;
 
+import com.skypro.telegram_team.dto.KeysetRequest;
+import com.skypro.telegram_team.dto.ReportSummary;
 import com.skypro.telegram_team.model.Animal;
 import com.skypro.telegram_team.model.Report;
 import com.skypro.telegram_team.model.User;
 import com.skypro.telegram_team.repository.ReportRepository;
+import com.skypro.telegram_team.storage.PhotoStorage;
+import com.skypro.telegram_team.storage.StoredPhoto;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,9 +17,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Sort;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -33,6 +42,8 @@ public class ReportServiceTest {
     private ReportService reportService;
     @Mock
     private ReportRepository reportRepository;
+    @Mock
+    private PhotoStorage photoStorage;
     private Report expectedReport;
 
     @BeforeEach
@@ -127,26 +138,67 @@ public class ReportServiceTest {
 
     @Test
     public void findFirstByUserIdAndDate() {
-        List<Report> expectedReports = List.of(expectedReport);
-        when(reportRepository.findAll()).thenReturn(expectedReports);
+        LocalDateTime dayStart = expectedReport.getDate().truncatedTo(ChronoUnit.DAYS);
+        when(reportRepository.findFirstByUserIdAndDateGreaterThanEqualAndDateLessThanOrderByDateAsc(
+                expectedReport.getUser().getId(), dayStart, dayStart.plusDays(1)))
+                .thenReturn(Optional.of(expectedReport));
         Report actualReport = reportService.findFirstByUserIdAndDate(expectedReport.getUser().getId(),
                 expectedReport.getDate());
-        assertEquals(expectedReports.get(0), actualReport);
-        verify(reportRepository, times(1)).findAll();
+        assertEquals(expectedReport, actualReport);
+        verify(reportRepository, never()).findAll();
+    }
+
+    @Test
+    public void findFirstByUserIdAndDateNotFound() {
+        when(reportRepository.findFirstByUserIdAndDateGreaterThanEqualAndDateLessThanOrderByDateAsc(any(), any(), any()))
+                .thenReturn(Optional.empty());
+        Report actualReport = reportService.findFirstByUserIdAndDate(1L, LocalDateTime.now());
+        assertEquals(0L, actualReport.getId());
     }
 
     @Test
     public void photoDownload() throws Exception {
         //Given
         Resource resource = new ClassPathResource("photo/cat.jpeg");
+        byte[] photo = Files.readAllBytes(resource.getFile().toPath());
         Report expected = new Report();
         expected.setId(1L);
-        expected.setPhoto(Files.readAllBytes(resource.getFile().toPath()));
+        expected.setPhotoHash("hash");
         //When
         when(reportRepository.findById(any())).thenReturn(Optional.of(expected));
-        var actual = reportService.photoDownload(1L);
+        when(photoStorage.find("hash")).thenReturn(Optional.of(new StoredPhoto("hash", photo.length, Instant.now())));
+        when(photoStorage.open("hash")).thenReturn(new ByteArrayInputStream(photo));
+        var actual = reportService.photoDownload(1L).getInputStream().readAllBytes();
         //Then
         Assertions.assertThat(actual).isNotEmpty();
-        Assertions.assertThat(Arrays.toString(actual)).isEqualTo(Arrays.toString(expected.getPhoto()));
+        Assertions.assertThat(Arrays.toString(actual)).isEqualTo(Arrays.toString(photo));
+    }
+
+    @Test
+    public void savePhoto() throws Exception {
+        //Given
+        InputStream content = new ByteArrayInputStream(new byte[]{1, 2, 3});
+        //When
+        when(photoStorage.save(content)).thenReturn("hash");
+        reportService.savePhoto(expectedReport, content);
+        //Then
+        Assertions.assertThat(expectedReport.getPhotoHash()).isEqualTo("hash");
+        verify(reportRepository, never()).save(any());
+    }
+
+    @Test
+    public void findPage() {
+        //Given
+        LocalDateTime from = LocalDateTime.of(2023, 4, 1, 0, 0);
+        var summary = new ReportSummary(7L, from.plusHours(1), "diet", "well", "behavior", 1L, 2L);
+        var request = new KeysetRequest(null, 1, Sort.Direction.ASC);
+        when(reportRepository.findSummaries(Long.MIN_VALUE, Long.MAX_VALUE, 1L, null, from, null,
+                request.pageable())).thenReturn(List.of(summary));
+        //When
+        var actual = reportService.findPage(1L, null, from, null, request);
+        //Then
+        Assertions.assertThat(actual.items()).containsExactly(summary);
+        Assertions.assertThat(actual.nextCursor()).isEqualTo(7L);
+        verify(reportRepository, never()).findAll();
     }
 }
@@ -1,5 +1,11 @@
 package com.skypro.telegram_team.service;
 
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+import com.skypro.telegram_team.cache.KeyboardCache;
+import com.skypro.telegram_team.cache.ShelterInfoCache;
+import com.skypro.telegram_team.dto.KeysetRequest;
+import com.skypro.telegram_team.dto.ShelterSummary;
+import com.skypro.telegram_team.keyboard.Callback;
 import com.skypro.telegram_team.model.Animal;
 import com.skypro.telegram_team.model.Shelter;
 import com.skypro.telegram_team.repository.AnimalRepository;
@@ -11,12 +17,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
 
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +35,10 @@ public class ShelterServiceTest {
     private ShelterRepository shelterRepository;
     @Mock
     private AnimalRepository animalRepository;
+    @Mock
+    private ShelterInfoCache shelterInfoCache;
+    @Mock
+    private KeyboardCache keyboardCache;
     private Shelter expectedShelter;
 
     @BeforeEach
@@ -60,7 +72,8 @@ public class ShelterServiceTest {
         Shelter actualShelter = shelterService.create(expectedShelter, expectedShelter.getType());
         Assertions.assertEquals(expectedShelter, actualShelter);
         verify(shelterRepository, times(1)).save(any());
-
+        verify(shelterInfoCache).invalidate();
+        verify(keyboardCache).invalidateShelters();
     }
 
     @Test
@@ -74,6 +87,7 @@ public class ShelterServiceTest {
         Assertions.assertEquals(updatedShelter.getName(), actualShelter.getName());
         verify(shelterRepository, times(1)).findById(any());
         verify(shelterRepository, times(1)).save(any());
+        verify(shelterInfoCache).invalidate();
     }
 
     @Test
@@ -112,4 +126,28 @@ public class ShelterServiceTest {
                 .assignAnimalsToShelters(expectedShelter.getId(), animal.getId()));
     }
 
+    @Test
+    public void findPage() {
+        var summary = new ShelterSummary(1L, "Приют", Animal.TypeAnimal.CAT, "Адрес");
+        var request = new KeysetRequest(null, 10, Sort.Direction.ASC);
+        when(shelterRepository.findSummaries(Long.MIN_VALUE, Long.MAX_VALUE, Animal.TypeAnimal.CAT,
+                request.pageable())).thenReturn(List.of(summary));
+        var actual = shelterService.findPage(Animal.TypeAnimal.CAT, request);
+        Assertions.assertEquals(List.of(summary), actual.items());
+        Assertions.assertNull(actual.nextCursor());
+    }
+
+    @Test
+    public void findInfo() {
+        when(shelterInfoCache.get(eq(1L), eq(Callback.INF_ADDRESS), any())).thenReturn("Адрес");
+        Assertions.assertEquals("Адрес", shelterService.findInfo(1L, Callback.INF_ADDRESS));
+        verify(shelterRepository, never()).findAll();
+    }
+
+    @Test
+    public void getSheltersKeyboard() {
+        var markup = new InlineKeyboardMarkup();
+        when(keyboardCache.getShelters(eq(2), any())).thenReturn(markup);
+        Assertions.assertSame(markup, shelterService.getSheltersKeyboard(2));
+    }
 }
@@ -1,5 +1,11 @@
 package com.skypro.telegram_team.service;
 
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+import com.skypro.telegram_team.cache.KeyboardCache;
+import com.skypro.telegram_team.cache.UserCache;
+import com.skypro.telegram_team.cache.VolunteerCache;
+import com.skypro.telegram_team.dto.KeysetRequest;
+import com.skypro.telegram_team.dto.UserSummary;
 import com.skypro.telegram_team.exception.InvalidDataException;
 import com.skypro.telegram_team.model.Animal;
 import com.skypro.telegram_team.model.Shelter;
@@ -11,13 +17,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
 
 import javax.persistence.EntityNotFoundException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,6 +43,14 @@ public class UserServiceTest {
     private UserRepository userRepository;
     @Mock
     private AnimalRepository animalRepository;
+    @Mock
+    private AnimalService animalService;
+    @Spy
+    private UserCache userCache = new UserCache(Duration.ofMinutes(10), 100);
+    @Spy
+    private VolunteerCache volunteerCache = new VolunteerCache(Duration.ofMinutes(5));
+    @Spy
+    private KeyboardCache keyboardCache = new KeyboardCache(Duration.ofMinutes(5), 10, Instant::now);
     private User expectedUser;
 
     @BeforeEach
@@ -136,6 +155,72 @@ public class UserServiceTest {
         verify(userRepository, times(1)).findByVolunteerTrue();
     }
 
+    @Test
+    public void findVolunteersCached() {
+        when(userRepository.findByVolunteerTrue()).thenReturn(List.of(expectedUser));
+        userService.findVolunteers();
+        Collection<User> actualUsers = userService.findVolunteers();
+        assertEquals(List.of(expectedUser), actualUsers);
+        verify(userRepository, times(1)).findByVolunteerTrue();
+    }
+
+    @Test
+    public void userIsVolunteerResetsVolunteers() {
+        when(userRepository.findByVolunteerTrue()).thenReturn(List.of());
+        when(userRepository.findById(any())).thenReturn(Optional.of(expectedUser));
+        userService.findVolunteers();
+        userService.userIsVolunteer(expectedUser.getId(), true);
+        userService.findVolunteers();
+        verify(userRepository, times(2)).findByVolunteerTrue();
+    }
+
+    @Test
+    public void getVolunteersKeyboardCached() {
+        when(userRepository.findByVolunteerTrue()).thenReturn(List.of(expectedUser));
+        when(userRepository.findById(any())).thenReturn(Optional.of(expectedUser));
+        InlineKeyboardMarkup markup = userService.getVolunteersKeyboard(0);
+        assertSame(markup, userService.getVolunteersKeyboard(0));
+        userService.userIsVolunteer(expectedUser.getId(), true);
+        assertNotSame(markup, userService.getVolunteersKeyboard(0));
+        assertEquals(2, keyboardCache.getBuildCount());
+        verify(keyboardCache).invalidateVolunteers();
+    }
+
+    @Test
+    public void updateUserKeepsVolunteerCaches() {
+        User userInDB = new User();
+        userInDB.setId(1L);
+        userInDB.setName("dima");
+        userInDB.setTelegramId(111L);
+        User updatedUser = new User();
+        updatedUser.setName("sergei");
+        updatedUser.setTelegramId(111L);
+        updatedUser.setPhone("+79990000000");
+        when(userRepository.findById(any())).thenReturn(Optional.of(userInDB));
+        userService.update(updatedUser, userInDB.getId());
+        userService.create(expectedUser);
+        verify(keyboardCache, never()).invalidateVolunteers();
+        verify(volunteerCache, never()).invalidate();
+    }
+
+    @Test
+    public void updateVolunteerInvalidatesVolunteerCaches() {
+        User userInDB = new User();
+        userInDB.setId(1L);
+        userInDB.setName("dima");
+        userInDB.setTelegramId(111L);
+        userInDB.setVolunteer(true);
+        User updatedUser = new User();
+        updatedUser.setName("sergei");
+        updatedUser.setTelegramId(111L);
+        updatedUser.setVolunteer(true);
+        when(userRepository.findById(any())).thenReturn(Optional.of(userInDB));
+        userService.update(updatedUser, userInDB.getId());
+        userService.deleteById(userInDB.getId());
+        verify(keyboardCache, times(2)).invalidateVolunteers();
+        verify(volunteerCache, times(2)).invalidate();
+    }
+
     @Test
     public void findByTelegramId() {
         List<User> expectedUsers = List.of(expectedUser);
@@ -145,6 +230,62 @@ public class UserServiceTest {
         verify(userRepository, times(1)).findByTelegramId(any());
     }
 
+    @Test
+    public void findByTelegramIdFromCache() {
+        when(userRepository.findByTelegramId(any())).thenReturn(List.of(expectedUser));
+        userService.findByTelegramId(expectedUser.getTelegramId());
+        User actualUser = userService.findByTelegramId(expectedUser.getTelegramId());
+        assertEquals(expectedUser, actualUser);
+        verify(userRepository, times(1)).findByTelegramId(any());
+        assertEquals(1, userCache.getHitCount());
+        assertEquals(1, userCache.getMissCount());
+    }
+
+    @Test
+    public void findByTelegramIdReturnsCopy() {
+        when(userRepository.findByTelegramId(any())).thenReturn(List.of(expectedUser));
+        User changedUser = userService.findByTelegramId(expectedUser.getTelegramId());
+        changedUser.setPhone("+79990000000");
+        User actualUser = userService.findByTelegramId(expectedUser.getTelegramId());
+        assertNotSame(changedUser, actualUser);
+        assertNotSame(expectedUser, actualUser);
+        assertNull(actualUser.getPhone());
+        assertEquals(expectedUser.getName(), actualUser.getName());
+        verify(userRepository, times(1)).findByTelegramId(any());
+    }
+
+    @Test
+    public void findByTelegramIdNotCachedWhenNotFound() {
+        when(userRepository.findByTelegramId(any())).thenReturn(List.of());
+        userService.findByTelegramId(expectedUser.getTelegramId());
+        User actualUser = userService.findByTelegramId(expectedUser.getTelegramId());
+        assertEquals(0L, actualUser.getId());
+        verify(userRepository, times(2)).findByTelegramId(any());
+    }
+
+    @Test
+    public void findByTelegramIdAfterUpdate() {
+        when(userRepository.findByTelegramId(any())).thenReturn(List.of(expectedUser));
+        when(userRepository.findById(any())).thenReturn(Optional.of(expectedUser));
+        when(userRepository.save(any())).thenReturn(expectedUser);
+        userService.findByTelegramId(expectedUser.getTelegramId());
+        userService.update(expectedUser, expectedUser.getId());
+        userService.findByTelegramId(expectedUser.getTelegramId());
+        verify(userRepository, times(2)).findByTelegramId(any());
+    }
+
+    @Test
+    public void changeStates() {
+        when(animalRepository.updateStateByIdIn(List.of(10L), Animal.AnimalStateEnum.HAPPY_END)).thenReturn(1);
+        when(userRepository.updateStateByIdIn(List.of(1L, 2L), User.OwnerStateEnum.ADOPTED)).thenReturn(2);
+        int actual = userService.changeStates(
+                Map.of(User.OwnerStateEnum.ADOPTED, List.of(1L, 2L)),
+                Map.of(Animal.AnimalStateEnum.HAPPY_END, List.of(10L)));
+        assertEquals(3, actual);
+        verify(userRepository, never()).save(any());
+        verify(userCache, times(1)).invalidateAll();
+    }
+
     @Test
     public void joinAnimalAndUser() {
         Animal animal = new Animal();
@@ -154,14 +295,13 @@ public class UserServiceTest {
         when(userRepository.findById(any())).thenReturn(Optional.ofNullable(expectedUser));
         when(userRepository.save(any())).thenReturn(expectedUser);
         when(animalRepository.findById(any())).thenReturn(Optional.of(animal));
-        when(animalRepository.save(any())).thenReturn(animal);
         userService.joinAnimalAndUser(animal.getId(), expectedUser.getId());
         assertEquals(expectedUser.getAnimal().getId(), animal.getId());
         assertEquals(animal.getUser().getId(), expectedUser.getId());
         verify(userRepository, times(1)).save(any());
-        verify(animalRepository, times(1)).save(any());
+        verify(animalService, times(1)).update(animal, animal.getId());
         verify(userRepository, times(2)).findById(any());
-        verify(animalRepository, times(2)).findById(any());
+        verify(animalRepository, times(1)).findById(any());
     }
 
     @Test
@@ -260,4 +400,19 @@ public class UserServiceTest {
         assertThrows(IllegalArgumentException.class, () -> userService
                 .updateState(updatedUser.getId(), updatedUser.getState(), daysForTest));
     }
+
+    @Test
+    public void findPage() {
+        //Given
+        var summary = new UserSummary(3L, 111L, "dima", null, null, null, User.OwnerStateEnum.PROBATION,
+                false, null, null, 1L);
+        var request = new KeysetRequest(10L, 2, Sort.Direction.DESC);
+        when(userRepository.findSummaries(Long.MIN_VALUE, 10L, User.OwnerStateEnum.PROBATION, null, false,
+                request.pageable())).thenReturn(List.of(summary));
+        //When
+        var actual = userService.findPage(User.OwnerStateEnum.PROBATION, null, false, request);
+        //Then
+        assertEquals(List.of(summary), actual.items());
+        assertNull(actual.nextCursor());
+    }
 }
@@ -0,0 +1,73 @@
+package com.skypro.telegram_team.storage;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.persistence.EntityNotFoundException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class FilePhotoStorageTest {
+    //sha-256 от "abc"
+    private static final String ABC_HASH = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+    @TempDir
+    Path root;
+    private FilePhotoStorage out;
+
+    @BeforeEach
+    void setUp() {
+        out = new FilePhotoStorage(root);
+    }
+
+    @Test
+    void save() throws Exception {
+        //When
+        var actual = out.save(new ByteArrayInputStream("abc".getBytes()));
+        //Then
+        Assertions.assertThat(actual).isEqualTo(ABC_HASH);
+        Assertions.assertThat(root.resolve("ba").resolve(ABC_HASH)).hasContent("abc");
+    }
+
+    @Test
+    void save_sameContentStoredOnce() throws Exception {
+        //When
+        out.save(new ByteArrayInputStream("abc".getBytes()));
+        out.save(new ByteArrayInputStream("abc".getBytes()));
+        //Then
+        try (var files = Files.walk(root)) {
+            Assertions.assertThat(files.filter(Files::isRegularFile).count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void find() throws Exception {
+        //Given
+        out.save(new ByteArrayInputStream("abc".getBytes()));
+        //When
+        var actual = out.find(ABC_HASH);
+        //Then
+        Assertions.assertThat(actual).isPresent();
+        Assertions.assertThat(actual.get().size()).isEqualTo(3);
+    }
+
+    @Test
+    void open() throws Exception {
+        //Given
+        out.save(new ByteArrayInputStream("abc".getBytes()));
+        //When
+        try (InputStream actual = out.open(ABC_HASH)) {
+            //Then
+            Assertions.assertThat(actual.readAllBytes()).isEqualTo("abc".getBytes());
+        }
+    }
+
+    @Test
+    void open_notFound() {
+        Assertions.assertThatThrownBy(() -> out.open(ABC_HASH)).isInstanceOf(EntityNotFoundException.class);
+        Assertions.assertThatThrownBy(() -> out.open("../secret")).isInstanceOf(EntityNotFoundException.class);
+    }
+}
@@ -0,0 +1,93 @@
+package com.skypro.telegram_team.storage;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityNotFoundException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+
+@JdbcTest
+class JdbcPhotoStorageTest {
+    //sha-256 от "abc"
+    private static final String ABC_HASH = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private JdbcPhotoStorage out;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS photos");
+        jdbcTemplate.execute("""
+                CREATE TABLE photos (hash VARCHAR(64) PRIMARY KEY NOT NULL, content BYTEA NOT NULL,
+                size BIGINT NOT NULL, created_at TIMESTAMP NOT NULL)""");
+        out = new JdbcPhotoStorage(jdbcTemplate);
+    }
+
+    @Test
+    void save() throws Exception {
+        //When
+        var actual = out.save(new ByteArrayInputStream("abc".getBytes()));
+        //Then
+        Assertions.assertThat(actual).isEqualTo(ABC_HASH);
+        Assertions.assertThat(out.find(ABC_HASH)).get()
+                .satisfies(photo -> Assertions.assertThat(photo.size()).isEqualTo(3));
+    }
+
+    @Test
+    void save_sameContentStoredOnce() throws Exception {
+        //When
+        out.save(new ByteArrayInputStream("abc".getBytes()));
+        out.save(new ByteArrayInputStream("abc".getBytes()));
+        //Then
+        Assertions.assertThat(jdbcTemplate.queryForList("SELECT hash FROM photos", String.class))
+                .containsExactly(ABC_HASH);
+    }
+
+    @Test
+    void open_readsByChunks() throws Exception {
+        //Given
+        byte[] content = content(JdbcPhotoStorage.CHUNK_SIZE * 2 + 10);
+        String hash = out.save(new ByteArrayInputStream(content));
+        //When
+        try (InputStream actual = out.open(hash)) {
+            //Then
+            Assertions.assertThat(actual.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void open_skipWithoutReading() throws Exception {
+        //Given
+        byte[] content = content(JdbcPhotoStorage.CHUNK_SIZE * 2 + 10);
+        String hash = out.save(new ByteArrayInputStream(content));
+        int start = JdbcPhotoStorage.CHUNK_SIZE + 5;
+        //When
+        try (InputStream actual = out.open(hash)) {
+            Assertions.assertThat(actual.read()).isEqualTo(content[0] & 0xff);
+            Assertions.assertThat(actual.skip(start - 1)).isEqualTo(start - 1);
+            //Then
+            Assertions.assertThat(actual.readNBytes(10)).isEqualTo(Arrays.copyOfRange(content, start, start + 10));
+            Assertions.assertThat(actual.skip(content.length)).isEqualTo(content.length - start - 10);
+            Assertions.assertThat(actual.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void open_notFound() {
+        Assertions.assertThatThrownBy(() -> out.open(ABC_HASH)).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i % 251);
+        }
+        return content;
+    }
+}
@@ -0,0 +1,119 @@
+package com.skypro.telegram_team.timer;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.startsWith;
+
+@ExtendWith(MockitoExtension.class)
+class JobRunnerTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    private JobRunner out;
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        out = new JobRunner(jdbcTemplate, Duration.ofMinutes(10), Duration.ofSeconds(30), "node-1");
+    }
+
+    @Test
+    void run_lockUpdated() {
+        //Given
+        Mockito.when(jdbcTemplate.update(startsWith("UPDATE scheduler_lock SET locked_until = ?, locked_at"),
+                any(), any(), eq("node-1"), eq("job"), any())).thenReturn(1);
+        //When
+        boolean actual = out.run("job", () -> runs.incrementAndGet() + 4);
+        //Then
+        Assertions.assertThat(actual).isTrue();
+        Assertions.assertThat(runs.get()).isEqualTo(1);
+        Mockito.verify(jdbcTemplate, Mockito.never()).update(startsWith("INSERT INTO scheduler_lock"),
+                any(), any(), any(), any());
+        Mockito.verify(jdbcTemplate).update(startsWith("UPDATE scheduler_lock SET locked_until = ? WHERE"),
+                any(), eq("job"), eq("node-1"));
+        Mockito.verify(jdbcTemplate).update(startsWith("INSERT INTO job_run"),
+                eq("job"), eq("node-1"), any(), any(), eq(5), eq("SUCCESS"), isNull());
+    }
+
+    @Test
+    void run_lockInserted() {
+        //When
+        boolean actual = out.run("job", runs::incrementAndGet);
+        //Then
+        Assertions.assertThat(actual).isTrue();
+        Assertions.assertThat(runs.get()).isEqualTo(1);
+        Mockito.verify(jdbcTemplate).update(startsWith("INSERT INTO scheduler_lock"),
+                eq("job"), any(), any(), eq("node-1"));
+    }
+
+    @Test
+    void run_lockedByAnotherNode() {
+        //Given
+        Mockito.when(jdbcTemplate.update(startsWith("UPDATE scheduler_lock SET locked_until = ?, locked_at"),
+                any(), any(), any(), any(), any())).thenReturn(0);
+        Mockito.when(jdbcTemplate.update(startsWith("INSERT INTO scheduler_lock"), any(), any(), any(), any()))
+                .thenThrow(new DuplicateKeyException("duplicate"));
+        //When
+        boolean actual = out.run("job", runs::incrementAndGet);
+        //Then
+        Assertions.assertThat(actual).isFalse();
+        Assertions.assertThat(runs.get()).isZero();
+        Mockito.verify(jdbcTemplate, Mockito.never()).update(startsWith("INSERT INTO job_run"),
+                any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void run_jobFailed() {
+        //When
+        boolean actual = out.run("job", () -> {
+            throw new IllegalStateException("error");
+        });
+        //Then
+        Assertions.assertThat(actual).isTrue();
+        Mockito.verify(jdbcTemplate).update(startsWith("UPDATE scheduler_lock SET locked_until = ? WHERE"),
+                any(), eq("job"), eq("node-1"));
+        Mockito.verify(jdbcTemplate).update(startsWith("INSERT INTO job_run"),
+                eq("job"), eq("node-1"), any(), any(), isNull(), eq("FAILED"), eq("error"));
+    }
+
+    @Test
+    void checkpoint_savedByLockOwner() {
+        //Given
+        Mockito.when(jdbcTemplate.query(startsWith("SELECT checkpoint"), ArgumentMatchers.<RowMapper<String>>any(), eq("job")))
+                .thenReturn(Collections.singletonList(null));
+        Mockito.when(jdbcTemplate.update(startsWith("UPDATE scheduler_lock SET checkpoint"),
+                any(), any(), any(), any())).thenReturn(1);
+        //When
+        boolean saved = out.saveCheckpoint("job", "1");
+        var actual = out.findCheckpoint("job");
+        //Then
+        Assertions.assertThat(saved).isTrue();
+        Assertions.assertThat(actual).isEmpty();
+        Mockito.verify(jdbcTemplate).update(startsWith("UPDATE scheduler_lock SET checkpoint"),
+                eq("1"), any(), eq("job"), eq("node-1"));
+    }
+
+    @Test
+    void checkpoint_lockLost() {
+        //When
+        boolean actual = out.saveCheckpoint("job", "1");
+        //Then
+        Assertions.assertThat(actual).isFalse();
+    }
+}
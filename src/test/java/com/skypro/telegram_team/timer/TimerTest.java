@@ -1,27 +1,29 @@
 package com.skypro.telegram_team.timer;
 
-import com.pengrad.telegrambot.TelegramBot;
 import com.pengrad.telegrambot.request.SendMessage;
 import com.skypro.telegram_team.model.Animal;
-import com.skypro.telegram_team.model.Report;
 import com.skypro.telegram_team.model.User;
+import com.skypro.telegram_team.repository.AnimalReportStats;
+import com.skypro.telegram_team.sender.BotMessageSender;
 import com.skypro.telegram_team.service.AnimalService;
 import com.skypro.telegram_team.service.ReportService;
 import com.skypro.telegram_team.service.UserService;
 import org.assertj.core.api.Assertions;
-import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
@@ -29,7 +31,7 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class TimerTest {
     @Mock
-    private TelegramBot bot;
+    private BotMessageSender messageSender;
 
     @Mock
     private AnimalService animalService;
@@ -40,9 +42,79 @@ public class TimerTest {
     @Mock
     private UserService userService;
 
-    @InjectMocks
+    @Mock
+    private JobRunner jobRunner;
+
+    private final VolunteerDigestStore digestStore = new VolunteerDigestStore(Duration.ofHours(1), 10);
+
     private Timer timer;
 
+    @BeforeEach
+    public void setUp() {
+        timer = new Timer(messageSender, animalService, reportService, userService, jobRunner, digestStore,
+                500, Duration.ofHours(4), Duration.ZERO);
+    }
+
+    @Test
+    public void testCheckAndChangeUsersStatus() {
+        User user = new User();
+        user.setId(1L);
+        user.setState(User.OwnerStateEnum.ACCEPTED);
+        Animal animal = new Animal();
+        animal.setId(10L);
+        when(userService.findByState(User.OwnerStateEnum.ACCEPTED)).thenReturn(List.of(user));
+        when(animalService.findByUserState(User.OwnerStateEnum.ADOPTED)).thenReturn(List.of(animal));
+
+        timer.checkAndChangeUsersStatus();
+
+        verify(userService).changeStates(
+                Map.of(User.OwnerStateEnum.ADOPTED, List.of(1L)),
+                Map.of(Animal.AnimalStateEnum.HAPPY_END, List.of(10L)));
+        verify(userService, never()).update(any(), any());
+        verify(animalService, never()).update(any(), any());
+    }
+
+    @Test
+    public void testScheduledJobsRunThroughJobRunner() {
+        timer.runCheckAndChangeUsersStatus();
+        timer.runCheckingDailyAndTwoDaysReportFromUsers();
+
+        verify(jobRunner).run(eq("checkAndChangeUsersStatus"), any());
+        verify(jobRunner).run(eq("checkingDailyAndTwoDaysReportFromUsers"), any());
+        verifyNoInteractions(userService, reportService, messageSender);
+    }
+
+    @Test
+    public void testCheckAndChangeUsersStatusSendsDigest() {
+        List<User> users = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            User user = new User();
+            user.setId(id);
+            user.setTelegramId(100L + id);
+            user.setName("John" + id);
+            user.setSurname("Doe");
+            user.setState(User.OwnerStateEnum.ACCEPTED);
+            users.add(user);
+        }
+        User volunteer = new User();
+        volunteer.setTelegramId(0L);
+        volunteer.setVolunteer(true);
+        when(userService.findByState(User.OwnerStateEnum.ACCEPTED)).thenReturn(users);
+        when(userService.findVolunteers()).thenReturn(List.of(volunteer));
+
+        timer.checkAndChangeUsersStatus();
+
+        ArgumentCaptor<SendMessage> argumentCaptor = ArgumentCaptor.forClass(SendMessage.class);
+        Mockito.verify(messageSender, times(4)).send(argumentCaptor.capture());
+        List<SendMessage> toVolunteer = argumentCaptor.getAllValues().stream()
+                .filter(message -> message.getParameters().get("chat_id").equals(0L))
+                .toList();
+        Assertions.assertThat(toVolunteer).hasSize(1);
+        Assertions.assertThat((String) toVolunteer.get(0).getParameters().get("text"))
+                .contains("Одобрение на усыновление подтверждено", "John1 Doe", "John2 Doe", "John3 Doe");
+        verify(userService, times(1)).findVolunteers();
+    }
+
     @Test
     public void testChangeStateAcceptedToAdoptedAndCollect() {
         // Given
@@ -54,24 +126,15 @@ public class TimerTest {
         List<User> users = Collections.singletonList(user);
         when(userService.findByState(User.OwnerStateEnum.ACCEPTED)).thenReturn(users);
 
-        User volunteer = new User();
-        volunteer.setTelegramId(0L);
-        volunteer.setVolunteer(true);
-        when(userService.findVolunteers()).thenReturn(Collections.singletonList(volunteer));
-
         // When
         List<User> result = timer.changeStateAcceptedToAdoptedAndCollect();
 
         // Then
         List<SendMessage> actual = getActualSendMessages();
-        Assertions.assertThat(actual.size()).isEqualTo(2);
+        Assertions.assertThat(actual.size()).isEqualTo(1);
         Assertions.assertThat(actual.get(0).getParameters().get("chat_id")).isEqualTo(1L);
         Assertions.assertThat(actual.get(0).getParameters().get("text"))
                 .isEqualTo("Уважаемый John Doe Поздравляем, вы прошли пробный период!");
-        Assertions.assertThat(actual.get(1).getParameters().get("chat_id")).isEqualTo(0L);
-        Assertions.assertThat(actual.get(1).getParameters().get("text"))
-                .isEqualTo(String.format("Одобрение на усыновление подтверждено у %s %s.",
-                        user.getName(), user.getSurname()));
 
         assertEquals(1, result.size());
         User updatedUser = result.get(0);
@@ -89,11 +152,6 @@ public class TimerTest {
         List<User> users = Collections.singletonList(user);
         when(userService.findByState(User.OwnerStateEnum.REFUSE)).thenReturn(users);
 
-        User volunteer = new User();
-        volunteer.setTelegramId(0L);
-        volunteer.setVolunteer(true);
-        when(userService.findVolunteers()).thenReturn(Collections.singletonList(volunteer));
-
         // When
         List<User> result = timer.changeStateRefusedToBlackListAndCollect();
 
@@ -103,15 +161,11 @@ public class TimerTest {
         assertEquals(User.OwnerStateEnum.BLACKLIST, updatedUser.getState());
 
         List<SendMessage> actual = getActualSendMessages();
-        Assertions.assertThat(actual.size()).isEqualTo(2);
+        Assertions.assertThat(actual.size()).isEqualTo(1);
         Assertions.assertThat(actual.get(0).getParameters().get("chat_id")).isEqualTo(1L);
         Assertions.assertThat(actual.get(0).getParameters().get("text"))
                 .isEqualTo(String.format("Уважаемый %s %s Вы НЕ прошли пробный период! " +
                         "Пожалуйста сдайте собаку в приют!", user.getName(), user.getSurname()));
-        Assertions.assertThat(actual.get(1).getParameters().get("chat_id")).isEqualTo(0L);
-        Assertions.assertThat(actual.get(1).getParameters().get("text"))
-                .isEqualTo(String.format("Отказ подтвержден у %s %s.",
-                        user.getName(), user.getSurname()));
     }
 
     @Test
@@ -126,27 +180,17 @@ public class TimerTest {
         List<User> users = Collections.singletonList(user);
         when(userService.findByState(User.OwnerStateEnum.PROLONGED)).thenReturn(users);
 
-        User volunteer = new User();
-        volunteer.setTelegramId(0L);
-        volunteer.setVolunteer(true);
-        when(userService.findVolunteers()).thenReturn(Collections.singletonList(volunteer));
-
         // Act
         List<User> result = timer.findStateProlongedAndCollect();
 
         // Then
         List<SendMessage> actual = getActualSendMessages();
-        Assertions.assertThat(actual.size()).isEqualTo(2);
+        Assertions.assertThat(actual.size()).isEqualTo(1);
         Assertions.assertThat(actual.get(0).getParameters().get("chat_id")).isEqualTo(12345L);
         Assertions.assertThat(actual.get(0).getParameters().get("text")).isEqualTo(String.format(
                 "Уважаемый %s %s, мы решили продлить пробный период на %s дней!",
                 user.getName(), user.getSurname(),
                 Duration.between(user.getEndTest(), LocalDateTime.now()).toDays()));
-        Assertions.assertThat(actual.get(1).getParameters().get("chat_id")).isEqualTo(0L);
-        Assertions.assertThat(actual.get(1).getParameters().get("text")).isEqualTo(String.format(
-                "Подтверждено продление у %s %s на %s дней!",
-                user.getName(), user.getSurname(),
-                Duration.between(user.getEndTest(), LocalDateTime.now()).toDays()));
         assertEquals(1, result.size());
         User updatedUser = result.get(0);
         assertEquals(User.OwnerStateEnum.PROBATION, updatedUser.getState());
@@ -214,76 +258,153 @@ public class TimerTest {
         assertEquals(Animal.AnimalStateEnum.HAPPY_END, updatedAnimal.getState());
     }
 
-    @Disabled
     @Test
     void testCheckingDailyAndTwoDaysReportFromUsers() {
-        // Create two users
-        User user1 = new User();
-        user1.setName("John");
-        user1.setSurname("Doe");
-        user1.setTelegramId(12345L);
-        user1.setEmail("john.doe@example.com");
-        user1.setPhone("+78123003030");
-        user1.setState(User.OwnerStateEnum.PROBATION);
-
-        User user2 = new User();
-        user2.setName("Jane");
-        user2.setSurname("Doe");
-        user2.setTelegramId(67890L);
-        user2.setEmail("jane.doe@example.com");
-        user2.setPhone("+78123003030");
-        user2.setState(User.OwnerStateEnum.PROBATION);
-
-        // Create two animals belonging to user1 and user2
-        Animal animal1 = new Animal();
-        animal1.setUser(user1);
-        animal1.setName("Buddy");
-        animal1.setState(Animal.AnimalStateEnum.IN_TEST);
-
-        Animal animal2 = new Animal();
-        animal2.setUser(user2);
-        animal2.setName("Max");
-        animal2.setState(Animal.AnimalStateEnum.IN_TEST);
-
-        // Create a report for animal1
-        Report report = new Report();
-        report.setAnimal(animal1);
-        report.setDate(LocalDateTime.now().minusHours(12));
-        report.setUser(user1);
-
-        // Create a report for animal2
-        Report report2 = new Report();
-        report2.setAnimal(animal2);
-        report2.setDate(LocalDateTime.now().minusDays(2).withHour(0));
-        report2.setUser(user2);
-
-        // Add the animals and report to the database
-        animalService.create(animal1, Animal.TypeAnimal.DOG);
-        animalService.create(animal2, Animal.TypeAnimal.CAT);
-        reportService.create(report);
-        reportService.create(report2);
-        when(reportService.findByAnimalId(animal1.getId())).thenReturn(Collections.singletonList(report));
-        when(reportService.findByAnimalId(animal2.getId())).thenReturn(Collections.singletonList(report2));
-        when(animalService.findAllByUserIdNotNullAndState(Animal.AnimalStateEnum.IN_TEST))
-                .thenReturn(List.of(animal1, animal2));
+        when(jobRunner.saveCheckpoint(eq(Timer.REPORT_REMINDERS_JOB), any())).thenReturn(true);
+        LocalDateTime now = LocalDateTime.now();
+        //Отчет сдан сегодня - напоминание не нужно
+        AnimalReportStats reported = new AnimalReportStats(1L, 1L, 12345L, "John", "Doe",
+                now.plusDays(20), now.minusHours(1), 5L);
+        //Последний отчет три дня назад
+        AnimalReportStats late = new AnimalReportStats(2L, 2L, 67890L, "Jane", "Doe",
+                now.plusDays(20), now.minusDays(3), 3L);
+        when(reportService.findReportStatsByAnimalState(Animal.AnimalStateEnum.IN_TEST, 0, 500))
+                .thenReturn(List.of(reported, late));
 
-        // Act
         timer.checkingDailyAndTwoDaysReportFromUsers();
 
-        // Verify that the users receive the correct messages
-        List<SendMessage> actual = getActualSendMessages();
-        Assertions.assertThat(actual.size()).isEqualTo(2);
-        Assertions.assertThat(actual.get(0).getParameters().get("chat_id")).isEqualTo(12345L);
-        Assertions.assertThat(actual.get(0).getParameters().get("text")).isEqualTo("Последний отчет " +
-                "был принят более двух дней! Пожалуйста, сдайте отчет.");
-        Assertions.assertThat(actual.get(1).getParameters().get("chat_id")).isEqualTo(67890L);
-        Assertions.assertThat(actual.get(1).getParameters().get("text")).isEqualTo("Последний отчет" +
+        ArgumentCaptor<SendMessage> argumentCaptor = ArgumentCaptor.forClass(SendMessage.class);
+        Mockito.verify(messageSender, times(1)).send(argumentCaptor.capture());
+        List<SendMessage> actual = argumentCaptor.getAllValues();
+        Assertions.assertThat(actual.get(0).getParameters().get("chat_id")).isEqualTo(67890L);
+        Assertions.assertThat(actual.get(0).getParameters().get("text")).isEqualTo("Последний отчет" +
                 " был принят более двух дней! Пожалуйста, сдайте отчет.");
+        verify(reportService, never()).findByAnimalId(anyLong());
+    }
+
+    @Test
+    void testCheckingDailyReportFromUsersWithoutReports() {
+        when(jobRunner.saveCheckpoint(eq(Timer.REPORT_REMINDERS_JOB), any())).thenReturn(true);
+        LocalDateTime now = LocalDateTime.now();
+        //Испытательный срок начался полтора дня назад, отчетов нет
+        AnimalReportStats noReports = new AnimalReportStats(1L, 1L, 12345L, "John", "Doe",
+                now.plusDays(30).minusHours(36), null, 0L);
+        when(reportService.findReportStatsByAnimalState(Animal.AnimalStateEnum.IN_TEST, 0, 500))
+                .thenReturn(List.of(noReports));
+
+        timer.checkingDailyAndTwoDaysReportFromUsers();
+
+        ArgumentCaptor<SendMessage> argumentCaptor = ArgumentCaptor.forClass(SendMessage.class);
+        Mockito.verify(messageSender, times(1)).send(argumentCaptor.capture());
+        Assertions.assertThat(argumentCaptor.getValue().getParameters().get("text")).isEqualTo("Здравствуйте, " +
+                "вчера от вас не поступал отчет о собаке. Пожалуйста, сдайте отчет.");
+    }
+
+    @Test
+    void testCheckingReportsPagedWithCheckpoints() {
+        when(jobRunner.saveCheckpoint(eq(Timer.REPORT_REMINDERS_JOB), any())).thenReturn(true);
+        LocalDateTime now = LocalDateTime.now();
+        timer = new Timer(messageSender, animalService, reportService, userService, jobRunner, digestStore,
+                2, Duration.ofHours(4), Duration.ZERO);
+        List<AnimalReportStats> firstPage = List.of(
+                new AnimalReportStats(1L, 1L, 101L, "John", "Doe", now.plusDays(20), now.minusDays(3), 3L),
+                new AnimalReportStats(2L, 2L, 102L, "Jane", "Doe", now.plusDays(20), now.minusHours(1), 5L));
+        List<AnimalReportStats> secondPage = List.of(
+                new AnimalReportStats(5L, 3L, 103L, "Jack", "Doe", now.plusDays(20), now.minusDays(3), 3L));
+        when(reportService.findReportStatsByAnimalState(Animal.AnimalStateEnum.IN_TEST, 0, 2)).thenReturn(firstPage);
+        when(reportService.findReportStatsByAnimalState(Animal.AnimalStateEnum.IN_TEST, 2, 2)).thenReturn(secondPage);
+
+        int actual = timer.checkingDailyAndTwoDaysReportFromUsers();
+
+        Assertions.assertThat(actual).isEqualTo(2);
+        verify(messageSender, times(2)).send(any(SendMessage.class));
+        ArgumentCaptor<String> checkpoints = ArgumentCaptor.forClass(String.class);
+        verify(jobRunner, atLeast(2)).saveCheckpoint(eq(Timer.REPORT_REMINDERS_JOB), checkpoints.capture());
+        Assertions.assertThat(checkpoints.getAllValues()).last().isNull();
+        Assertions.assertThat(checkpoints.getAllValues()).anyMatch(checkpoint -> checkpoint != null
+                && checkpoint.endsWith(";5"));
+    }
+
+    @Test
+    void testCheckingReportsStopsWhenLockLost() {
+        LocalDateTime now = LocalDateTime.now();
+        timer = new Timer(messageSender, animalService, reportService, userService, jobRunner, digestStore,
+                1, Duration.ofHours(4), Duration.ZERO);
+        when(reportService.findReportStatsByAnimalState(Animal.AnimalStateEnum.IN_TEST, 0, 1)).thenReturn(List.of(
+                new AnimalReportStats(1L, 1L, 101L, "John", "Doe", now.plusDays(20), now.minusDays(3), 3L)));
+        when(jobRunner.saveCheckpoint(eq(Timer.REPORT_REMINDERS_JOB), any())).thenReturn(false);
+
+        Assertions.assertThatThrownBy(() -> timer.checkingDailyAndTwoDaysReportFromUsers())
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(reportService, times(1)).findReportStatsByAnimalState(any(), anyLong(), anyInt());
+        verify(jobRunner, never()).saveCheckpoint(Timer.REPORT_REMINDERS_JOB, null);
+        verify(userService, never()).findVolunteers();
+    }
+
+    @Test
+    void testResumeReportReminders() {
+        when(jobRunner.saveCheckpoint(eq(Timer.REPORT_REMINDERS_JOB), any())).thenReturn(true);
+        LocalDateTime startedAt = LocalDateTime.now().minusMinutes(30);
+        //Напоминание отправлено до прерывания, усыновитель остается в сводке
+        AnimalReportStats reminded = new AnimalReportStats(3L, 3L, 103L, "Jack", "Doe",
+                startedAt.plusDays(20), startedAt.minusDays(3), 3L);
+        AnimalReportStats late = new AnimalReportStats(7L, 7L, 107L, "John", "Doe",
+                startedAt.plusDays(20), startedAt.minusDays(3), 3L);
+        User volunteer = new User();
+        volunteer.setTelegramId(0L);
+        when(jobRunner.findCheckpoint(Timer.REPORT_REMINDERS_JOB))
+                .thenReturn(Optional.of(new Timer.ReminderCheckpoint(startedAt, 6L).format()));
+        when(reportService.findReportStatsByAnimalState(Animal.AnimalStateEnum.IN_TEST, 0, 500))
+                .thenReturn(List.of(reminded, late));
+        when(userService.findVolunteers()).thenReturn(List.of(volunteer));
+
+        int actual = timer.resumeReportReminders();
+
+        Assertions.assertThat(actual).isEqualTo(1);
+        ArgumentCaptor<SendMessage> argumentCaptor = ArgumentCaptor.forClass(SendMessage.class);
+        verify(messageSender, times(2)).send(argumentCaptor.capture());
+        Assertions.assertThat(argumentCaptor.getAllValues())
+                .extracting(message -> message.getParameters().get("chat_id"))
+                .containsExactly(107L, 0L);
+        Assertions.assertThat((String) argumentCaptor.getAllValues().get(1).getParameters().get("text"))
+                .contains("Jack Doe", "John Doe");
+        verify(jobRunner).saveCheckpoint(Timer.REPORT_REMINDERS_JOB, null);
+    }
+
+    @Test
+    void testResumeReportRemindersExpired() {
+        when(jobRunner.saveCheckpoint(eq(Timer.REPORT_REMINDERS_JOB), any())).thenReturn(true);
+        when(jobRunner.findCheckpoint(Timer.REPORT_REMINDERS_JOB)).thenReturn(Optional.of(
+                new Timer.ReminderCheckpoint(LocalDateTime.now().minusHours(5), 6L).format()));
+
+        int actual = timer.resumeReportReminders();
+
+        Assertions.assertThat(actual).isZero();
+        verify(jobRunner).saveCheckpoint(Timer.REPORT_REMINDERS_JOB, null);
+        verifyNoInteractions(reportService, messageSender);
+    }
+
+    @Test
+    void testReportRemindersSpread() {
+        when(jobRunner.saveCheckpoint(eq(Timer.REPORT_REMINDERS_JOB), any())).thenReturn(true);
+        timer = new Timer(messageSender, animalService, reportService, userService, jobRunner, digestStore,
+                500, Duration.ofHours(4), Duration.ofMinutes(10));
+        LocalDateTime now = LocalDateTime.now();
+        AnimalReportStats late = new AnimalReportStats(1L, 1L, 67890L, "Jane", "Doe",
+                now.plusDays(20), now.minusDays(3), 3L);
+        when(reportService.findReportStatsByAnimalState(Animal.AnimalStateEnum.IN_TEST, 0, 500))
+                .thenReturn(List.of(late));
+
+        timer.checkingDailyAndTwoDaysReportFromUsers();
+
+        verify(messageSender).send(any(SendMessage.class), eq(Duration.ofMillis(67890L)));
+        verify(messageSender, never()).send(any(SendMessage.class));
     }
 
     private List<SendMessage> getActualSendMessages() {
         ArgumentCaptor<SendMessage> argumentCaptor = ArgumentCaptor.forClass(SendMessage.class);
-        Mockito.verify(bot, times(2)).execute(argumentCaptor.capture());
+        Mockito.verify(messageSender, times(1)).send(argumentCaptor.capture());
         return argumentCaptor.getAllValues();
     }
 }
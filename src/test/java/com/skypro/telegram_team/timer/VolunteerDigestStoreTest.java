@@ -0,0 +1,27 @@
+package com.skypro.telegram_team.timer;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class VolunteerDigestStoreTest {
+    private final VolunteerDigestStore out = new VolunteerDigestStore(Duration.ofHours(1), 2);
+
+    @Test
+    void save_keepsLastDigests() {
+        //Given
+        VolunteerDigest first = new VolunteerDigest();
+        VolunteerDigest second = new VolunteerDigest();
+        VolunteerDigest third = new VolunteerDigest();
+        //When
+        long firstId = out.save(first);
+        long secondId = out.save(second);
+        long thirdId = out.save(third);
+        //Then
+        Assertions.assertThat(out.find(firstId)).isEmpty();
+        Assertions.assertThat(out.find(secondId)).containsSame(second);
+        Assertions.assertThat(out.find(thirdId)).containsSame(third);
+        Assertions.assertThat(out.find(thirdId + 1)).isEmpty();
+    }
+}
@@ -0,0 +1,92 @@
+package com.skypro.telegram_team.timer;
+
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+import com.pengrad.telegrambot.request.EditMessageText;
+import com.pengrad.telegrambot.request.SendMessage;
+import com.skypro.telegram_team.keyboard.Callback;
+import com.skypro.telegram_team.keyboard.CallbackRoutes;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class VolunteerDigestTest {
+    private final VolunteerDigest out = new VolunteerDigest();
+
+    @Test
+    void toMessage_groupedByTopic() {
+        //Given
+        out.add(VolunteerDigest.Topic.DECISION, 1L, "Ivan", "Ivanov", null);
+        out.add(VolunteerDigest.Topic.ADOPTED, 2L, "Petr", "Petrov", null);
+        out.add(VolunteerDigest.Topic.DECISION, 3L, "Anna", "<b>", "на 5 дней");
+        //When
+        SendMessage actual = out.toMessage(10L, 7L);
+        //Then
+        Assertions.assertThat(actual.getParameters().get("chat_id")).isEqualTo(10L);
+        String text = (String) actual.getParameters().get("text");
+        Assertions.assertThat(text)
+                .containsSubsequence(VolunteerDigest.Topic.ADOPTED.getTitle(), "Petr Petrov",
+                        VolunteerDigest.Topic.DECISION.getTitle(), "Ivan Ivanov", "Anna &lt;b&gt; (на 5 дней)")
+                .doesNotContain("стр.");
+        InlineKeyboardMarkup markup = (InlineKeyboardMarkup) actual.getParameters().get("reply_markup");
+        Assertions.assertThat(markup.inlineKeyboard().length).isEqualTo(3);
+        Assertions.assertThat(markup.inlineKeyboard()[0][0].callbackData())
+                .isEqualTo(Callback.ADOPTER_INFO.name() + 2);
+    }
+
+    @Test
+    void toMessage_firstPageOnly() {
+        //Given
+        for (long id = 0; id < VolunteerDigest.PAGE_SIZE * 2 + 1; id++) {
+            out.add(VolunteerDigest.Topic.ADOPTED, id, "name" + id, "surname", null);
+        }
+        //When
+        SendMessage actual = out.toMessage(10L, 7L);
+        //Then
+        Assertions.assertThat((String) actual.getParameters().get("text")).contains("стр. 1 из 3")
+                .doesNotContain("name" + VolunteerDigest.PAGE_SIZE + " ");
+        InlineKeyboardMarkup markup = (InlineKeyboardMarkup) actual.getParameters().get("reply_markup");
+        Assertions.assertThat(markup.inlineKeyboard().length).isEqualTo(VolunteerDigest.PAGE_SIZE + 1);
+        String next = markup.inlineKeyboard()[VolunteerDigest.PAGE_SIZE][0].callbackData();
+        Assertions.assertThat(next).isEqualTo(Callback.DIGEST_PAGE.name() + "7_1");
+        CallbackRoutes.Route route = CallbackRoutes.route(next);
+        Assertions.assertThat(route.callback()).isEqualTo(Callback.DIGEST_PAGE);
+        Assertions.assertThat(VolunteerDigest.PageRef.parse(route.payload()))
+                .isEqualTo(new VolunteerDigest.PageRef(7L, 1));
+    }
+
+    @Test
+    void toPage_editsMessage() {
+        //Given
+        for (long id = 0; id < VolunteerDigest.PAGE_SIZE * 2 + 1; id++) {
+            out.add(VolunteerDigest.Topic.ADOPTED, id, "name" + id, "surname", null);
+        }
+        //When
+        EditMessageText middle = out.toPage(10L, 5, new VolunteerDigest.PageRef(7L, 1));
+        EditMessageText last = out.toPage(10L, 5, new VolunteerDigest.PageRef(7L, 100));
+        //Then
+        Assertions.assertThat(middle.getParameters())
+                .containsEntry("chat_id", 10L)
+                .containsEntry("message_id", 5);
+        Assertions.assertThat((String) middle.getParameters().get("text")).contains("стр. 2 из 3",
+                "name" + VolunteerDigest.PAGE_SIZE + " ");
+        InlineKeyboardMarkup middleMarkup = (InlineKeyboardMarkup) middle.getParameters().get("reply_markup");
+        Assertions.assertThat(middleMarkup.inlineKeyboard()[VolunteerDigest.PAGE_SIZE]).hasSize(2);
+        Assertions.assertThat((String) last.getParameters().get("text")).contains("стр. 3 из 3");
+        InlineKeyboardMarkup lastMarkup = (InlineKeyboardMarkup) last.getParameters().get("reply_markup");
+        Assertions.assertThat(lastMarkup.inlineKeyboard().length).isEqualTo(2);
+        Assertions.assertThat(lastMarkup.inlineKeyboard()[1][0].callbackData())
+                .isEqualTo(Callback.DIGEST_PAGE.name() + "7_1");
+    }
+
+    @Test
+    void pageRef_invalid() {
+        //Then
+        Assertions.assertThatThrownBy(() -> VolunteerDigest.PageRef.parse("7"))
+                .isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void isEmpty() {
+        //Then
+        Assertions.assertThat(out.isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,64 @@
+package com.skypro.telegram_team.validation;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+class ContactValidatorTest {
+    //Прежний шаблон проверки телефона
+    private static final Pattern PHONE_PATTERN = Pattern.compile("^((\\+7|7|8)+([0-9]){10})$");
+
+    @ParameterizedTest
+    @ValueSource(strings = {"+79991234567", "79991234567", "89991234567", "+7+79991234567", "789991234567"})
+    void isPhoneValid_true(String phone) {
+        //Then
+        Assertions.assertThat(ContactValidator.isPhoneValid(phone)).isTrue();
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"", "9991234567", "+9991234567", "+7999123456", "+799912345678", "+7999123456a",
+            "+7 9991234567", "+", "++79991234567", "+8 9991234567", "69991234567", "+79991234567\n"})
+    void isPhoneValid_false(String phone) {
+        //Then
+        Assertions.assertThat(ContactValidator.isPhoneValid(phone)).isFalse();
+    }
+
+    @Test
+    void isPhoneValid_sameAsPattern() {
+        //Given
+        Random random = new Random(42);
+        char[] alphabet = {'+', '7', '8', '0', '1', '9', 'a', ' '};
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder phone = new StringBuilder();
+            int length = random.nextInt(16);
+            for (int j = 0; j < length; j++) {
+                phone.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            //Then
+            Assertions.assertThat(ContactValidator.isPhoneValid(phone.toString()))
+                    .as(phone.toString())
+                    .isEqualTo(PHONE_PATTERN.matcher(phone).matches());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"user@mail.ru", "first.last+tag@sub.domain.com"})
+    void isEmailValid_true(String email) {
+        //Then
+        Assertions.assertThat(ContactValidator.isEmailValid(email)).isTrue();
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"", "user", "user@mail", "user@mail.r", "@mail.ru", "user mail@mail.ru"})
+    void isEmailValid_false(String email) {
+        //Then
+        Assertions.assertThat(ContactValidator.isEmailValid(email)).isFalse();
+    }
+}